@@ -0,0 +1,107 @@
+package com.sofia.recipeapp.cache;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * Builds strong ETags from the versions and counters a response is made of, without building the response.
+ * Every part goes through a 64-bit FNV-1a hash, the ETag is its hex value in quotes.
+ * Parts are added in a fixed order, so the same state always gives the same ETag.
+ */
+public final class ETags {
+
+    // browsers may keep the response but have to revalidate it, shared caches must not keep it
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private long hash = 0xcbf29ce484222325L;
+
+    private ETags() {
+    }
+
+    /**
+     * @param kind what the ETag is for, ETags of different resources with the same versions differ
+     */
+    public static ETags of(String kind) {
+        return new ETags().add(kind);
+    }
+
+    public ETags add(long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            mix((byte) (value >>> shift));
+        }
+        return this;
+    }
+
+    public ETags add(long... values) {
+        for (long value : values) {
+            add(value);
+        }
+        return this;
+    }
+
+    public ETags add(Long value) {
+        return add(value == null ? -1 : value);
+    }
+
+    public ETags add(boolean value) {
+        return add(value ? 1 : 0);
+    }
+
+    public ETags add(String value) {
+        if (value == null) {
+            return add(-1);
+        }
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            mix(b);
+        }
+        // separator, so "ab" + "c" differs from "a" + "bc"
+        mix((byte) 0);
+        return this;
+    }
+
+    public String build() {
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * conditional GET - the body is only built when the client doesn't have the current version
+     * @param ifNoneMatch If-None-Match request header, may be null
+     * @param eTag current ETag of the resource
+     * @param body builds the response body
+     * @return HTTP 304 (Not Modified) when an ETag of the header matches, 200 (OK) with the body otherwise
+     */
+    public static <T> ResponseEntity<T> conditional(String ifNoneMatch, String eTag, Supplier<T> body) {
+        if (matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    /**
+     * If-None-Match uses the weak comparison, W/"x" matches "x"
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void mix(byte b) {
+        hash ^= b & 0xff;
+        hash *= 0x100000001b3L;
+    }
+}
@@ -0,0 +1,107 @@
+package com.sofia.recipeapp.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * UTF-8 JSON of a response serialized without the viewing user, cut at every "favourite" flag.
+ * parts[0] flag(recipeIds[0]) parts[1] flag(recipeIds[1]) ... parts[n] is the whole JSON again,
+ * so a cached fragment is written for any user by splicing in their flags.
+ */
+public final class JsonFragment {
+
+    private static final byte[] FLAG = "\"favourite\":false".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRUE = "\"favourite\":true".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[][] parts;
+    private final long[] recipeIds;
+    private final int size;
+
+    private JsonFragment(byte[][] parts, long[] recipeIds) {
+        this.parts = parts;
+        this.recipeIds = recipeIds;
+        this.size = Arrays.stream(parts).mapToInt(part -> part.length).sum() + recipeIds.length * FLAG.length;
+    }
+
+    /**
+     * quotes inside JSON strings are escaped, so the flag can't be found inside a title or a description
+     * @param json JSON serialized with every favourite flag false
+     * @param recipeIds ids of the recipes whose flags the JSON contains, in the order they are serialized
+     * @return fragment
+     * @throws IllegalStateException when the JSON doesn't contain exactly one flag per recipe
+     */
+    public static JsonFragment of(byte[] json, List<Long> recipeIds) {
+        List<byte[]> parts = new ArrayList<>(recipeIds.size() + 1);
+        int start = 0;
+        for (int i = 0; i <= json.length - FLAG.length; i++) {
+            if (Arrays.equals(json, i, i + FLAG.length, FLAG, 0, FLAG.length)) {
+                parts.add(Arrays.copyOfRange(json, start, i));
+                start = i + FLAG.length;
+                i = start - 1;
+            }
+        }
+        parts.add(Arrays.copyOfRange(json, start, json.length));
+
+        if (parts.size() != recipeIds.size() + 1) {
+            throw new IllegalStateException(
+                    "Expected " + recipeIds.size() + " favourite flags, found " + (parts.size() - 1));
+        }
+        return new JsonFragment(parts.toArray(byte[][]::new), recipeIds.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * @return ids of the recipes whose favourite flags are spliced in
+     */
+    public List<Long> recipeIds() {
+        return Arrays.stream(recipeIds).boxed().toList();
+    }
+
+    public boolean containsRecipe(long recipeId) {
+        for (long id : recipeIds) {
+            if (id == recipeId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return bytes kept in memory, roughly
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param favourites favourite recipe ids of the viewing user
+     * @return response body for the user
+     */
+    public JsonPayload render(LongPredicate favourites) {
+        boolean[] flags = new boolean[recipeIds.length];
+        for (int i = 0; i < recipeIds.length; i++) {
+            flags[i] = favourites.test(recipeIds[i]);
+        }
+        return new JsonPayload(this, flags);
+    }
+
+    long contentLength(boolean[] flags) {
+        long length = size;
+        for (boolean flag : flags) {
+            length += flag ? TRUE.length - FLAG.length : 0;
+        }
+        return length;
+    }
+
+    void writeTo(OutputStream out, boolean[] flags) throws IOException {
+        for (int i = 0; i < recipeIds.length; i++) {
+            out.write(parts[i]);
+            out.write(flags[i] ? TRUE : FLAG);
+        }
+        out.write(parts[recipeIds.length]);
+    }
+}
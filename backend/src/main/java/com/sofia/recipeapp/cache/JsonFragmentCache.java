@@ -0,0 +1,119 @@
+package com.sofia.recipeapp.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sofia.recipeapp.event.CookbookChangedEvent;
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of serialized recipe and cookbook responses, bounded by bytes (app.json-cache.max-bytes).
+ * Every entry keeps the stamp (versions and counters) it was built from, an entry with a different stamp
+ * than the current one is rebuilt - so flushed counters and renamed authors are picked up without events.
+ * Recipe and cookbook events drop the affected entries right away, a changed recipe also drops every cookbook
+ * containing it.
+ */
+@Component
+public class JsonFragmentCache {
+
+    public enum Kind {
+        RECIPE, COOKBOOK
+    }
+
+    private record Key(Kind kind, Long id) {
+    }
+
+    private record Entry(String stamp, JsonFragment fragment) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    public JsonFragmentCache(ObjectMapper objectMapper, @Value("${app.json-cache.max-bytes:16777216}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * returns the cached fragment or builds and caches it
+     * @param kind recipe or cookbook
+     * @param id recipe or cookbook id
+     * @param stamp current versions of everything the response is built from
+     * @param loader builds the fragment on a miss, called without holding the cache lock
+     * @return fragment matching the stamp
+     */
+    public JsonFragment get(Kind kind, Long id, String stamp, Supplier<JsonFragment> loader) {
+        Key key = new Key(kind, id);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.stamp().equals(stamp)) {
+                return entry.fragment();
+            }
+        }
+
+        JsonFragment fragment = loader.get();
+        if (fragment.size() <= maxBytes / 16) {
+            put(key, new Entry(stamp, fragment));
+        }
+        return fragment;
+    }
+
+    /**
+     * @param dto response serialized with every favourite flag false
+     * @param recipeIds ids of the recipes in the response, in the order they are serialized
+     * @return fragment of the serialized dto
+     */
+    public JsonFragment serialize(Object dto, List<Long> recipeIds) {
+        try {
+            return JsonFragment.of(objectMapper.writeValueAsBytes(dto), recipeIds);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Couldn't serialize " + dto.getClass().getSimpleName(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRecipeChanged(RecipeChangedEvent event) {
+        removeIf(entry -> entry.getKey().equals(new Key(Kind.RECIPE, event.recipeId()))
+                || (entry.getKey().kind() == Kind.COOKBOOK
+                && entry.getValue().fragment().containsRecipe(event.recipeId())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCookbookChanged(CookbookChangedEvent event) {
+        Entry removed = entries.remove(new Key(Kind.COOKBOOK, event.cookbookId()));
+        if (removed != null) {
+            bytes -= removed.fragment().size();
+        }
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        Entry replaced = entries.put(key, entry);
+        bytes += entry.fragment().size() - (replaced == null ? 0 : replaced.fragment().size());
+
+        for (Iterator<Entry> it = entries.values().iterator(); bytes > maxBytes && it.hasNext(); ) {
+            bytes -= it.next().fragment().size();
+            it.remove();
+        }
+    }
+
+    private void removeIf(Predicate<Map.Entry<Key, Entry>> affected) {
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (affected.test(entry)) {
+                bytes -= entry.getValue().fragment().size();
+                it.remove();
+            }
+        }
+    }
+}
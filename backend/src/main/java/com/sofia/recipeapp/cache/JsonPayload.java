@@ -0,0 +1,19 @@
+package com.sofia.recipeapp.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Response body made of a cached {@link JsonFragment} and the favourite flags of the viewing user,
+ * written to the response by {@link JsonPayloadConverter} without building DTOs or running Jackson.
+ */
+public record JsonPayload(JsonFragment fragment, boolean[] favourites) {
+
+    public long contentLength() {
+        return fragment.contentLength(favourites);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        fragment.writeTo(out, favourites);
+    }
+}
@@ -0,0 +1,47 @@
+package com.sofia.recipeapp.cache;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link JsonPayload} bodies straight to the servlet output stream.
+ * Registered in front of the Jackson converter, which would serialize the record itself.
+ */
+@Component
+public class JsonPayloadConverter extends AbstractHttpMessageConverter<JsonPayload> {
+
+    public JsonPayloadConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonPayload.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonPayload readInternal(Class<? extends JsonPayload> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("JSON payloads are only written", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(JsonPayload payload, MediaType contentType) {
+        return payload.contentLength();
+    }
+
+    @Override
+    protected void writeInternal(JsonPayload payload, HttpOutputMessage outputMessage) throws IOException {
+        payload.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,75 @@
+package com.sofia.recipeapp.cache;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of query results (ordered id lists) with a time to live.
+ * Every invalidation bumps a generation counter - a result computed while an invalidation
+ * happened is returned to the caller but not stored, so a stale result can't outlive the invalidation.
+ */
+public class QueryResultCache<K> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry> entries;
+    private long generation;
+
+    public QueryResultCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                return size() > QueryResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * returns the cached result or computes and caches it
+     * @param key normalized query
+     * @param loader computes the result on a miss, called without holding the cache lock
+     * @return ids of the result
+     */
+    public List<Long> get(K key, Supplier<List<Long>> loader) {
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                return entry.ids;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            startGeneration = generation;
+        }
+
+        List<Long> ids = List.copyOf(loader.get());
+
+        synchronized (this) {
+            if (generation == startGeneration) {
+                entries.put(key, new Entry(ids, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * removes every entry matching the predicate
+     * @param affected tests the key and the cached ids of an entry
+     */
+    public synchronized void invalidateIf(BiPredicate<K, List<Long>> affected) {
+        generation++;
+        entries.entrySet().removeIf(entry -> affected.test(entry.getKey(), entry.getValue().ids));
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    private record Entry(List<Long> ids, long expiresAt) {
+    }
+}
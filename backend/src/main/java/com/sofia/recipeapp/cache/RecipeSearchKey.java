@@ -0,0 +1,82 @@
+package com.sofia.recipeapp.cache;
+
+import com.sofia.recipeapp.search.RecipeDocument;
+import com.sofia.recipeapp.search.TextAnalyzer;
+
+import java.util.*;
+
+/**
+ * Normalized recipe search query, two queries differing only in case, accents,
+ * whitespace or tag order share one cache entry.
+ */
+public record RecipeSearchKey(String username, List<String> titleTokens, List<String> tags,
+                              List<String> anyTags, List<String> excludedTags) {
+
+    public static RecipeSearchKey of(String username, String title, List<String> tags,
+                                     List<String> anyTags, List<String> excludedTags) {
+        return new RecipeSearchKey(
+                username == null || username.isBlank() ? null : username.trim().toLowerCase(Locale.ROOT),
+                TextAnalyzer.tokenize(title),
+                normalizeTags(tags),
+                normalizeTags(anyTags),
+                normalizeTags(excludedTags)
+        );
+    }
+
+    /**
+     * terms of the title, description, instructions and ingredient names of a recipe,
+     * computed once per change and shared by every {@link #matches} check
+     * @param document recipe snapshot
+     * @return tokens of the searchable text
+     */
+    public static Set<String> terms(RecipeDocument document) {
+        Set<String> terms = new HashSet<>();
+        terms.addAll(TextAnalyzer.tokenize(document.title()));
+        terms.addAll(TextAnalyzer.tokenize(document.description()));
+        terms.addAll(TextAnalyzer.tokenize(document.instructions()));
+        document.ingredientNames().forEach(name -> terms.addAll(TextAnalyzer.tokenize(name)));
+        return terms;
+    }
+
+    /**
+     * whether the recipe satisfies this query, used to find entries a changed recipe may enter
+     * @param terms {@link #terms} of the document
+     * @param document recipe snapshot
+     * @return true when the recipe matches every filter of the query
+     */
+    public boolean matches(Set<String> terms, RecipeDocument document) {
+        if (username != null && !document.authorUsername().toLowerCase(Locale.ROOT).contains(username)) {
+            return false;
+        }
+
+        Set<String> recipeTags = new HashSet<>(normalizeTags(document.tagNames()));
+        if (!recipeTags.containsAll(tags)
+                || (!anyTags.isEmpty() && anyTags.stream().noneMatch(recipeTags::contains))
+                || excludedTags.stream().anyMatch(recipeTags::contains)) {
+            return false;
+        }
+
+        if (titleTokens.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < titleTokens.size() - 1; i++) {
+            if (!terms.contains(titleTokens.get(i))) {
+                return false;
+            }
+        }
+        String last = titleTokens.get(titleTokens.size() - 1);
+        return terms.stream().anyMatch(term -> term.startsWith(last));
+    }
+
+    private static List<String> normalizeTags(List<String> tags) {
+        if (tags == null) {
+            return List.of();
+        }
+        return tags.stream()
+                .map(tag -> TextAnalyzer.normalize(tag).trim())
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.sofia.recipeapp.cache;
+
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.event.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Caches ids of recipe search results.
+ * Only ids are cached, DTOs are still built per user because of the favourite flag.
+ * A change drops just the entries it can affect - entries already containing the changed recipe
+ * and entries whose query the new state matches.
+ */
+@Component
+public class SearchResultCache {
+
+    private final QueryResultCache<RecipeSearchKey> recipes;
+
+    public SearchResultCache(
+            @Value("${app.search.cache.max-entries:1000}") int maxEntries,
+            @Value("${app.search.cache.ttl-seconds:300}") long ttlSeconds
+    ) {
+        this.recipes = new QueryResultCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    public List<Long> getRecipes(RecipeSearchKey key, Supplier<List<Long>> search) {
+        return recipes.get(key, search);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.isDeleted()) {
+            recipes.invalidateIf((key, ids) -> ids.contains(event.recipeId()));
+            return;
+        }
+        Set<String> terms = RecipeSearchKey.terms(event.document());
+        recipes.invalidateIf((key, ids) -> ids.contains(event.recipeId()) || key.matches(terms, event.document()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.oldUsername() == null || event.newUsername() == null) {
+            // registration doesn't change any result, a deleted users recipes publish their own events
+            return;
+        }
+        recipes.invalidateIf((key, ids) -> usernameAffected(key.username(), event));
+    }
+
+    private static boolean usernameAffected(String filter, UserChangedEvent event) {
+        return filter != null
+                && (event.oldUsername().toLowerCase(Locale.ROOT).contains(filter)
+                || event.newUsername().toLowerCase(Locale.ROOT).contains(filter));
+    }
+}
@@ -0,0 +1,10 @@
+package com.sofia.recipeapp.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * ETag of a JSON response and the way to build the response, both from the same version and favourite lookups.
+ * body - only called when the client doesn't have the current version, see {@link ETags#conditional}
+ */
+public record VersionedJson(String eTag, Supplier<JsonPayload> body) {
+}
@@ -1,18 +1,36 @@
 package com.sofia.recipeapp.controller;
 
+import com.sofia.recipeapp.dto.ImportReportDTO;
 import com.sofia.recipeapp.dto.RecipeAdminDTO;
 import com.sofia.recipeapp.dto.UserDTO;
 import com.sofia.recipeapp.dto.UserPasswordDTO;
+import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.importer.RecipeRecordReader;
 import com.sofia.recipeapp.model.Recipe;
 import com.sofia.recipeapp.model.User;
+import com.sofia.recipeapp.security.AuthenticatedUser;
+import com.sofia.recipeapp.services.ExportService;
+import com.sofia.recipeapp.services.RecipeImportService;
 import com.sofia.recipeapp.services.RecipeService;
 import com.sofia.recipeapp.services.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -21,6 +39,14 @@ public class AdminController {
 
     private final UserService userService;
     private final RecipeService recipeService;
+    private final ExportService exportService;
+    private final RecipeImportService recipeImportService;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // exports of a large catalog outlive the default async request timeout
+    @Value("${app.export.timeout-ms:1800000}")
+    private long exportTimeoutMillis;
 
     @GetMapping("/users")
     public ResponseEntity<List<User>> getAllUsers() {
@@ -46,6 +72,85 @@ public class AdminController {
         return ResponseEntity.ok("Recipe deleted successfully");
     }
 
+    /**
+     * streams all recipes as NDJSON
+     * @param gzip whether to gzip the file
+     * @return HTTP 200 (OK) with recipes.ndjson or recipes.ndjson.gz
+     */
+    @GetMapping("/export/recipes")
+    public WebAsyncTask<Void> exportRecipes(@RequestParam(defaultValue = "false") boolean gzip, HttpServletResponse response) {
+        return export("recipes", gzip, response, exportService::exportRecipes);
+    }
+
+    /**
+     * streams all users as NDJSON
+     * @param gzip whether to gzip the file
+     * @return HTTP 200 (OK) with users.ndjson or users.ndjson.gz
+     */
+    @GetMapping("/export/users")
+    public WebAsyncTask<Void> exportUsers(@RequestParam(defaultValue = "false") boolean gzip, HttpServletResponse response) {
+        return export("users", gzip, response, exportService::exportUsers);
+    }
+
+    /**
+     * writes the export on an async request with app.export.timeout-ms as its own timeout,
+     * other async requests keep the default one
+     */
+    private WebAsyncTask<Void> export(String name, boolean gzip, HttpServletResponse response, StreamingResponseBody writer) {
+        response.setContentType(gzip ? "application/gzip" : NDJSON.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + (gzip ? ".ndjson.gz" : ".ndjson") + "\"");
+
+        return new WebAsyncTask<>(exportTimeoutMillis, () -> {
+            OutputStream out = response.getOutputStream();
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                writer.writeTo(gzipOut);
+                gzipOut.finish();
+            } else {
+                writer.writeTo(out);
+            }
+            out.flush();
+            return null;
+        });
+    }
+
+    /**
+     * imports recipes from the request body
+     * NDJSON (application/x-ndjson, the export format) or schema.org JSON-LD (application/ld+json, application/json),
+     * the body may be gzipped (Content-Encoding: gzip)
+     * @param body import file
+     * @param format ndjson or jsonld, taken from Content-Type when missing
+     * @param authentication authenticated admin, author of recipes whose author doesn't exist
+     * @return HTTP 200 (OK) with the import report
+     */
+    @PostMapping("/import/recipes")
+    public ResponseEntity<ImportReportDTO> importRecipes(
+            InputStream body,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            Authentication authentication
+    ) throws IOException {
+        AuthenticatedUser admin = (AuthenticatedUser) authentication.getPrincipal();
+        InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body, 64 * 1024) : body;
+
+        return ResponseEntity.ok(recipeImportService.importRecipes(in, importFormat(format, contentType),
+                admin.getId(), admin.getUsername()));
+    }
+
+    private static RecipeRecordReader.Format importFormat(String format, String contentType) {
+        String value = format != null ? format : contentType != null ? contentType : "ndjson";
+        value = value.toLowerCase();
+        if (value.contains("ndjson")) {
+            return RecipeRecordReader.Format.NDJSON;
+        }
+        if (value.contains("jsonld") || value.contains("json")) {
+            return RecipeRecordReader.Format.JSON_LD;
+        }
+        throw new ApiException("Unsupported import format " + value, HttpStatus.BAD_REQUEST);
+    }
+
     @PostMapping("/login")
     public ResponseEntity<UserDTO> loginUser(@RequestBody UserPasswordDTO user) {
         return ResponseEntity.ok(userService.loginAdmin(user));
@@ -1,14 +1,29 @@
 package com.sofia.recipeapp.controller;
 
+import com.sofia.recipeapp.cache.ETags;
+import com.sofia.recipeapp.cache.JsonPayload;
+import com.sofia.recipeapp.cache.VersionedJson;
+import com.sofia.recipeapp.dto.CookbookBatchDTO;
+import com.sofia.recipeapp.dto.CookbookBatchResultDTO;
 import com.sofia.recipeapp.dto.CookbookDTO;
+import com.sofia.recipeapp.dto.CookbookSummaryDTO;
 import com.sofia.recipeapp.dto.CreateCookbookDTO;
-import com.sofia.recipeapp.dto.RecipeDTO;
+import com.sofia.recipeapp.dto.CursorPageDTO;
+import com.sofia.recipeapp.dto.FeedPageDTO;
+import com.sofia.recipeapp.dto.RecipeSummaryDTO;
+import com.sofia.recipeapp.dto.ShoppingListItemDTO;
+import com.sofia.recipeapp.live.CookbookUpdateStreams;
 import com.sofia.recipeapp.security.AuthenticatedUser;
 import com.sofia.recipeapp.services.CookbookService;
+import com.sofia.recipeapp.services.ShoppingListService;
+import com.sofia.recipeapp.services.SummaryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -21,6 +36,9 @@ import java.util.List;
 public class CookbookController {
 
     private final CookbookService cookbookService;
+    private final SummaryService summaryService;
+    private final ShoppingListService shoppingListService;
+    private final CookbookUpdateStreams cookbookUpdateStreams;
 
     @PostMapping
     public ResponseEntity<CookbookDTO> create(@RequestBody CreateCookbookDTO dto, Authentication authentication)
@@ -50,17 +68,99 @@ public class CookbookController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CookbookDTO> getCookbook(@PathVariable Long id) {
-        return ResponseEntity.ok(cookbookService.getCookbook(id));
+    public ResponseEntity<JsonPayload> getCookbook(
+            @PathVariable Long id,
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        VersionedJson cookbook = cookbookService.getCookbookJson(id, user.getId());
+        return ETags.conditional(ifNoneMatch, cookbook.eTag(), cookbook.body());
     }
 
     @GetMapping
-    public ResponseEntity<List<CookbookDTO>> getAll() {
-        List<CookbookDTO> cookbooks = new ArrayList<>(cookbookService.getAllCookbooks());
+    public ResponseEntity<List<CookbookDTO>> getAll(Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        List<CookbookDTO> cookbooks = new ArrayList<>(cookbookService.getAllCookbooks(user.getId()));
         Collections.shuffle(cookbooks);
         return ResponseEntity.ok(cookbooks);
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<FeedPageDTO<CookbookSummaryDTO>> getSummaryFeed(
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(summaryService.getCookbookFeed(seed, cursor, size));
+    }
+
+    @GetMapping("/{id}/recipes/summary")
+    public ResponseEntity<List<RecipeSummaryDTO>> getRecipeSummaries(
+            @PathVariable Long id,
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        String eTag = summaryService.getCookbookRecipesETag(id, user.getId());
+        return ETags.conditional(ifNoneMatch, eTag, () -> summaryService.getCookbookRecipes(id, user.getId()));
+    }
+
+    /**
+     * Recipes of a cookbook, one page at a time
+     * @param id cookbook id
+     * @param cursor nextCursor of the previous page, omitted for the first page
+     * @param size page size
+     * @return HTTP 200 (OK) with a page of recipe summaries ordered by id, 404 (Not Found) for a missing cookbook
+     *         or 400 (Bad Request) for a malformed cursor
+     */
+    @GetMapping("/{id}/recipes")
+    public ResponseEntity<CursorPageDTO<RecipeSummaryDTO>> getRecipesPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(summaryService.getCookbookRecipesPage(id, user.getId(), cursor, size));
+    }
+
+    /**
+     * Live updates of a cookbook as server-sent events, instead of polling the whole cookbook
+     * @param id cookbook id
+     * @return stream of "update" events with CookbookUpdateDTOs, 404 (Not Found) for a missing cookbook
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUpdates(@PathVariable Long id) {
+        return cookbookUpdateStreams.subscribe(id);
+    }
+
+    /**
+     * Shopping list for all recipes of a cookbook
+     * @param id cookbook id
+     * @param scale every amount is multiplied by it, 2 for twice the servings
+     * @return HTTP 200 (OK) with the summed ingredients, 404 (Not Found) for a missing cookbook
+     *         or 400 (Bad Request) for a bad scale
+     */
+    @GetMapping("/{id}/shopping-list")
+    public ResponseEntity<List<ShoppingListItemDTO>> getShoppingList(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") double scale
+    ) {
+        return ResponseEntity.ok(shoppingListService.getCookbookShoppingList(id, scale));
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<FeedPageDTO<CookbookDTO>> getFeed(
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(cookbookService.getFeed(user.getId(), seed, cursor, size));
+    }
+
 
     @PostMapping("/{cookbookId}/recipes/{recipeId}")
     public ResponseEntity<Void> addRecipe(
@@ -108,6 +208,23 @@ public class CookbookController {
     }
 
 
+    /**
+     * adds and removes many recipes and collaborators in one request
+     * @param cookbookId cookbook id
+     * @param dto recipe ids and usernames to add and remove
+     * @param authentication authenticated user, the owner when collaborators change, an editor otherwise
+     * @return HTTP 200 (OK) with the outcome of every item
+     */
+    @PostMapping("/{cookbookId}/batch")
+    public ResponseEntity<CookbookBatchResultDTO> applyBatch(
+            @PathVariable Long cookbookId,
+            @RequestBody CookbookBatchDTO dto,
+            Authentication authentication
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(cookbookService.applyBatch(cookbookId, dto, user.getId()));
+    }
+
     @GetMapping("/user")
     public ResponseEntity<List<CookbookDTO>> getMyCookbooks(Authentication authentication) {
         AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
@@ -119,17 +236,47 @@ public class CookbookController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<CookbookDTO>> getCookbooksByUser(@PathVariable Long userId) {
-        List<CookbookDTO> cookbooks = cookbookService.getCookbooksByUser(userId);
+    public ResponseEntity<List<CookbookDTO>> getCookbooksByUser(@PathVariable Long userId, Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        List<CookbookDTO> cookbooks = cookbookService.getCookbooksByUser(userId, user.getId());
         return ResponseEntity.ok(cookbooks);
     }
 
+    @GetMapping("/user/summary")
+    public ResponseEntity<List<CookbookSummaryDTO>> getMyCookbookSummaries(Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        List<CookbookSummaryDTO> cookbooks = new ArrayList<>(summaryService.getCookbooksForUser(user.getId()));
+
+        cookbooks.sort(Comparator.comparing(CookbookSummaryDTO::getId).reversed());
+
+        return ResponseEntity.ok(cookbooks);
+    }
+
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<List<CookbookSummaryDTO>> getCookbookSummariesByUser(@PathVariable Long userId) {
+        return ResponseEntity.ok(summaryService.getCookbooksForUser(userId));
+    }
+
+    @GetMapping("/search/summary")
+    public ResponseEntity<List<CookbookSummaryDTO>> searchCookbookSummaries(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String username,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(summaryService.getCookbooksInOrder(cookbookService.searchCookbookIds(title, username, page, size)));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<List<CookbookDTO>> searchCookbooks(
             @RequestParam(required = false) String title,
-            @RequestParam(required = false) String username
+            @RequestParam(required = false) String username,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication
     ) {
-        List<CookbookDTO> result = cookbookService.searchCookbooks(title, username);
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        List<CookbookDTO> result = cookbookService.searchCookbooks(title, username, page, size, user.getId());
         return ResponseEntity.ok(result);
     }
 
@@ -1,13 +1,26 @@
 package com.sofia.recipeapp.controller;
 
 import com.sofia.recipeapp.security.AuthenticatedUser;
+import com.sofia.recipeapp.cache.ETags;
+import com.sofia.recipeapp.cache.JsonPayload;
+import com.sofia.recipeapp.cache.VersionedJson;
+import com.sofia.recipeapp.dto.FeedPageDTO;
+import com.sofia.recipeapp.dto.PantryMatchDTO;
 import com.sofia.recipeapp.dto.RecipeDTO;
+import com.sofia.recipeapp.dto.RecipePatchDTO;
+import com.sofia.recipeapp.dto.RecipeSearchResultDTO;
+import com.sofia.recipeapp.dto.RecipeSummaryDTO;
+import com.sofia.recipeapp.dto.ShoppingListItemDTO;
 import com.sofia.recipeapp.exception.ApiException;
 import com.sofia.recipeapp.model.User;
 import com.sofia.recipeapp.repository.UserRepository;
 import com.sofia.recipeapp.services.RecipeService;
+import com.sofia.recipeapp.services.ShoppingListService;
+import com.sofia.recipeapp.services.SummaryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -22,8 +35,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class RecipeController {
 
+    public static final String DID_YOU_MEAN_HEADER = "X-Did-You-Mean";
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private final UserRepository userRepository;
     private final RecipeService recipeService;
+    private final SummaryService summaryService;
+    private final ShoppingListService shoppingListService;
 
     /**
      * gets all recipes
@@ -38,6 +56,44 @@ public class RecipeController {
         return ResponseEntity.ok(recipes);
     }
 
+    /**
+     * gets one page of recipe summaries, for recipe cards, in the random order of the discovery feed
+     * @param authentication authenticated user
+     * @param seed feed seed, generated when missing and returned with the page
+     * @param cursor nextCursor from the previous page, missing for the first page
+     * @param size page size
+     * @return HTTP 200 (OK) with the page of recipe summaries and the cursor of the next page
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<FeedPageDTO<RecipeSummaryDTO>> getRecipeSummaryFeed(
+            Authentication authentication,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(summaryService.getRecipeFeed(user.getId(), seed, cursor, size));
+    }
+
+    /**
+     * gets one page of recipes in a random order that stays the same for the same seed
+     * @param authentication authenticated user
+     * @param seed feed seed, generated when missing and returned with the page
+     * @param cursor nextCursor from the previous page, missing for the first page
+     * @param size page size
+     * @return HTTP 200 (OK) with the page of recipes and the cursor of the next page
+     */
+    @GetMapping("/feed")
+    public ResponseEntity<FeedPageDTO<RecipeDTO>> getFeed(
+            Authentication authentication,
+            @RequestParam(required = false) Long seed,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        User user = getAuthenticatedUser(authentication);
+        return ResponseEntity.ok(recipeService.getFeed(user, seed, cursor, size));
+    }
+
     /**
      * Adds a new recipe to DB
      * @param recipeDTO recipe to add
@@ -59,24 +115,97 @@ public class RecipeController {
     @GetMapping("/user")
     public ResponseEntity<List<RecipeDTO>> getUserRecipes(Authentication authentication) {
         User user = getAuthenticatedUser(authentication);
-        List<RecipeDTO> recipes = new ArrayList<>(recipeService.getRecipesByUser(user));
+        List<RecipeDTO> recipes = new ArrayList<>(recipeService.getRecipesByUser(user, user));
 
         recipes.sort(Comparator.comparing(RecipeDTO::getId).reversed());
 
         return ResponseEntity.ok(recipes);
     }
 
+    /**
+     * gets summaries of recipes created by authenticated user
+     * @param authentication authenticated user
+     * @param ifNoneMatch ETag of the list the client has
+     * @return HTTP 200 (OK) with a list of users recipe summaries, the newest first, or 304 (Not Modified)
+     */
+    @GetMapping("/user/summary")
+    public ResponseEntity<List<RecipeSummaryDTO>> getUserRecipeSummaries(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        String eTag = summaryService.getRecipesByUserETag(user.getId(), user.getId());
+        return ETags.conditional(ifNoneMatch, eTag, () -> {
+            List<RecipeSummaryDTO> recipes = new ArrayList<>(summaryService.getRecipesByUser(user.getId(), user.getId()));
+            recipes.sort(Comparator.comparing(RecipeSummaryDTO::getId).reversed());
+            return recipes;
+        });
+    }
+
     /**
      * gets recipes created by user id
+     * @param id author id
+     * @param authentication authenticated user
      * @return HTTP 200 (OK) with a list of users recipes as DTOs
      */
     @GetMapping("/user/{id}")
-    public ResponseEntity<List<RecipeDTO>> getUserRecipes(@PathVariable Long id) {
+    public ResponseEntity<List<RecipeDTO>> getUserRecipes(@PathVariable Long id, Authentication authentication) {
+        User viewer = getAuthenticatedUser(authentication);
         User user = userRepository.findById(id).orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
-        List<RecipeDTO> recipes =  recipeService.getRecipesByUser(user);
+        List<RecipeDTO> recipes =  recipeService.getRecipesByUser(user, viewer);
         return ResponseEntity.ok(recipes);
     }
 
+    /**
+     * gets summaries of recipes created by user id
+     * @param id author id
+     * @param authentication authenticated user
+     * @param ifNoneMatch ETag of the list the client has
+     * @return HTTP 200 (OK) with a list of users recipe summaries, or 304 (Not Modified)
+     */
+    @GetMapping("/user/{id}/summary")
+    public ResponseEntity<List<RecipeSummaryDTO>> getUserRecipeSummaries(
+            @PathVariable Long id,
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        String eTag = summaryService.getRecipesByUserETag(id, user.getId());
+        return ETags.conditional(ifNoneMatch, eTag, () -> summaryService.getRecipesByUser(id, user.getId()));
+    }
+
+    /**
+     * gets recipes favourited the most lately, older favourites count less and less
+     * @param limit max number of recipes
+     * @param authentication authenticated user
+     * @return HTTP 200 (OK) with trending recipe summaries, the most trending first
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<RecipeSummaryDTO>> getTrendingRecipes(
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(summaryService.getTrendingRecipes(user.getId(), limit));
+    }
+
+    /**
+     * gets recipes with the most similar ingredients and tags
+     * @param id recipe id
+     * @param limit max number of recipes
+     * @param authentication authenticated user
+     * @return HTTP 200 (OK) with similar recipe summaries, the most similar first
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<RecipeSummaryDTO>> getSimilarRecipes(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "8") int limit,
+            Authentication authentication
+    ) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        return ResponseEntity.ok(summaryService.getSimilarRecipes(id, user.getId(), limit));
+    }
+
     /**
      * adds a favourite recipe to authenticated user
      * @param id recipe id
@@ -125,41 +254,89 @@ public class RecipeController {
      * Searches recipes by provided user, title, and tags
      * @param authentication authenticated user
      * @param username username - createdBy
-     * @param tags tags
-     * @param title recipe title
+     * @param tags tags the recipe has to have (all of them)
+     * @param anyTags recipe has to have at least one of these tags
+     * @param excludeTags tags the recipe can't have
+     * @param title full-text query
+     * @param sort relevance (default) or views
      * @return HTTP 200 (OK) with a list of matching recipe DTOs, or 204 (No Content) if none found
+     *         when a misspelled title was corrected, the corrected query is in the X-Did-You-Mean header
      */
     @GetMapping("/search")
     public ResponseEntity<List<RecipeDTO>> searchRecipes(
             Authentication authentication,
             @RequestParam(required = false) String username,
             @RequestParam(required = false) List<String> tags,
-            @RequestParam(required = false) String title
+            @RequestParam(required = false) List<String> anyTags,
+            @RequestParam(required = false) List<String> excludeTags,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String sort
     ) {
         User user = getAuthenticatedUser(authentication);
-        if (tags != null && tags.isEmpty()) {
-            tags = null;
-        }
 
-        List<RecipeDTO> results = recipeService.search(user, username, title, tags);
+        RecipeSearchResultDTO result = recipeService.search(user, username, title, tags, anyTags, excludeTags, sort);
 
-        if (results.isEmpty()) {
+        if (result.getRecipes().isEmpty()) {
             return ResponseEntity.noContent().build();
         }
+        if (result.getDidYouMean() != null) {
+            return ResponseEntity.ok().header(DID_YOU_MEAN_HEADER, result.getDidYouMean()).body(result.getRecipes());
+        }
+
+        return ResponseEntity.ok(result.getRecipes());
+    }
+
+    /**
+     * Finds recipes that can be cooked from the ingredients the user has
+     * @param authentication authenticated user
+     * @param ingredients ingredients the user has
+     * @param maxMissing max number of ingredients a recipe may miss
+     * @param limit max number of recipes
+     * @return HTTP 200 (OK) with matches, fully makeable recipes first
+     */
+    @GetMapping("/pantry")
+    public ResponseEntity<List<PantryMatchDTO>> searchByPantry(
+            Authentication authentication,
+            @RequestParam List<String> ingredients,
+            @RequestParam(defaultValue = "2") int maxMissing,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        User user = getAuthenticatedUser(authentication);
+        return ResponseEntity.ok(recipeService.searchByPantry(user, ingredients, maxMissing, limit));
+    }
 
-        return ResponseEntity.ok(results);
+    /**
+     * Shopping list for a set of recipes
+     * @param ids recipe ids
+     * @param scale every amount is multiplied by it, 2 for twice the servings
+     * @return HTTP 200 (OK) with the summed ingredients, or 400 (Bad Request) for no or too many ids or a bad scale
+     */
+    @GetMapping("/shopping-list")
+    public ResponseEntity<List<ShoppingListItemDTO>> getShoppingList(
+            @RequestParam List<Long> ids,
+            @RequestParam(defaultValue = "1") double scale
+    ) {
+        return ResponseEntity.ok(shoppingListService.getShoppingList(ids, scale));
     }
 
     /**
      * Gets a recipe by id
+     * the recipe is only loaded when the client doesn't have its current version
      * @param id recipe id
-     * @return HTTP 200 (OK) with the recipe DTO if found, or 404 (Not Found) if not found or not accessible
+     * @param ifNoneMatch ETag of the recipe the client has
+     * @return HTTP 200 (OK) with the recipe DTO if found, 304 (Not Modified) if the client has the current one,
+     *         or 404 (Not Found) if not found or not accessible
      */
     @GetMapping("/recipe/{id}")
-    public ResponseEntity<RecipeDTO> getUsersRecipeById(@PathVariable Long id, Authentication authentication) {
+    public ResponseEntity<JsonPayload> getUsersRecipeById(
+            @PathVariable Long id,
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
-        RecipeDTO recipe = recipeService.getRecipeDTOById(id,user.getId());
-        return ResponseEntity.ok(recipe);
+        VersionedJson recipe = recipeService.getRecipeJson(id, user.getId());
+        recipeService.countView(id);
+        return ETags.conditional(ifNoneMatch, recipe.eTag(), recipe.body());
     }
 
     /**
@@ -175,9 +352,23 @@ public class RecipeController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Changes only the sent fields and ingredients of a recipe
+     * @param id recipe id
+     * @param patch changes with the version of the recipe they were made on
+     * @param authentication authenticated user
+     * @return HTTP 200 (OK) with the updated recipe and its new version, 409 (Conflict) when the recipe changed meanwhile
+     */
+    @PatchMapping(value = "/recipe/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, MERGE_PATCH_JSON})
+    public ResponseEntity<RecipeDTO> patchRecipe(@PathVariable Long id, @RequestBody RecipePatchDTO patch,
+                                                 Authentication authentication) {
+        User user = getAuthenticatedUser(authentication);
+        return ResponseEntity.ok(recipeService.patchRecipe(id, patch, user));
+    }
+
     /**
      * Updates an existing recipe
-     * @param recipeDTO updated recipe
+     * @param recipeDTO updated recipe, with a version the update fails with 409 (Conflict) when the recipe changed since
      * @param authentication authenticated user
      * @return whether the recipe was updated successfully
      */
@@ -0,0 +1,48 @@
+package com.sofia.recipeapp.controller;
+
+import com.sofia.recipeapp.dto.FuzzyMatchDTO;
+import com.sofia.recipeapp.dto.SuggestionDTO;
+import com.sofia.recipeapp.services.SuggestionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/suggestions")
+@RequiredArgsConstructor
+public class SuggestionController {
+
+    private final SuggestionService suggestionService;
+
+    /**
+     * typeahead for search fields and collaborator invites
+     * @param q typed text
+     * @param types recipe, user and/or ingredient, all when missing
+     * @param limit max number of suggestions per type
+     * @return HTTP 200 (OK) with suggestions, the most popular first
+     */
+    @GetMapping
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(suggestionService.suggest(q, types, limit));
+    }
+
+    /**
+     * fuzzy matches of a misspelled word, for "did you mean" lists
+     * @param q one word
+     * @param limit max number of matches
+     * @return HTTP 200 (OK) with known words ranked by edit distance, then by how many recipes use them
+     */
+    @GetMapping("/similar")
+    public ResponseEntity<List<FuzzyMatchDTO>> similarWords(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return ResponseEntity.ok(suggestionService.similarWords(q, limit));
+    }
+}
@@ -1,10 +1,15 @@
 package com.sofia.recipeapp.controller;
 
+import com.sofia.recipeapp.cache.ETags;
 import com.sofia.recipeapp.dto.*;
 import com.sofia.recipeapp.security.AuthenticatedUser;
 import com.sofia.recipeapp.model.User;
+import com.sofia.recipeapp.services.SummaryService;
 import com.sofia.recipeapp.services.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +23,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final SummaryService summaryService;
 
     @GetMapping
     public ResponseEntity<List<User>> getAllUsers() {
@@ -37,6 +43,22 @@ public class UserController {
         return ResponseEntity.ok(recipeDTOs);
     }
 
+    /**
+     * gets summaries of users favourite recipes
+     * @param authentication authenticated user
+     * @param ifNoneMatch ETag of the list the client has
+     * @return HTTP 200 (OK) with a list of favourite recipe summaries, or 304 (Not Modified)
+     */
+    @GetMapping("/favourites/summary")
+    public ResponseEntity<List<RecipeSummaryDTO>> getUserFavouriteRecipeSummaries(
+            Authentication authentication,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        AuthenticatedUser authenticatedUser = (AuthenticatedUser) authentication.getPrincipal();
+        String eTag = summaryService.getFavouriteRecipesETag(authenticatedUser.getId());
+        return ETags.conditional(ifNoneMatch, eTag, () -> summaryService.getFavouriteRecipes(authenticatedUser.getId()));
+    }
+
     /**
      * registers user
      * @param user user to register
@@ -87,27 +109,37 @@ public class UserController {
 
 
     @GetMapping("/{userId}/image")
-    public ResponseEntity<byte[]> getUserImage(@PathVariable Long userId) {
-        User user = userService.getUserById(userId);
-        byte[] image = user.getProfileImage();
-
-        if (image == null || image.length == 0) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<Resource> getUserImage(
+            @PathVariable Long userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String eTag = userService.getUserETag(userId, "image");
+        if (ETags.matches(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
         }
 
-        return ResponseEntity
-                .ok()
-                .header("Content-Type", user.getProfileImageType())
-                .body(image);
+        return userService.getProfileImage(userId)
+                .map(image -> ResponseEntity
+                        .ok()
+                        .eTag(eTag)
+                        .header("Content-Type", image.contentType())
+                        .body(image.file()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-
-
-
+    /**
+     * gets a users profile
+     * @param id user id
+     * @param ifNoneMatch ETag of the profile the client has
+     * @return HTTP 200 (OK) with the profile, or 304 (Not Modified) when the client has the current one
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<UserProfileDTO> getUserProfile(@PathVariable Long id) {
-        UserProfileDTO dto = userService.getUserProfile(id);
-        return ResponseEntity.ok(dto);
+    public ResponseEntity<UserProfileDTO> getUserProfile(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String eTag = userService.getUserETag(id, "profile");
+        return ETags.conditional(ifNoneMatch, eTag, () -> userService.getUserProfile(id));
     }
 
     @PutMapping("/profile")
@@ -0,0 +1,212 @@
+package com.sofia.recipeapp.counter;
+
+import com.sofia.recipeapp.event.FavouriteChangedEvent;
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.repository.RecipeCountView;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Favourite counts of recipes, kept in memory and written behind to recipes.favourite_count.
+ * 1. on startup the counts are loaded from the favourites join table, rows of the column that differ are marked dirty;
+ *    the server already takes requests then, a favourite changed while loading is recounted instead of added,
+ *    since the count may or may not include it
+ * 2. every {@link FavouriteChangedEvent} bumps a LongAdder of the recipe, no row of recipes is locked
+ * 3. dirty counts are written with one JDBC batch every app.counters.flush-interval-ms and on shutdown
+ * Trending recipes are ranked by a time-decayed favourite score (half-life app.trending.half-life-hours),
+ * the score only knows favourites made since the application started.
+ */
+@Component
+public class FavouriteCounters {
+
+    private static final String UPDATE_COUNT = "UPDATE recipes SET favourite_count = ? WHERE id = ?";
+    private static final double MIN_SCORE = 0.01;
+
+    private final RecipeRepository recipeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final double decayPerMilli;
+
+    private final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Score> scores = new ConcurrentHashMap<>();
+
+    private final Object loadLock = new Object();
+    // written under loadLock
+    private volatile boolean loaded;
+    // guarded by loadLock
+    private final Set<Long> changedWhileLoading = new HashSet<>();
+
+    /**
+     * decayed score as of a moment, replaced as a whole so concurrent updates of one recipe never mix
+     */
+    private record Score(double value, long at) {
+
+        private double at(long now, double decayPerMilli) {
+            return value * Math.exp(-decayPerMilli * (now - at));
+        }
+    }
+
+    public record Trending(Long recipeId, double score) {
+    }
+
+    public FavouriteCounters(
+            RecipeRepository recipeRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.trending.half-life-hours:24}") double halfLifeHours
+    ) {
+        this.recipeRepository = recipeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.decayPerMilli = Math.log(2) / (halfLifeHours * 3_600_000);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, Long> stored = toMap(recipeRepository.findFavouriteCounts());
+
+        toMap(recipeRepository.countFavourites()).forEach((recipeId, count) -> {
+            set(recipeId, count);
+            if (!count.equals(stored.remove(recipeId))) {
+                dirty.add(recipeId);
+            }
+        });
+        // stored counts of recipes nobody favourites anymore
+        dirty.addAll(stored.keySet());
+
+        // recount the recipes changed meanwhile until a recount saw no more changes
+        while (true) {
+            Set<Long> changed;
+            synchronized (loadLock) {
+                if (changedWhileLoading.isEmpty()) {
+                    loaded = true;
+                    return;
+                }
+                changed = new HashSet<>(changedWhileLoading);
+                changedWhileLoading.clear();
+            }
+            Map<Long, Long> recounted = toMap(recipeRepository.countFavourites(changed));
+            changed.forEach(recipeId -> set(recipeId, recounted.getOrDefault(recipeId, 0L)));
+            dirty.addAll(changed);
+        }
+    }
+
+    /**
+     * @param recipeId recipe id
+     * @return number of users who favourited the recipe
+     */
+    public long get(Long recipeId) {
+        LongAdder count = counts.get(recipeId);
+        return count == null ? 0 : Math.max(0, count.sum());
+    }
+
+    /**
+     * @param limit max number of recipes
+     * @return recipes with the highest decayed favourite score, the highest first
+     */
+    public List<Trending> trending(int limit) {
+        long now = System.currentTimeMillis();
+        PriorityQueue<Trending> top = new PriorityQueue<>(Comparator.comparingDouble(Trending::score));
+
+        for (Map.Entry<Long, Score> entry : scores.entrySet()) {
+            double score = entry.getValue().at(now, decayPerMilli);
+            if (score < MIN_SCORE) {
+                scores.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            top.add(new Trending(entry.getKey(), score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Trending> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingDouble(Trending::score).reversed());
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFavouriteChanged(FavouriteChangedEvent event) {
+        int delta = event.added() ? 1 : -1;
+        if (!leftToLoad(event.recipeId())) {
+            counts.computeIfAbsent(event.recipeId(), id -> new LongAdder()).add(delta);
+            dirty.add(event.recipeId());
+        }
+
+        long now = System.currentTimeMillis();
+        scores.compute(event.recipeId(), (id, score) -> {
+            double value = (score == null ? 0 : score.at(now, decayPerMilli)) + delta;
+            return value < MIN_SCORE ? null : new Score(value, now);
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.isDeleted()) {
+            counts.remove(event.recipeId());
+            dirty.remove(event.recipeId());
+            scores.remove(event.recipeId());
+        }
+    }
+
+    /**
+     * @return true when the load is still running, it then recounts the recipe
+     */
+    private boolean leftToLoad(Long recipeId) {
+        if (loaded) {
+            return false;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return false;
+            }
+            changedWhileLoading.add(recipeId);
+            return true;
+        }
+    }
+
+    private void set(Long recipeId, long count) {
+        LongAdder adder = new LongAdder();
+        adder.add(count);
+        counts.put(recipeId, adder);
+    }
+
+    private static Map<Long, Long> toMap(List<RecipeCountView> counts) {
+        Map<Long, Long> map = new HashMap<>();
+        counts.forEach(count -> map.put(count.getRecipeId(), count.getCount()));
+        return map;
+    }
+
+    /**
+     * writes the changed counts, a count changed during the flush stays dirty for the next one
+     */
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        List<Object[]> updates = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long recipeId = it.next();
+            it.remove();
+            updates.add(new Object[]{get(recipeId), recipeId});
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_COUNT, updates);
+        } catch (DataAccessException e) {
+            updates.forEach(update -> dirty.add((Long) update[1]));
+            throw e;
+        }
+    }
+}
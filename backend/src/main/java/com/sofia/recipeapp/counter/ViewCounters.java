@@ -0,0 +1,126 @@
+package com.sofia.recipeapp.counter;
+
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recipe view counts, buffered in memory and added to recipes.view_count in batches.
+ * A view only bumps LongAdders, the database sees one batched UPDATE per flush instead of one per view,
+ * so popular recipes cause no row lock contention.
+ * Buffered views are flushed every app.views.flush-interval-ms, as soon as app.views.flush-threshold recipes
+ * have buffered views and on shutdown.
+ * Totals (stored + buffered) are kept for every viewed recipe, for sorting by views without a query.
+ */
+@Component
+public class ViewCounters {
+
+    private static final String ADD_VIEWS = "UPDATE recipes SET view_count = view_count + ? WHERE id = ?";
+
+    private final RecipeRepository recipeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskScheduler taskScheduler;
+    private final int flushThreshold;
+
+    private final Map<Long, LongAdder> totals = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> buffered = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    public ViewCounters(
+            RecipeRepository recipeRepository,
+            JdbcTemplate jdbcTemplate,
+            TaskScheduler taskScheduler,
+            @Value("${app.views.flush-threshold:1000}") int flushThreshold
+    ) {
+        this.recipeRepository = recipeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskScheduler = taskScheduler;
+        this.flushThreshold = flushThreshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        recipeRepository.findViewCounts().forEach(count ->
+                totals.computeIfAbsent(count.getRecipeId(), id -> new LongAdder()).add(count.getCount()));
+    }
+
+    /**
+     * counts one view of the recipe
+     * @param recipeId viewed recipe id
+     */
+    public void increment(Long recipeId) {
+        totals.computeIfAbsent(recipeId, id -> new LongAdder()).increment();
+        buffered.computeIfAbsent(recipeId, id -> new LongAdder()).increment();
+        if (dirty.add(recipeId) && dirty.size() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    /**
+     * @param recipeId recipe id
+     * @return views of the recipe including the ones not flushed yet
+     */
+    public long get(Long recipeId) {
+        LongAdder count = totals.get(recipeId);
+        return count == null ? 0 : count.sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.isDeleted()) {
+            totals.remove(event.recipeId());
+            buffered.remove(event.recipeId());
+            dirty.remove(event.recipeId());
+        }
+    }
+
+    /**
+     * adds the buffered views to the stored counts
+     * the flushed amount is subtracted from the buffer, views counted meanwhile stay buffered for the next flush
+     */
+    @Scheduled(fixedDelayString = "${app.views.flush-interval-ms:10000}")
+    @PreDestroy
+    public synchronized void flush() {
+        flushRequested.set(false);
+        List<Object[]> updates = new ArrayList<>();
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext(); ) {
+            Long recipeId = it.next();
+            it.remove();
+            LongAdder views = buffered.get(recipeId);
+            long delta = views == null ? 0 : views.sum();
+            if (delta != 0) {
+                views.add(-delta);
+                updates.add(new Object[]{delta, recipeId});
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(ADD_VIEWS, updates);
+        } catch (DataAccessException e) {
+            for (Object[] update : updates) {
+                Long recipeId = (Long) update[1];
+                buffered.computeIfAbsent(recipeId, id -> new LongAdder()).add((Long) update[0]);
+                dirty.add(recipeId);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * BatchItemResultDTO - item (recipe id or username), operation (add, remove), status (added, removed, unchanged, not_found)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class BatchItemResultDTO {
+
+    private String item;
+    private String operation;
+    private String status;
+
+}
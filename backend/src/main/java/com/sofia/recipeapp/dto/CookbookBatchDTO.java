@@ -0,0 +1,22 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CookbookBatchDTO - List-Long addRecipes, List-Long removeRecipes, List-String addCollaborators, List-String removeCollaborators
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CookbookBatchDTO {
+
+    private List<Long> addRecipes;
+    private List<Long> removeRecipes;
+    private List<String> addCollaborators;
+    private List<String> removeCollaborators;
+
+}
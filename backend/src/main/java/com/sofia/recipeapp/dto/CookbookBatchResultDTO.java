@@ -0,0 +1,20 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CookbookBatchResultDTO - List-BatchItemResultDTO recipes, List-BatchItemResultDTO collaborators (adds first, then removes)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CookbookBatchResultDTO {
+
+    private List<BatchItemResultDTO> recipes;
+    private List<BatchItemResultDTO> collaborators;
+
+}
@@ -1,8 +1,12 @@
 package com.sofia.recipeapp.dto;
 import com.sofia.recipeapp.model.Cookbook;
+import com.sofia.recipeapp.model.Recipe;
+import com.sofia.recipeapp.model.User;
 import lombok.Data;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 @Data
@@ -17,7 +21,12 @@ public class CookbookDTO {
 
     private List<RecipeDTO> recipes;
 
-    public static CookbookDTO fromEntity(Cookbook c) {
+    /**
+     * @param c cookbook
+     * @param favourite tells which recipe ids are the viewing users favourites
+     * @return cookbook DTO
+     */
+    public static CookbookDTO fromEntity(Cookbook c, LongPredicate favourite) {
         CookbookDTO dto = new CookbookDTO();
 
         dto.setId(c.getId());
@@ -28,13 +37,15 @@ public class CookbookDTO {
 
         dto.setCollaborators(
                 c.getCollaborators().stream()
+                        .sorted(Comparator.comparing(User::getId))
                         .map(UserBasicDTO::fromEntity)
                         .collect(Collectors.toList())
         );
 
         dto.setRecipes(
                 c.getRecipes().stream()
-                        .map(r -> RecipeDTO.GetRecipeDTO(r, r.getCreatedBy()))
+                        .sorted(Comparator.comparing(Recipe::getId))
+                        .map(r -> RecipeDTO.GetRecipeDTO(r, favourite.test(r.getId())))
                         .toList()
         );
 
@@ -0,0 +1,39 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CookbookSummaryDTO - id, title, description, ownerId, ownerUsername, recipeCount, collaboratorCount, coverTitles
+ * read model for cookbook cards, filled by a constructor projection
+ * coverTitles - titles of the most favourited recipes, at most COVER_SIZE
+ */
+@NoArgsConstructor
+@Data
+public class CookbookSummaryDTO {
+
+    public static final int COVER_SIZE = 3;
+
+    private Long id;
+    private String title;
+    private String description;
+    private Long ownerId;
+    private String ownerUsername;
+    private int recipeCount;
+    private int collaboratorCount;
+    private List<String> coverTitles = new ArrayList<>();
+
+    public CookbookSummaryDTO(Long id, String title, String description, Long ownerId, String ownerUsername,
+                              Integer recipeCount, Integer collaboratorCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.ownerId = ownerId;
+        this.ownerUsername = ownerUsername;
+        this.recipeCount = recipeCount == null ? 0 : recipeCount;
+        this.collaboratorCount = collaboratorCount == null ? 0 : collaboratorCount;
+    }
+}
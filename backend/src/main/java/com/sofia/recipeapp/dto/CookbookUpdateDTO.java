@@ -0,0 +1,29 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CookbookUpdateDTO - cookbookId, details (true when title, description and collaborators are sent), title, description,
+ * List-UserBasicDTO collaborators, List-Long recipesAdded, List-Long recipesRemoved, deleted,
+ * reload (true when the changes were too many to send, the client has to fetch the cookbook again)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CookbookUpdateDTO {
+
+    private Long cookbookId;
+    private boolean details;
+    private String title;
+    private String description;
+    private List<UserBasicDTO> collaborators;
+    private List<Long> recipesAdded;
+    private List<Long> recipesRemoved;
+    private boolean deleted;
+    private boolean reload;
+
+}
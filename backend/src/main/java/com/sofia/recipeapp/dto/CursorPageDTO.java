@@ -0,0 +1,20 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * CursorPageDTO - items, nextCursor (null on the last page)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CursorPageDTO<T> {
+
+    private List<T> items;
+    private String nextCursor;
+
+}
@@ -0,0 +1,21 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * FeedPageDTO - items, seed, nextCursor (null when the feed is exhausted)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class FeedPageDTO<T> {
+
+    private List<T> items;
+    private long seed;
+    private String nextCursor;
+
+}
@@ -0,0 +1,19 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * FuzzyMatchDTO - word, distance (edits from the query word), frequency (recipes using the word)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class FuzzyMatchDTO {
+
+    private String word;
+    private int distance;
+    private int frequency;
+
+}
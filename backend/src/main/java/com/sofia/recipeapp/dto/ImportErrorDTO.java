@@ -0,0 +1,19 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * ImportErrorDTO - record (position in the file), title, message
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ImportErrorDTO {
+
+    private long record;
+    private String title;
+    private String message;
+
+}
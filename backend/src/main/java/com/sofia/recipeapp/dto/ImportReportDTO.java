@@ -0,0 +1,24 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ImportReportDTO - read, imported, failed, List-ImportErrorDTO errors (first 100), durationMs, recordsPerSecond
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ImportReportDTO {
+
+    private long read;
+    private long imported;
+    private long failed;
+    private List<ImportErrorDTO> errors;
+    private long durationMs;
+    private double recordsPerSecond;
+
+}
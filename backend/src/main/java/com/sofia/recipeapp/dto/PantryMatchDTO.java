@@ -0,0 +1,22 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * PantryMatchDTO - recipe, matchedCount, ingredientCount, missingIngredients
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PantryMatchDTO {
+
+    private RecipeDTO recipe;
+    private int matchedCount;
+    private int ingredientCount;
+    private List<String> missingIngredients;
+
+}
@@ -2,7 +2,6 @@ package com.sofia.recipeapp.dto;
 
 import com.sofia.recipeapp.model.Recipe;
 import com.sofia.recipeapp.model.Tag;
-import com.sofia.recipeapp.model.User;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,7 +9,7 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 /**
- * RecipeDTO - id, title, description, instructions, List-IngredientDTO ingredients, String createdByUsername, tags, isFavourite
+ * RecipeDTO - id, title, description, instructions, List-IngredientDTO ingredients, String createdByUsername, tags, favouriteCount, viewCount, version, isFavourite
  */
 @AllArgsConstructor
 @NoArgsConstructor
@@ -25,9 +24,12 @@ public class RecipeDTO {
     private String createdByUsername;
     private Long createdByUserId;
     private List<String> tags;
+    private long favouriteCount;
+    private long viewCount;
+    private Long version;
     private boolean isFavourite;
 
-    public static RecipeDTO GetRecipeDTO(Recipe recipe, User user) {
+    public static RecipeDTO GetRecipeDTO(Recipe recipe, boolean favourite) {
         RecipeDTO dto = new RecipeDTO();
 
         dto.setId(recipe.getId());
@@ -44,13 +46,12 @@ public class RecipeDTO {
                         .toList()
         );
 
-        dto.setTags(recipe.getTags().stream().map(Tag::getName).toList());
+        dto.setTags(recipe.getTags().stream().map(Tag::getName).sorted().toList());
 
-        if (user != null) {
-            dto.setFavourite(user.getFavoriteRecipes().contains(recipe));
-        } else {
-            dto.setFavourite(false);
-        }
+        dto.setFavouriteCount(recipe.getFavouriteCount());
+        dto.setViewCount(recipe.getViewCount());
+        dto.setVersion(recipe.getVersion());
+        dto.setFavourite(favourite);
 
         return dto;
     }
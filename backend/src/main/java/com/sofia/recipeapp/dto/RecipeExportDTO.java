@@ -0,0 +1,37 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RecipeExportDTO - id, title, description, instructions, createdByUsername, List-IngredientDTO ingredients, tags
+ * one line of the admin recipe export
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RecipeExportDTO {
+
+    private Long id;
+    private String title;
+    private String description;
+    private String instructions;
+    private String createdByUsername;
+    private List<IngredientDTO> ingredients = new ArrayList<>();
+    private List<String> tags = new ArrayList<>();
+
+    /**
+     * constructor used by the export projection, ingredients and tags are added per chunk
+     */
+    public RecipeExportDTO(Long id, String title, String description, String instructions, String createdByUsername) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.instructions = instructions;
+        this.createdByUsername = createdByUsername;
+    }
+}
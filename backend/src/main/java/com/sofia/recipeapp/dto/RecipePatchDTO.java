@@ -0,0 +1,28 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * RecipePatchDTO - version, title, description, instructions, tags, List-IngredientDTO ingredients, removedIngredientIds
+ * only the changes of a recipe, null fields stay as they are
+ * version - version of the recipe the changes were made on
+ * tags - replace all tags when present
+ * ingredients - with an id changes the ingredient (null name or quantity stays), without an id adds a new one
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RecipePatchDTO {
+
+    private Long version;
+    private String title;
+    private String description;
+    private String instructions;
+    private List<String> tags;
+    private List<IngredientDTO> ingredients;
+    private List<Long> removedIngredientIds;
+}
@@ -0,0 +1,20 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * RecipeSearchResultDTO - List-RecipeDTO recipes, didYouMean (corrected query the recipes were found by, or null)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RecipeSearchResultDTO {
+
+    private List<RecipeDTO> recipes;
+    private String didYouMean;
+
+}
@@ -0,0 +1,44 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RecipeSummaryDTO - id, title, short description, createdByUsername, createdByUserId, tags, ingredientCount, favouriteCount, isFavourite
+ * read model for recipe cards, filled by a constructor projection (no instructions, no ingredient rows)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RecipeSummaryDTO {
+
+    public static final int DESCRIPTION_LENGTH = 160;
+
+    private Long id;
+    private String title;
+    private String description;
+    private String createdByUsername;
+    private Long createdByUserId;
+    private List<String> tags = new ArrayList<>();
+    private int ingredientCount;
+    private long favouriteCount;
+    private boolean isFavourite;
+
+    /**
+     * constructor used by the projection queries, tags and favourite flag are set afterwards
+     */
+    public RecipeSummaryDTO(Long id, String title, String description, String createdByUsername,
+                            Long createdByUserId, Integer ingredientCount, Long favouriteCount) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.createdByUsername = createdByUsername;
+        this.createdByUserId = createdByUserId;
+        this.ingredientCount = ingredientCount == null ? 0 : ingredientCount;
+        this.favouriteCount = favouriteCount == null ? 0 : favouriteCount;
+    }
+}
@@ -0,0 +1,24 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ShoppingListItemDTO - name, amount, unit, quantities
+ * amount - sum of the parsed quantities in the unit, null when none could be parsed
+ * quantities - quantities as written that have no amount ("a pinch", "to taste")
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ShoppingListItemDTO {
+
+    private String name;
+    private Double amount;
+    private String unit;
+    private List<String> quantities;
+
+}
@@ -0,0 +1,19 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SuggestionDTO - text, type (recipe, user, ingredient), weight
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SuggestionDTO {
+
+    private String text;
+    private String type;
+    private long weight;
+
+}
@@ -0,0 +1,21 @@
+package com.sofia.recipeapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * UserExportDTO - id, username, role, bio
+ * one line of the admin user export (no password, no profile image)
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class UserExportDTO {
+
+    private Long id;
+    private String username;
+    private String role;
+    private String bio;
+
+}
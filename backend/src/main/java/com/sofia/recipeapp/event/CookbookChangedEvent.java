@@ -0,0 +1,22 @@
+package com.sofia.recipeapp.event;
+
+import com.sofia.recipeapp.search.CookbookDocument;
+
+/**
+ * Published when a cookbook is created, its details or collaborators change or it is deleted.
+ * document - current state of the cookbook, null when the cookbook was deleted
+ */
+public record CookbookChangedEvent(Long cookbookId, CookbookDocument document) {
+
+    public static CookbookChangedEvent saved(CookbookDocument document) {
+        return new CookbookChangedEvent(document.id(), document);
+    }
+
+    public static CookbookChangedEvent deleted(Long cookbookId) {
+        return new CookbookChangedEvent(cookbookId, null);
+    }
+
+    public boolean isDeleted() {
+        return document == null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.sofia.recipeapp.event;
+
+import java.util.Collection;
+
+/**
+ * Published when recipes are added to a cookbook or removed from it.
+ * added, removed - ids of the recipes, either may be empty
+ */
+public record CookbookRecipesChangedEvent(Long cookbookId, Collection<Long> added, Collection<Long> removed) {
+}
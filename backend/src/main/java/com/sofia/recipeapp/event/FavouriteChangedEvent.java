@@ -0,0 +1,8 @@
+package com.sofia.recipeapp.event;
+
+/**
+ * Published when a user adds a recipe to favourites or removes it.
+ * added - true for a new favourite, false for a removed one
+ */
+public record FavouriteChangedEvent(Long recipeId, Long userId, boolean added) {
+}
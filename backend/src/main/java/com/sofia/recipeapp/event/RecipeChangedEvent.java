@@ -0,0 +1,22 @@
+package com.sofia.recipeapp.event;
+
+import com.sofia.recipeapp.search.RecipeDocument;
+
+/**
+ * Published when a recipe is created, updated or deleted.
+ * document - current state of the recipe, null when the recipe was deleted
+ */
+public record RecipeChangedEvent(Long recipeId, RecipeDocument document) {
+
+    public static RecipeChangedEvent saved(RecipeDocument document) {
+        return new RecipeChangedEvent(document.id(), document);
+    }
+
+    public static RecipeChangedEvent deleted(Long recipeId) {
+        return new RecipeChangedEvent(recipeId, null);
+    }
+
+    public boolean isDeleted() {
+        return document == null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.sofia.recipeapp.event;
+
+/**
+ * Published when a user registers, changes username or is deleted.
+ * oldUsername - null for a new user
+ * newUsername - null for a deleted user
+ */
+public record UserChangedEvent(Long userId, String oldUsername, String newUsername) {
+}
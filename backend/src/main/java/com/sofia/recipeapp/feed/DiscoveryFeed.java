@@ -0,0 +1,98 @@
+package com.sofia.recipeapp.feed;
+
+import com.sofia.recipeapp.exception.ApiException;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Pages through all ids of a table in a stable pseudo-random order.
+ * Instead of loading and shuffling everything, ids are generated from a {@link SeededPermutation}
+ * over [1, maxId] and only the generated ids are checked against the DB, so one page costs
+ * a few small id lookups no matter how large the table is.
+ * Holes left by deleted rows are skipped. A page can come back shorter when it runs into many of them,
+ * until the first id is found the lookups keep going in growing batches, up to MAX_PROBES_PER_REQUEST ids.
+ * A page cut short by that limit, even an empty one, still has a nextCursor to continue from.
+ * A cursor is only accepted for a maxId up to the current largest id, so the ids to check stay bounded by the table.
+ */
+public final class DiscoveryFeed {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final int MAX_PROBES_PER_ITEM = 50;
+    private static final int MAX_CANDIDATES_PER_LOOKUP = 1000;
+    static final int MAX_PROBES_PER_REQUEST = 20 * MAX_CANDIDATES_PER_LOOKUP;
+
+    private DiscoveryFeed() {
+    }
+
+    /**
+     * @param seed client seed, the same seed gives the same order
+     * @param cursor cursor from the previous page, null for the first page
+     * @param size page size, capped to MAX_PAGE_SIZE
+     * @param maxId supplies the current largest id
+     * @param existingIds returns which of the given ids exist
+     * @return ids of the page in feed order and the cursor of the next page
+     * @throws ApiException when the cursor is malformed or covers ids above the current largest id (400)
+     */
+    public static FeedPage next(long seed, String cursor, int size,
+                                Supplier<Long> maxId, Function<List<Long>, Collection<Long>> existingIds) throws ApiException {
+        Long currentMaxId = maxId.get();
+        boolean firstPage = cursor == null || cursor.isBlank();
+        if (firstPage && (currentMaxId == null || currentMaxId < 1)) {
+            return new FeedPage(List.of(), null);
+        }
+        FeedCursor start = firstPage
+                ? new FeedCursor(currentMaxId, 0)
+                : FeedCursor.decode(cursor, currentMaxId == null ? 0 : currentMaxId);
+
+        size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        SeededPermutation permutation = new SeededPermutation(seed, SeededPermutation.bitsFor(start.maxId()));
+        long position = start.position();
+        long probesLeft = (long) size * MAX_PROBES_PER_ITEM;
+        long probes = 0;
+        List<Long> ids = new ArrayList<>(size);
+        int missedLookups = 0;
+
+        // past the probe budget only an empty page keeps looking, and not past the limit of the request
+        while (ids.size() < size && position < permutation.size()
+                && (probesLeft > 0 || ids.isEmpty()) && probes < MAX_PROBES_PER_REQUEST) {
+            // generate a few more candidates than needed so that deleted ids rarely cost another round trip,
+            // twice as many after every lookup that found nothing
+            long wanted = Math.min(Math.min(MAX_CANDIDATES_PER_LOOKUP, MAX_PROBES_PER_REQUEST - probes),
+                    ((size - ids.size()) * 2L + 8) << Math.min(missedLookups, 10));
+            List<Long> candidates = new ArrayList<>();
+            List<Long> positions = new ArrayList<>();
+            while (candidates.size() < wanted && position < permutation.size()) {
+                long id = permutation.apply(position) + 1;
+                if (id <= start.maxId()) {
+                    candidates.add(id);
+                    positions.add(position);
+                }
+                position++;
+            }
+            probesLeft -= candidates.size();
+            probes += candidates.size();
+
+            Set<Long> existing = candidates.isEmpty() ? Set.of() : new HashSet<>(existingIds.apply(candidates));
+            missedLookups = existing.isEmpty() ? missedLookups + 1 : 0;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (existing.contains(candidates.get(i))) {
+                    ids.add(candidates.get(i));
+                    if (ids.size() == size) {
+                        // continue right after the last returned id next time
+                        position = positions.get(i) + 1;
+                        break;
+                    }
+                }
+            }
+        }
+
+        String nextCursor = position < permutation.size() ? new FeedCursor(start.maxId(), position).encode() : null;
+        return new FeedPage(ids, nextCursor);
+    }
+
+    public record FeedPage(List<Long> ids, String nextCursor) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.sofia.recipeapp.feed;
+
+import com.sofia.recipeapp.exception.ApiException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Position in a discovery feed.
+ * maxId - largest id when the feed was started, fixes the permutation domain for all following pages
+ * position - next position in the permutation
+ */
+public record FeedCursor(long maxId, long position) {
+
+    public String encode() {
+        return Long.toString(maxId, 36) + "." + Long.toString(position, 36);
+    }
+
+    /**
+     * @param cursor encoded cursor
+     * @param currentMaxId current largest id, a cursor can't cover more ids than exist
+     * @return decoded cursor
+     * @throws ApiException when the cursor is malformed or its maxId is above currentMaxId (400)
+     */
+    public static FeedCursor decode(String cursor, long currentMaxId) throws ApiException {
+        FeedCursor decoded = decode(cursor);
+        if (decoded.maxId() > currentMaxId) {
+            throw new ApiException("Invalid cursor", HttpStatus.BAD_REQUEST);
+        }
+        return decoded;
+    }
+
+    /**
+     * @param cursor encoded cursor
+     * @return decoded cursor
+     * @throws ApiException when the cursor is malformed (400)
+     */
+    static FeedCursor decode(String cursor) throws ApiException {
+        String[] parts = cursor.split("\\.");
+        try {
+            if (parts.length == 2) {
+                long maxId = Long.parseLong(parts[0], 36);
+                long position = Long.parseLong(parts[1], 36);
+                if (maxId > 0 && position >= 0) {
+                    return new FeedCursor(maxId, position);
+                }
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new ApiException("Invalid cursor", HttpStatus.BAD_REQUEST);
+    }
+}
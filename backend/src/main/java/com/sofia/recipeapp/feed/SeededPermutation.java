@@ -0,0 +1,69 @@
+package com.sofia.recipeapp.feed;
+
+/**
+ * Pseudo-random bijection over [0, 2^bits) derived from a seed.
+ * The same seed always gives the same order, so a position in the permutation
+ * is enough to continue where the previous page ended.
+ * Built from invertible steps only (odd multiplication, addition and xor-shift modulo 2^bits).
+ */
+public class SeededPermutation {
+
+    private final long mask;
+    private final int shift;
+    private final long multiplier1;
+    private final long multiplier2;
+    private final long multiplier3;
+    private final long increment1;
+    private final long increment2;
+
+    public SeededPermutation(long seed, int bits) {
+        if (bits < 1 || bits > 62) {
+            throw new IllegalArgumentException("bits must be between 1 and 62");
+        }
+        this.mask = (1L << bits) - 1;
+        this.shift = (bits + 1) / 2;
+
+        long state = seed;
+        this.multiplier1 = (state = splitMix(state)) | 1;
+        this.multiplier2 = (state = splitMix(state)) | 1;
+        this.multiplier3 = (state = splitMix(state)) | 1;
+        this.increment1 = state = splitMix(state);
+        this.increment2 = splitMix(state);
+    }
+
+    /**
+     * @return number of positions in the permutation
+     */
+    public long size() {
+        return mask + 1;
+    }
+
+    /**
+     * @param position position in [0, size)
+     * @return value at the position, in [0, size)
+     */
+    public long apply(long position) {
+        long x = (position * multiplier1 + increment1) & mask;
+        x ^= x >>> shift;
+        x = (x * multiplier2) & mask;
+        x ^= x >>> shift;
+        x = (x * multiplier3) & mask;
+        x ^= x >>> shift;
+        return (x + increment2) & mask;
+    }
+
+    /**
+     * @param maxValue largest value that has to fit
+     * @return number of bits needed to cover [0, maxValue]
+     */
+    public static int bitsFor(long maxValue) {
+        return Math.max(1, 64 - Long.numberOfLeadingZeros(maxValue));
+    }
+
+    private static long splitMix(long state) {
+        long z = state + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,94 @@
+package com.sofia.recipeapp.importer;
+
+import com.sofia.recipeapp.dto.IngredientDTO;
+import com.sofia.recipeapp.quantity.Quantity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts recipes with plain JDBC batches.
+ * Hibernate can't batch inserts of IDENTITY entities, here every table is written with one batched statement
+ * and the recipe ids come back as the generated keys of the batch.
+ * Has to run inside a transaction, the caller decides its size.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeBatchWriter {
+
+    private static final String INSERT_RECIPE =
+            "INSERT INTO recipes (title, description, instructions, created_by) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_INGREDIENT =
+            "INSERT INTO recipe_ingredient (recipe_id, ingredient_name, quantity, amount, unit) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_TAG =
+            "INSERT INTO recipe_tag (recipe_id, tag_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param rows recipes to insert
+     * @return generated recipe ids in the order of the rows
+     */
+    public List<Long> insert(List<RecipeRow> rows) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_RECIPE, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        RecipeRow row = rows.get(i);
+                        ps.setString(1, row.record().title());
+                        ps.setString(2, row.description());
+                        ps.setString(3, row.record().instructions());
+                        ps.setLong(4, row.authorId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keys
+        );
+
+        List<Long> ids = keys.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).longValue())
+                .toList();
+        if (ids.size() != rows.size()) {
+            throw new IllegalStateException("Expected " + rows.size() + " generated ids, got " + ids.size());
+        }
+
+        List<Object[]> ingredients = new ArrayList<>();
+        List<Object[]> tags = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            for (IngredientDTO ingredient : rows.get(i).ingredients()) {
+                Quantity quantity = Quantity.parse(ingredient.getQuantity());
+                ingredients.add(new Object[]{
+                        ids.get(i),
+                        ingredient.getName(),
+                        ingredient.getQuantity(),
+                        quantity == null ? null : quantity.amount(),
+                        quantity == null ? null : quantity.unit()
+                });
+            }
+            for (Long tagId : rows.get(i).tagIds()) {
+                tags.add(new Object[]{ids.get(i), tagId});
+            }
+        }
+        if (!ingredients.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_INGREDIENT, ingredients);
+        }
+        if (!tags.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TAG, tags);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sofia.recipeapp.importer;
+
+import com.sofia.recipeapp.dto.IngredientDTO;
+
+import java.util.List;
+
+/**
+ * One recipe read from an import file, before validation.
+ * @param number position of the record in the file, starting at 1
+ * @param authorUsername author named in the file, may be null
+ * @param tags tag names in the canonical form (lowercase, dashes)
+ */
+public record RecipeRecord(
+        long number,
+        String title,
+        String description,
+        String instructions,
+        String authorUsername,
+        List<IngredientDTO> ingredients,
+        List<String> tags
+) {
+}
@@ -0,0 +1,224 @@
+package com.sofia.recipeapp.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sofia.recipeapp.dto.IngredientDTO;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Stream parser for recipe import files, records are handed over one by one so the file is never held in memory.
+ * Formats:
+ * NDJSON - one object per line, in the shape of the admin export (title, description, instructions,
+ *          createdByUsername, ingredients [{name, quantity}], tags), a broken line only fails that record
+ * JSON_LD - schema.org Recipe objects, a single one, an array of them or a @graph;
+ *           nodes that aren't recipes are skipped
+ * Both formats accept both shapes of objects, the format only decides how records are delimited.
+ */
+public class RecipeRecordReader {
+
+    public enum Format { NDJSON, JSON_LD }
+
+    public interface Handler {
+        void record(RecipeRecord record);
+
+        void error(long number, String message);
+    }
+
+    // leading amount with an optional unit - "1 1/2 cups flour", "200 g spaghetti", "2-3 cloves garlic"
+    private static final Pattern QUANTITY = Pattern.compile(
+            "^\\s*((?:[\\d¼½¾⅓⅔⅛]+(?:[.,/]\\d+)?(?:\\s*-\\s*[\\d¼½¾⅓⅔⅛]+(?:[.,/]\\d+)?)?\\s*)+" +
+                    "(?:(?:g|kg|mg|ml|l|dl|cl|oz|lbs?|tsp|tbsp|teaspoons?|tablespoons?|cups?|pinch(?:es)?|cloves?|cans?|slices?|pieces?)\\.?\\s+)?)" +
+                    "(.+)$",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Map<String, String> DIETS = Map.of(
+            "vegandiet", "vegan",
+            "vegetariandiet", "vegetarian",
+            "glutenfreediet", "gluten-free",
+            "lowlactosediet", "lactose-free"
+    );
+
+    private final ObjectMapper objectMapper;
+    private final Handler handler;
+    private long number;
+
+    public RecipeRecordReader(ObjectMapper objectMapper, Handler handler) {
+        this.objectMapper = objectMapper;
+        this.handler = handler;
+    }
+
+    /**
+     * reads all records of the stream
+     * @param in import file
+     * @param format how records are delimited
+     * @throws IOException read error, or a syntax error in a JSON-LD document
+     */
+    public void read(InputStream in, Format format) throws IOException {
+        if (format == Format.NDJSON) {
+            readLines(in);
+        } else {
+            readDocuments(in);
+        }
+    }
+
+    private void readLines(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (JsonProcessingException e) {
+                handler.error(++number, "invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            accept(node);
+        }
+    }
+
+    private void readDocuments(InputStream in) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        accept(objectMapper.readTree(parser));
+                    }
+                } else {
+                    accept(objectMapper.readTree(parser));
+                }
+            }
+        }
+    }
+
+    private void accept(JsonNode node) {
+        if (node.isArray()) {
+            node.forEach(this::accept);
+        } else if (node.has("@graph")) {
+            accept(node.get("@graph"));
+        } else if (node.has("@type")) {
+            if (isRecipe(node.get("@type"))) {
+                handler.record(fromSchemaOrg(++number, node));
+            }
+        } else if (node.isObject()) {
+            handler.record(fromExport(++number, node));
+        } else {
+            handler.error(++number, "expected a JSON object");
+        }
+    }
+
+    private static RecipeRecord fromExport(long number, JsonNode node) {
+        List<IngredientDTO> ingredients = new ArrayList<>();
+        for (JsonNode ingredient : node.path("ingredients")) {
+            ingredients.add(new IngredientDTO(null, text(ingredient.get("name")), text(ingredient.get("quantity"))));
+        }
+        List<String> tags = new ArrayList<>();
+        node.path("tags").forEach(tag -> addTag(tags, tag.asText()));
+
+        return new RecipeRecord(number, text(node.get("title")), text(node.get("description")),
+                text(node.get("instructions")), text(node.get("createdByUsername")), ingredients, tags);
+    }
+
+    private static RecipeRecord fromSchemaOrg(long number, JsonNode node) {
+        List<IngredientDTO> ingredients = new ArrayList<>();
+        JsonNode ingredientNodes = node.has("recipeIngredient") ? node.get("recipeIngredient") : node.path("ingredients");
+        for (JsonNode ingredient : ingredientNodes) {
+            ingredients.add(parseIngredient(ingredient.asText()));
+        }
+
+        List<String> tags = new ArrayList<>();
+        for (String field : List.of("keywords", "recipeCategory", "recipeCuisine")) {
+            JsonNode value = node.path(field);
+            if (value.isTextual()) {
+                for (String keyword : value.asText().split(",")) {
+                    addTag(tags, keyword);
+                }
+            } else {
+                value.forEach(keyword -> addTag(tags, keyword.asText()));
+            }
+        }
+        JsonNode diets = node.path("suitableForDiet");
+        for (JsonNode diet : diets.isArray() ? diets : List.of(diets)) {
+            String name = diet.asText();
+            String tag = DIETS.get(name.substring(name.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT));
+            if (tag != null) {
+                addTag(tags, tag);
+            }
+        }
+
+        List<String> steps = new ArrayList<>();
+        addSteps(steps, node.path("recipeInstructions"));
+
+        JsonNode author = node.path("author");
+        if (author.isArray()) {
+            author = author.path(0);
+        }
+        String authorName = author.isTextual() ? author.asText() : text(author.get("name"));
+
+        return new RecipeRecord(number, text(node.get("name")), text(node.get("description")),
+                steps.isEmpty() ? null : String.join("\n", steps), authorName, ingredients, tags);
+    }
+
+    /**
+     * instructions are a text, a list of texts, HowToSteps or HowToSections of steps
+     */
+    private static void addSteps(List<String> steps, JsonNode instructions) {
+        if (instructions.isTextual()) {
+            steps.add(instructions.asText().trim());
+        } else if (instructions.isArray()) {
+            instructions.forEach(step -> addSteps(steps, step));
+        } else if (instructions.has("itemListElement")) {
+            addSteps(steps, instructions.get("itemListElement"));
+        } else if (instructions.has("text")) {
+            steps.add(instructions.get("text").asText().trim());
+        }
+    }
+
+    static IngredientDTO parseIngredient(String text) {
+        Matcher matcher = QUANTITY.matcher(text.trim());
+        if (matcher.matches()) {
+            return new IngredientDTO(null, matcher.group(2).trim(), matcher.group(1).trim());
+        }
+        return new IngredientDTO(null, text.trim(), "");
+    }
+
+    private static boolean isRecipe(JsonNode type) {
+        if (type.isArray()) {
+            for (JsonNode t : type) {
+                if (t.asText().equals("Recipe")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return type.asText().equals("Recipe");
+    }
+
+    private static void addTag(List<String> tags, String name) {
+        String tag = name.trim().toLowerCase(Locale.ROOT).replaceAll("[\\s_]+", "-");
+        if (!tag.isEmpty() && !tags.contains(tag)) {
+            tags.add(tag);
+        }
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+}
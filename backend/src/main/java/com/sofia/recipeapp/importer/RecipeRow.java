@@ -0,0 +1,21 @@
+package com.sofia.recipeapp.importer;
+
+import com.sofia.recipeapp.dto.IngredientDTO;
+
+import java.util.List;
+
+/**
+ * Validated recipe ready to be inserted, author and tags are already resolved to ids.
+ */
+public record RecipeRow(
+        RecipeRecord record,
+        String description,
+        long authorId,
+        String authorUsername,
+        List<Long> tagIds
+) {
+
+    public List<IngredientDTO> ingredients() {
+        return record.ingredients();
+    }
+}
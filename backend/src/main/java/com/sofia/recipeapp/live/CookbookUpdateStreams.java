@@ -0,0 +1,292 @@
+package com.sofia.recipeapp.live;
+
+import com.sofia.recipeapp.dto.CookbookUpdateDTO;
+import com.sofia.recipeapp.dto.UserBasicDTO;
+import com.sofia.recipeapp.event.CookbookChangedEvent;
+import com.sofia.recipeapp.event.CookbookRecipesChangedEvent;
+import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.repository.CookbookRepository;
+import com.sofia.recipeapp.search.CookbookDocument;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Live cookbook updates over server-sent events.
+ * 1. a subscription is an async request, between events it holds no thread
+ * 2. every subscriber merges the committed changes of its cookbook into one pending update,
+ *    a recipe added and removed again cancels out, so a slow client never builds a queue
+ * 3. the pending update is sent app.live.coalesce-ms after its first change, a burst of changes becomes one event,
+ *    changes made while a send is in progress go out with the next one
+ * 4. sends run on virtual threads, a client that doesn't read blocks only its own
+ * More than MAX_PENDING_RECIPES pending recipe ids turn the update into a reload request.
+ * Idle subscribers get a comment every app.live.heartbeat-interval-ms, so closed connections are noticed.
+ */
+@Component
+public class CookbookUpdateStreams {
+
+    private static final int MAX_PENDING_RECIPES = 500;
+
+    private final CookbookRepository cookbookRepository;
+    private final TaskScheduler taskScheduler;
+    private final long coalesceMillis;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public CookbookUpdateStreams(
+            CookbookRepository cookbookRepository,
+            TaskScheduler taskScheduler,
+            @Value("${app.live.coalesce-ms:250}") long coalesceMillis,
+            @Value("${app.live.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${app.live.max-subscribers:10000}") int maxSubscribers
+    ) {
+        this.cookbookRepository = cookbookRepository;
+        this.taskScheduler = taskScheduler;
+        this.coalesceMillis = coalesceMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * opens a stream of updates of the cookbook
+     * @param cookbookId cookbook id
+     * @return emitter the updates are sent to as "update" events with a CookbookUpdateDTO
+     * @throws ApiException cookbook not found (404), too many open streams (503)
+     */
+    public SseEmitter subscribe(Long cookbookId) throws ApiException {
+        if (!cookbookRepository.existsById(cookbookId)) {
+            throw new ApiException("Cookbook not found", HttpStatus.NOT_FOUND);
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ApiException("Too many live subscriptions", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(cookbookId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscribers.compute(cookbookId, (id, set) -> {
+            Set<Subscriber> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(subscriber);
+            return result;
+        });
+
+        try {
+            // sent once the response starts, lets the client know the stream is open
+            emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            subscriber.close();
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCookbookChanged(CookbookChangedEvent event) {
+        forEachSubscriber(event.cookbookId(), update -> {
+            if (event.isDeleted()) {
+                update.deleted = true;
+            } else {
+                update.document = event.document();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCookbookRecipesChanged(CookbookRecipesChangedEvent event) {
+        forEachSubscriber(event.cookbookId(), update -> update.recipes(event.added(), event.removed()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.live.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(Subscriber::ping));
+    }
+
+    /**
+     * ends the streams before the graceful shutdown, open streams would hold it up until they time out
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void completeAll() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    private void forEachSubscriber(Long cookbookId, Consumer<PendingUpdate> change) {
+        Set<Subscriber> set = subscribers.get(cookbookId);
+        if (set != null) {
+            set.forEach(subscriber -> subscriber.change(change));
+        }
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        taskScheduler.schedule(() -> senders.execute(subscriber::drain), Instant.now().plusMillis(coalesceMillis));
+    }
+
+    private final class Subscriber {
+
+        private final Long cookbookId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        // guarded by this, busy while a send is scheduled or running
+        private PendingUpdate pending;
+        private boolean busy;
+
+        private Subscriber(Long cookbookId, SseEmitter emitter) {
+            this.cookbookId = cookbookId;
+            this.emitter = emitter;
+        }
+
+        private void change(Consumer<PendingUpdate> change) {
+            synchronized (this) {
+                if (pending == null) {
+                    pending = new PendingUpdate();
+                }
+                change.accept(pending);
+                if (busy) {
+                    return;
+                }
+                busy = true;
+            }
+            scheduleDrain(this);
+        }
+
+        private void ping() {
+            synchronized (this) {
+                if (busy) {
+                    return;
+                }
+                busy = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        /**
+         * sends the pending update, or a heartbeat comment when nothing is pending
+         */
+        private void drain() {
+            PendingUpdate update;
+            synchronized (this) {
+                update = pending;
+                pending = null;
+            }
+            try {
+                if (update == null) {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } else {
+                    emitter.send(SseEmitter.event().name("update").data(update.toDTO(cookbookId), MediaType.APPLICATION_JSON));
+                    if (update.deleted) {
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client is gone or the stream already completed
+                close();
+                return;
+            }
+            synchronized (this) {
+                if (pending == null) {
+                    busy = false;
+                    return;
+                }
+            }
+            scheduleDrain(this);
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscriberCount.decrementAndGet();
+            subscribers.computeIfPresent(cookbookId, (id, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * changes of one cookbook not sent to a subscriber yet
+     */
+    private static final class PendingUpdate {
+
+        private final Set<Long> added = new LinkedHashSet<>();
+        private final Set<Long> removed = new LinkedHashSet<>();
+        private CookbookDocument document;
+        private boolean deleted;
+        private boolean reload;
+
+        private void recipes(Collection<Long> addedIds, Collection<Long> removedIds) {
+            if (reload) {
+                return;
+            }
+            for (Long id : addedIds) {
+                if (!removed.remove(id)) {
+                    added.add(id);
+                }
+            }
+            for (Long id : removedIds) {
+                if (!added.remove(id)) {
+                    removed.add(id);
+                }
+            }
+            if (added.size() + removed.size() > MAX_PENDING_RECIPES) {
+                reload = true;
+                added.clear();
+                removed.clear();
+            }
+        }
+
+        private CookbookUpdateDTO toDTO(Long cookbookId) {
+            List<UserBasicDTO> collaborators = null;
+            if (document != null) {
+                collaborators = new ArrayList<>();
+                for (int i = 0; i < document.collaboratorIds().size(); i++) {
+                    UserBasicDTO collaborator = new UserBasicDTO();
+                    collaborator.setId(document.collaboratorIds().get(i));
+                    collaborator.setUsername(document.collaboratorUsernames().get(i));
+                    collaborators.add(collaborator);
+                }
+            }
+            return new CookbookUpdateDTO(
+                    cookbookId,
+                    document != null,
+                    document == null ? null : document.title(),
+                    document == null ? null : document.description(),
+                    collaborators,
+                    List.copyOf(added),
+                    List.copyOf(removed),
+                    deleted,
+                    reload
+            );
+        }
+    }
+}
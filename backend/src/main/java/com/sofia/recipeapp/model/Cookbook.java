@@ -1,12 +1,31 @@
 package com.sofia.recipeapp.model;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
+/**
+ * Cookbook - id, title, description, version, User owner, Set-User collaborators, Set-Recipe recipes
+ * Fetch plans:
+ * Cookbook.list - owner and collaborators, for cookbook lists (recipes are batch fetched)
+ * Cookbook.detail - owner and recipes with their authors, for a single cookbook (collaborators are batch fetched)
+ */
 @Entity
 @Table(name = "cookbooks")
+@NamedEntityGraph(name = "Cookbook.list", attributeNodes = {
+        @NamedAttributeNode("owner"),
+        @NamedAttributeNode("collaborators")
+})
+@NamedEntityGraph(name = "Cookbook.detail",
+        attributeNodes = {
+                @NamedAttributeNode("owner"),
+                @NamedAttributeNode(value = "recipes", subgraph = "recipe")
+        },
+        subgraphs = @NamedSubgraph(name = "recipe", attributeNodes = @NamedAttributeNode("createdBy"))
+)
 @Data
 public class Cookbook {
 
@@ -17,11 +36,17 @@ public class Cookbook {
     private String title;
     private String description;
 
+    // bumped by title, description and owner changes, collaborators and recipes are versioned by their own rows
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "owner_id")
     private User owner;
 
     @ManyToMany
+    @OptimisticLock(excluded = true)
     @JoinTable(
             name = "cookbook_collaborators",
             joinColumns = @JoinColumn(name = "cookbook_id"),
@@ -30,10 +55,24 @@ public class Cookbook {
     private Set<User> collaborators = new HashSet<>();
 
     @ManyToMany
+    @OptimisticLock(excluded = true)
     @JoinTable(
             name = "cookbook_recipes",
             joinColumns = @JoinColumn(name = "cookbook_id"),
             inverseJoinColumns = @JoinColumn(name = "recipe_id")
     )
     private Set<Recipe> recipes = new HashSet<>();
-}
\ No newline at end of file
+
+    // by id, the generated ones would load the collaborators and recipes of the cookbook
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Cookbook other)) return false;
+        return getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
+}
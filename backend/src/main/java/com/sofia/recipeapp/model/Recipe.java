@@ -8,18 +8,37 @@ import lombok.RequiredArgsConstructor;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
- * Recipe Entity - id, title, description, instructions, User createdBy, RecipeIngredient ingredients, Set-Tag tags (recipe_tag)
+ * Recipe Entity - id, title, description, instructions, favouriteCount, viewCount, updatedAt, version, User createdBy, RecipeIngredient ingredients, Set-Tag tags (recipe_tag)
  * ManyToOne - User
  * OneToMany - RecipeIngredient
  * ManyToMany - Tag
+ * Fetch plans:
+ * Recipe.list - author and tags, for recipe lists (ingredients are batch fetched)
+ * Recipe.detail - author and ingredients, for a single recipe
+ *   (tags are loaded by their own select, joining them too would repeat every ingredient once per tag)
+ * Recipe.admin - author and ingredients, for the admin overview
  */
 @Entity
+@NamedEntityGraph(name = "Recipe.list", attributeNodes = {
+        @NamedAttributeNode("createdBy"),
+        @NamedAttributeNode("tags")
+})
+@NamedEntityGraph(name = "Recipe.detail", attributeNodes = {
+        @NamedAttributeNode("createdBy"),
+        @NamedAttributeNode("recipeIngredients")
+})
+@NamedEntityGraph(name = "Recipe.admin", attributeNodes = {
+        @NamedAttributeNode("createdBy"),
+        @NamedAttributeNode("recipeIngredients")
+})
 @Table(name = "recipes")
 @RequiredArgsConstructor
 @Data
@@ -34,6 +53,22 @@ public class Recipe {
     @Column(columnDefinition = "TEXT")
     private String instructions;
 
+    // written only by FavouriteCounters
+    @Column(name = "favourite_count", columnDefinition = "bigint default 0 not null", insertable = false, updatable = false)
+    private long favouriteCount;
+
+    // written only by ViewCounters
+    @Column(name = "view_count", columnDefinition = "bigint default 0 not null", insertable = false, updatable = false)
+    private long viewCount;
+
+    // set by every edit, so the version is bumped also when only ingredients (not owned by the recipe row) change
+    private Instant updatedAt;
+
+    // bumped by every update, a stale update fails instead of overwriting a newer one
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "created_by", nullable = false)
     @JsonIgnoreProperties({"recipesCreated", "favoriteRecipes"})
@@ -41,6 +76,7 @@ public class Recipe {
     private User createdBy;
 
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
     private List<RecipeIngredient> recipeIngredients = new ArrayList<>();
 
     @ManyToMany(fetch = FetchType.EAGER)
@@ -55,16 +91,18 @@ public class Recipe {
     @JsonIgnore
     private Set<User> usersWhoFavorited = new HashSet<>();
 
+    // by id, getId() works on uninitialized proxies too
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Recipe recipe)) return false;
-        return id != null && id.equals(recipe.id);
+        return getId() != null && getId().equals(recipe.getId());
     }
 
+    // only persisted recipes are put into sets, a constant hash made every favourite and cookbook set a list
     @Override
     public int hashCode() {
-        return getClass().hashCode();
+        return Objects.hashCode(getId());
     }
 
 }
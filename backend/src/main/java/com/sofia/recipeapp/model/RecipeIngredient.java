@@ -1,12 +1,14 @@
 package com.sofia.recipeapp.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.sofia.recipeapp.quantity.Quantity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 
 /**
- * RecipeIngredient - id, ingredientName, quantity, recipe
+ * RecipeIngredient - id, ingredientName, quantity, amount, unit, recipe
+ * amount and unit are parsed from the quantity whenever it is set, see {@link Quantity}
  * ManyToOne - Recipe
  */
 @Entity
@@ -23,9 +25,21 @@ public class RecipeIngredient {
 
     private String quantity;
 
+    // in the canonical unit, null when the quantity has no amount
+    private Double amount;
+
+    @Column(length = Quantity.MAX_UNIT_LENGTH)
+    private String unit;
+
     @ManyToOne
     @JoinColumn(name = "recipe_id")
     @JsonIgnoreProperties("recipeIngredients")
     private Recipe recipe;
 
+    public void setQuantity(String quantity) {
+        this.quantity = quantity;
+        Quantity parsed = Quantity.parse(quantity);
+        this.amount = parsed == null ? null : parsed.amount();
+        this.unit = parsed == null ? null : parsed.unit();
+    }
 }
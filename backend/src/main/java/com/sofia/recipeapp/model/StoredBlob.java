@@ -0,0 +1,25 @@
+package com.sofia.recipeapp.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * StoredBlob - hash (SHA-256 hex of the content), size, refCount
+ * the content itself is a file of the BlobStore, rows are written with JDBC, the entity only defines the table
+ */
+@Entity
+@Table(name = "blobs")
+@NoArgsConstructor
+@Data
+public class StoredBlob {
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private long refCount;
+}
@@ -4,14 +4,16 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
 /**
- * User - id, username, password, Set-Recipe favoriteRecipes
+ * User - id, username, password, role, bio, profileImageHash, profileImageType, version, Set-Recipe favoriteRecipes
  * ManyToMany - favoriteRecipes
  */
 @Entity
@@ -37,17 +39,23 @@ public class User {
     @Column(length = 500)
     private String bio;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] profileImage;
+    // key of the image in the BlobStore, the image itself isn't loaded with the user
+    @Column(length = 64)
+    private String profileImageHash;
 
     @Column
     private String profileImageType;
 
+    // bumped by profile changes, not by favourites
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private long version;
+
     @OneToMany(mappedBy = "createdBy", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Recipe> recipesCreated = new ArrayList<>();
 
     @ManyToMany
+    @OptimisticLock(excluded = true)
     @JoinTable(
             name = "user_favorite_recipes",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -55,4 +63,16 @@ public class User {
     )
     private Set<Recipe> favoriteRecipes = new HashSet<>();
 
+    // by id - the generated ones hashed the profile image and initialized the lazy collections
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof User other)) return false;
+        return getId() != null && getId().equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getId());
+    }
 }
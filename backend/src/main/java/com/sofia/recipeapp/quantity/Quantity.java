@@ -0,0 +1,106 @@
+package com.sofia.recipeapp.quantity;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Quantity of an ingredient parsed from its free-form text.
+ * amount - in the canonical unit
+ * unit - canonical symbol of a known {@link Unit}, pcs when no known unit follows the amount
+ *        (the word then belongs to the ingredient, "2 large eggs" is 2 pcs)
+ */
+public record Quantity(double amount, String unit) {
+
+    public static final int MAX_UNIT_LENGTH = 16;
+
+    // 1,000 and 1,000.5 group thousands, any other comma is a decimal one
+    private static final String THOUSANDS = "\\d{1,3}(?:,\\d{3})+(?:\\.\\d+)?";
+    // 1 1/2 | 1/2 | 1,000 | 1 | 1.5 | 1,5 | 1½ | ½, a range "2-3" takes its upper bound - a shopping list rather has too much
+    private static final String NUMBER =
+            "(\\d+\\s+\\d+/\\d+|\\d+/\\d+|" + THOUSANDS + "(?!\\d)|\\d+(?:[.,]\\d+)?(?:\\s*[½⅓⅔¼¾⅛])?|[½⅓⅔¼¾⅛])";
+    private static final Pattern QUANTITY = Pattern.compile(
+            "^\\s*(?:" + NUMBER + "\\s*(?:-|–|to)\\s*)?" + NUMBER + "\\s*(.*)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern THOUSANDS_NUMBER = Pattern.compile(THOUSANDS);
+    private static final Pattern UNIT_WORDS = Pattern.compile("^([\\p{L}]+\\.?)(?:\\s+([\\p{L}]+\\.?))?");
+
+    /**
+     * @param text quantity as written, e.g. "200 g", "1 1/2 cups", "2 packs", "1,000 g"
+     * @return parsed quantity, null when the text doesn't start with an amount ("a pinch", "to taste")
+     */
+    public static Quantity parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = QUANTITY.matcher(text);
+        if (!matcher.matches()) {
+            return null;
+        }
+        double amount = number(matcher.group(2));
+        if (Double.isNaN(amount)) {
+            return null;
+        }
+        String rest = matcher.group(3).trim();
+
+        Unit unit = unit(rest);
+        return new Quantity(unit.toCanonical(amount), unit.canonical());
+    }
+
+    /**
+     * @param rest text after the amount
+     * @return unit of the first two words, PIECE when there is none
+     */
+    private static Unit unit(String rest) {
+        Matcher words = UNIT_WORDS.matcher(rest);
+        if (!words.find()) {
+            return Unit.PIECE;
+        }
+        String first = words.group(1);
+        String second = words.group(2);
+        // two-word units first, "fl oz" isn't "fl"
+        Unit unit = second == null ? null : Unit.find(first + " " + second);
+        if (unit == null) {
+            unit = Unit.find(first);
+        }
+        // a size before the unit, "2 large cloves"
+        if (unit == null && second != null) {
+            unit = Unit.find(second);
+        }
+        return unit == null ? Unit.PIECE : unit;
+    }
+
+    private static double number(String text) {
+        String number = text.trim();
+        number = THOUSANDS_NUMBER.matcher(number).matches() ? number.replace(",", "") : number.replace(',', '.');
+        double fraction = 0;
+        char last = number.charAt(number.length() - 1);
+        if (!Character.isDigit(last)) {
+            fraction = vulgarFraction(last);
+            number = number.substring(0, number.length() - 1).trim();
+            if (number.isEmpty()) {
+                return fraction;
+            }
+        }
+        int space = number.indexOf(' ');
+        if (space > 0) {
+            return Double.parseDouble(number.substring(0, space)) + number(number.substring(space + 1));
+        }
+        int slash = number.indexOf('/');
+        if (slash > 0) {
+            double denominator = Double.parseDouble(number.substring(slash + 1));
+            return denominator == 0 ? Double.NaN : Double.parseDouble(number.substring(0, slash)) / denominator;
+        }
+        return Double.parseDouble(number) + fraction;
+    }
+
+    private static double vulgarFraction(char c) {
+        return switch (c) {
+            case '½' -> 0.5;
+            case '⅓' -> 1.0 / 3;
+            case '⅔' -> 2.0 / 3;
+            case '¼' -> 0.25;
+            case '¾' -> 0.75;
+            case '⅛' -> 0.125;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,60 @@
+package com.sofia.recipeapp.quantity;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Parses quantities of ingredients stored before amount and unit existed.
+ * Runs on startup, ingredients whose quantity has no amount are parsed again on the next start.
+ * Also parses again the quantities an older parser got wrong - units that aren't a known {@link Unit}
+ * ("2 large eggs" stored as unit "large") and amounts with a comma ("1,000 g" stored as 1), only changed rows are written.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuantityBackfill {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String SELECT_UNPARSED =
+            "SELECT id, quantity, amount, unit FROM recipe_ingredient WHERE quantity IS NOT NULL " +
+            "AND ((amount IS NULL AND unit IS NULL) OR unit NOT IN (" + knownUnits() + ") OR quantity LIKE '%,%')";
+    private static final String UPDATE_QUANTITY = "UPDATE recipe_ingredient SET amount = ?, unit = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(SELECT_UNPARSED, rs -> {
+            Quantity quantity = Quantity.parse(rs.getString("quantity"));
+            Double amount = quantity == null ? null : quantity.amount();
+            String unit = quantity == null ? null : quantity.unit();
+            Double storedAmount = rs.getObject("amount") == null ? null : rs.getDouble("amount");
+            if (!Objects.equals(amount, storedAmount) || !Objects.equals(unit, rs.getString("unit"))) {
+                updates.add(new Object[]{amount, unit, rs.getLong("id")});
+            }
+        });
+
+        for (int from = 0; from < updates.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(UPDATE_QUANTITY, updates.subList(from, Math.min(from + BATCH_SIZE, updates.size())));
+        }
+        if (!updates.isEmpty()) {
+            System.out.println("Parsed quantities of " + updates.size() + " ingredients.");
+        }
+    }
+
+    private static String knownUnits() {
+        return Arrays.stream(Unit.values())
+                .map(unit -> "'" + unit.canonical() + "'")
+                .distinct()
+                .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,93 @@
+package com.sofia.recipeapp.quantity;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Known units with their factor to the canonical unit of the dimension - grams, millilitres or pieces.
+ * US customary volumes (cup, pint, fl oz) are used.
+ * Count units (clove, can, pinch...) have no fixed size, each is its own canonical unit, so 2 cloves and 1 piece
+ * of garlic stay separate lines of a shopping list.
+ */
+public enum Unit {
+
+    GRAM("g", 1, "g", "gr", "gram", "grams", "gramme", "grammes"),
+    KILOGRAM("g", 1000, "kg", "kgs", "kilo", "kilos", "kilogram", "kilograms"),
+    MILLIGRAM("g", 0.001, "mg", "milligram", "milligrams"),
+    OUNCE("g", 28.349523125, "oz", "ounce", "ounces"),
+    POUND("g", 453.59237, "lb", "lbs", "pound", "pounds"),
+
+    MILLILITRE("ml", 1, "ml", "millilitre", "millilitres", "milliliter", "milliliters"),
+    CENTILITRE("ml", 10, "cl", "centilitre", "centilitres", "centiliter", "centiliters"),
+    DECILITRE("ml", 100, "dl", "decilitre", "decilitres", "deciliter", "deciliters"),
+    LITRE("ml", 1000, "l", "litre", "litres", "liter", "liters"),
+    TEASPOON("ml", 4.92892159375, "tsp", "tsps", "teaspoon", "teaspoons"),
+    TABLESPOON("ml", 14.78676478125, "tbsp", "tbsps", "tbs", "tablespoon", "tablespoons"),
+    FLUID_OUNCE("ml", 29.5735295625, "fl oz", "floz", "fluid ounce", "fluid ounces"),
+    CUP("ml", 236.5882365, "cup", "cups"),
+    PINT("ml", 473.176473, "pt", "pint", "pints"),
+
+    PIECE("pcs", 1, "pc", "pcs", "piece", "pieces"),
+
+    CLOVE("clove", 1, "clove", "cloves"),
+    CAN("can", 1, "can", "cans", "tin", "tins"),
+    JAR("jar", 1, "jar", "jars"),
+    BOTTLE("bottle", 1, "bottle", "bottles"),
+    PACK("pack", 1, "pack", "packs", "packet", "packets", "package", "packages", "pkg"),
+    PINCH("pinch", 1, "pinch", "pinches"),
+    DASH("dash", 1, "dash", "dashes"),
+    HANDFUL("handful", 1, "handful", "handfuls"),
+    SLICE("slice", 1, "slice", "slices"),
+    STICK("stick", 1, "stick", "sticks"),
+    SHEET("sheet", 1, "sheet", "sheets"),
+    BUNCH("bunch", 1, "bunch", "bunches"),
+    SPRIG("sprig", 1, "sprig", "sprigs"),
+    STALK("stalk", 1, "stalk", "stalks"),
+    LEAF("leaf", 1, "leaf", "leaves"),
+    HEAD("head", 1, "head", "heads");
+
+    private static final Map<String, Unit> BY_NAME = new HashMap<>();
+
+    static {
+        for (Unit unit : values()) {
+            for (String name : unit.names) {
+                BY_NAME.put(name, unit);
+            }
+        }
+    }
+
+    private final String canonical;
+    private final double factor;
+    private final String[] names;
+
+    Unit(String canonical, double factor, String... names) {
+        this.canonical = canonical;
+        this.factor = factor;
+        this.names = names;
+    }
+
+    /**
+     * @return symbol of the canonical unit - g, ml, pcs or the name of a count unit
+     */
+    public String canonical() {
+        return canonical;
+    }
+
+    /**
+     * @param amount amount in this unit
+     * @return amount in the canonical unit
+     */
+    public double toCanonical(double amount) {
+        return amount * factor;
+    }
+
+    /**
+     * @param name unit as written, case and a trailing dot don't matter
+     * @return unit or null when unknown
+     */
+    public static Unit find(String name) {
+        String normalized = name.toLowerCase(Locale.ROOT).replace(".", "").trim();
+        return BY_NAME.get(normalized);
+    }
+}
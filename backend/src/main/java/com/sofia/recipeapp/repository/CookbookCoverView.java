@@ -0,0 +1,9 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * title of a cover recipe of a cookbook, used by cookbook summaries
+ */
+public interface CookbookCoverView {
+    Long getCookbookId();
+    String getTitle();
+}
@@ -1,26 +1,95 @@
 package com.sofia.recipeapp.repository;
 
+import com.sofia.recipeapp.dto.CookbookSummaryDTO;
 import com.sofia.recipeapp.model.Cookbook;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface CookbookRepository extends JpaRepository<Cookbook, Long> {
+    @EntityGraph("Cookbook.list")
     List<Cookbook> findAllByOwnerIdOrCollaborators_Id(Long ownerId, Long collaboratorId);
-    @Query("""
-        SELECT DISTINCT c FROM Cookbook c
-        LEFT JOIN c.owner o
-        LEFT JOIN c.collaborators col
-        WHERE (:title IS NULL OR LOWER(c.title) LIKE LOWER(CONCAT('%', :title, '%')))
-        AND (
-            :username IS NULL OR LOWER(o.username) LIKE LOWER(CONCAT('%', :username, '%'))
-            OR LOWER(col.username) LIKE LOWER(CONCAT('%', :username, '%'))
-        )
-        """)
-    List<Cookbook> searchCookbooks(
-            @Param("title") String title,
-            @Param("username") String username
-    );
+
+    @EntityGraph("Cookbook.list")
+    List<Cookbook> findAllByIdIn(Collection<Long> ids);
+
+    @EntityGraph("Cookbook.list")
+    @Query("SELECT c FROM Cookbook c")
+    List<Cookbook> findAllForList();
+
+    @EntityGraph("Cookbook.detail")
+    Optional<Cookbook> findDetailById(Long id);
+
+    @Query("SELECT c.id FROM Cookbook c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    String SUMMARY_SELECT = "SELECT new com.sofia.recipeapp.dto.CookbookSummaryDTO(" +
+            "c.id, c.title, c.description, o.id, o.username, SIZE(c.recipes), SIZE(c.collaborators)) ";
+
+    @Query(SUMMARY_SELECT + "FROM Cookbook c LEFT JOIN c.owner o " +
+            "WHERE o.id = :userId OR EXISTS (SELECT 1 FROM c.collaborators col WHERE col.id = :userId)")
+    List<CookbookSummaryDTO> findSummariesForUser(@Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "FROM Cookbook c LEFT JOIN c.owner o WHERE c.id IN :ids")
+    List<CookbookSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // the most favourited recipes of every cookbook, one query for a whole list of cookbooks
+    @Query("SELECT x.cookbookId AS cookbookId, x.title AS title FROM (" +
+            "SELECT c.id AS cookbookId, r.title AS title, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.id ORDER BY r.favouriteCount DESC, r.id) AS position " +
+            "FROM Cookbook c JOIN c.recipes r WHERE c.id IN :ids) x " +
+            "WHERE x.position <= " + CookbookSummaryDTO.COVER_SIZE + " ORDER BY x.cookbookId, x.position")
+    List<CookbookCoverView> findCoverTitles(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c.version AS version, o.version AS ownerVersion FROM Cookbook c LEFT JOIN c.owner o WHERE c.id = :id")
+    Optional<CookbookVersionView> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.id AS id, u.version AS version FROM Cookbook c JOIN c.collaborators u WHERE c.id = :id ORDER BY u.id")
+    List<UserVersionView> findCollaboratorVersions(@Param("id") Long id);
+
+    // 2 owner, 1 collaborator, 0 neither - the collaborator check is a lookup of the join table primary key
+    @Query("SELECT CASE WHEN c.owner.id = :userId THEN 2 " +
+            "WHEN EXISTS (SELECT 1 FROM c.collaborators u WHERE u.id = :userId) THEN 1 ELSE 0 END " +
+            "FROM Cookbook c WHERE c.id = :cookbookId")
+    Optional<Integer> findMembership(@Param("cookbookId") Long cookbookId, @Param("userId") Long userId);
+
+    @Query("SELECT MAX(c.id) FROM Cookbook c")
+    Long findMaxId();
+
+    @Query("SELECT c.id FROM Cookbook c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r.id FROM Cookbook c JOIN c.recipes r WHERE c.id = :cookbookId AND r.id IN :recipeIds")
+    List<Long> findRecipeIdsIn(@Param("cookbookId") Long cookbookId, @Param("recipeIds") Collection<Long> recipeIds);
+
+    @Query("SELECT u.id FROM Cookbook c JOIN c.collaborators u WHERE c.id = :cookbookId AND u.id IN :userIds")
+    List<Long> findCollaboratorIdsIn(@Param("cookbookId") Long cookbookId, @Param("userIds") Collection<Long> userIds);
+
+    // set-based writes of the join tables, rows that already exist or point to a missing recipe / user are skipped
+    @Modifying
+    @Query(value = "INSERT INTO cookbook_recipes (cookbook_id, recipe_id) SELECT :cookbookId, r.id FROM recipes r " +
+            "WHERE r.id IN :recipeIds AND NOT EXISTS " +
+            "(SELECT 1 FROM cookbook_recipes cr WHERE cr.cookbook_id = :cookbookId AND cr.recipe_id = r.id)", nativeQuery = true)
+    int insertRecipes(@Param("cookbookId") Long cookbookId, @Param("recipeIds") Collection<Long> recipeIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM cookbook_recipes WHERE cookbook_id = :cookbookId AND recipe_id IN :recipeIds", nativeQuery = true)
+    int deleteRecipes(@Param("cookbookId") Long cookbookId, @Param("recipeIds") Collection<Long> recipeIds);
+
+    @Modifying
+    @Query(value = "INSERT INTO cookbook_collaborators (cookbook_id, user_id) SELECT :cookbookId, u.id FROM users u " +
+            "WHERE u.id IN :userIds AND NOT EXISTS " +
+            "(SELECT 1 FROM cookbook_collaborators cc WHERE cc.cookbook_id = :cookbookId AND cc.user_id = u.id)", nativeQuery = true)
+    int insertCollaborators(@Param("cookbookId") Long cookbookId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM cookbook_collaborators WHERE cookbook_id = :cookbookId AND user_id IN :userIds", nativeQuery = true)
+    int deleteCollaborators(@Param("cookbookId") Long cookbookId, @Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * cookbook version with the version of its owner, used to build ETags without loading the cookbook
+ */
+public interface CookbookVersionView {
+    Long getVersion();
+    Long getOwnerVersion();
+}
@@ -0,0 +1,9 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * blob store key and content type of a users profile image
+ */
+public interface ProfileImageView {
+    String getHash();
+    String getContentType();
+}
@@ -0,0 +1,9 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * recipe id with a count, e.g. the number of users who favourited it
+ */
+public interface RecipeCountView {
+    Long getRecipeId();
+    Long getCount();
+}
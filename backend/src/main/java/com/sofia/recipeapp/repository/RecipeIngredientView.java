@@ -0,0 +1,11 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * ingredient row with the id of its recipe, used by the recipe export
+ */
+public interface RecipeIngredientView {
+    Long getRecipeId();
+    Long getId();
+    String getName();
+    String getQuantity();
+}
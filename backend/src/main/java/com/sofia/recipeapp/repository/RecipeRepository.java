@@ -1,31 +1,147 @@
 package com.sofia.recipeapp.repository;
 
+import com.sofia.recipeapp.dto.RecipeExportDTO;
+import com.sofia.recipeapp.dto.RecipeSummaryDTO;
 import com.sofia.recipeapp.model.Recipe;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
+    @EntityGraph("Recipe.list")
     List<Recipe> findByCreatedByUsername(String username);
 
-    @Query("SELECT r FROM Recipe r " +
-            "LEFT JOIN r.tags t " +
-            "WHERE (:username IS NULL OR LOWER(r.createdBy.username) LIKE LOWER(CONCAT('%', :username, '%'))) " +
-            "AND (:title IS NULL OR LOWER(r.title) LIKE LOWER(CONCAT('%', :title, '%'))) " +
-            "AND (:tags IS NULL OR t.name IN :tags) " +
-            "GROUP BY r " +
-            "HAVING (:tags IS NULL OR COUNT(DISTINCT t.name) = :tagCount)")
-    List<Recipe> search(
-            @Param("username") String username,
-            @Param("title") String title,
-            @Param("tags") List<String> tags,
-            @Param("tagCount") long tagCount
+    @EntityGraph("Recipe.list")
+    List<Recipe> findAllByIdIn(Collection<Long> ids);
+
+    @EntityGraph("Recipe.list")
+    @Query("SELECT r FROM Recipe r")
+    List<Recipe> findAllForList();
+
+    @EntityGraph("Recipe.admin")
+    @Query("SELECT r FROM Recipe r")
+    List<Recipe> findAllForAdmin();
+
+    @EntityGraph("Recipe.detail")
+    Optional<Recipe> findDetailById(Long id);
+
+    @EntityGraph("Recipe.list")
+    @Query("SELECT r FROM User u JOIN u.favoriteRecipes r WHERE u.id = :userId")
+    List<Recipe> findFavouritesOfUser(@Param("userId") Long userId);
+
+    @Query("SELECT r.id FROM Recipe r WHERE LOWER(r.createdBy.username) LIKE LOWER(CONCAT('%', :username, '%'))")
+    List<Long> findIdsByCreatedByUsernameLike(@Param("username") String username);
+
+    @Query("SELECT r.id FROM Recipe r WHERE r.id > :afterId ORDER BY r.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // tags are batch loaded, joining them with the ingredient list would repeat every ingredient once per tag
+    @Query("SELECT DISTINCT r FROM Recipe r " +
+            "JOIN FETCH r.createdBy " +
+            "LEFT JOIN FETCH r.recipeIngredients " +
+            "WHERE r.id IN :ids")
+    List<Recipe> findAllForIndexing(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r.id FROM Recipe r WHERE r.createdBy.id = :userId")
+    List<Long> findIdsByCreatedById(@Param("userId") Long userId);
+
+    @Query("SELECT MAX(r.id) FROM Recipe r")
+    Long findMaxId();
+
+    @Query("SELECT r.id FROM Recipe r WHERE r.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    String SUMMARY_SELECT = "SELECT new com.sofia.recipeapp.dto.RecipeSummaryDTO(" +
+            "r.id, r.title, SUBSTRING(r.description, 1, " + RecipeSummaryDTO.DESCRIPTION_LENGTH + "), " +
+            "a.username, a.id, SIZE(r.recipeIngredients), r.favouriteCount) ";
+
+    // lists with an ETag are ordered, the same state has to give the same response
+    @Query(SUMMARY_SELECT + "FROM Recipe r JOIN r.createdBy a WHERE a.id = :userId ORDER BY r.id")
+    List<RecipeSummaryDTO> findSummariesByCreatedById(@Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "FROM User u JOIN u.favoriteRecipes r JOIN r.createdBy a WHERE u.id = :userId ORDER BY r.id")
+    List<RecipeSummaryDTO> findFavouriteSummaries(@Param("userId") Long userId);
+
+    @Query(SUMMARY_SELECT + "FROM Cookbook c JOIN c.recipes r JOIN r.createdBy a WHERE c.id = :cookbookId ORDER BY r.id")
+    List<RecipeSummaryDTO> findCookbookSummaries(@Param("cookbookId") Long cookbookId);
+
+    @Query(SUMMARY_SELECT + "FROM Cookbook c JOIN c.recipes r JOIN r.createdBy a " +
+            "WHERE c.id = :cookbookId AND r.id > :afterId ORDER BY r.id")
+    List<RecipeSummaryDTO> findCookbookSummariesAfter(
+            @Param("cookbookId") Long cookbookId,
+            @Param("afterId") long afterId,
+            Pageable pageable
     );
 
+    @Query(SUMMARY_SELECT + "FROM Recipe r JOIN r.createdBy a WHERE r.id IN :ids")
+    List<RecipeSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r.id AS recipeId, t.name AS tagName FROM Recipe r JOIN r.tags t WHERE r.id IN :ids ORDER BY t.name")
+    List<RecipeTagView> findTagNames(@Param("ids") Collection<Long> ids);
+
+    String VERSION_SELECT = "SELECT r.id AS id, r.version AS version, r.favouriteCount AS favouriteCount, " +
+            "r.viewCount AS viewCount, a.version AS authorVersion ";
+
+    @Query(VERSION_SELECT + "FROM Recipe r JOIN r.createdBy a WHERE r.id = :id")
+    Optional<RecipeVersionView> findVersionById(@Param("id") Long id);
+
+    @Query(VERSION_SELECT + "FROM Recipe r JOIN r.createdBy a WHERE a.id = :userId ORDER BY r.id")
+    List<RecipeVersionView> findVersionsByCreatedById(@Param("userId") Long userId);
+
+    @Query(VERSION_SELECT + "FROM User u JOIN u.favoriteRecipes r JOIN r.createdBy a WHERE u.id = :userId ORDER BY r.id")
+    List<RecipeVersionView> findFavouriteVersions(@Param("userId") Long userId);
+
+    @Query(VERSION_SELECT + "FROM Cookbook c JOIN c.recipes r JOIN r.createdBy a WHERE c.id = :cookbookId ORDER BY r.id")
+    List<RecipeVersionView> findCookbookVersions(@Param("cookbookId") Long cookbookId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.sofia.recipeapp.dto.RecipeExportDTO(r.id, r.title, r.description, r.instructions, a.username) " +
+            "FROM Recipe r JOIN r.createdBy a ORDER BY r.id")
+    Stream<RecipeExportDTO> streamAllForExport();
+
+    @Query("SELECT ri.recipe.id AS recipeId, ri.id AS id, ri.ingredientName AS name, ri.quantity AS quantity " +
+            "FROM RecipeIngredient ri WHERE ri.recipe.id IN :ids ORDER BY ri.id")
+    List<RecipeIngredientView> findIngredients(@Param("ids") Collection<Long> ids);
+
+    String SHOPPING_ITEM_SELECT =
+            "SELECT ri.ingredientName AS name, ri.quantity AS quantity, ri.amount AS amount, ri.unit AS unit ";
+
+    @Query(SHOPPING_ITEM_SELECT + "FROM RecipeIngredient ri WHERE ri.recipe.id IN :ids ORDER BY ri.id")
+    List<ShoppingItemView> findShoppingItems(@Param("ids") Collection<Long> ids);
+
+    @Query(SHOPPING_ITEM_SELECT + "FROM Cookbook c JOIN c.recipes r JOIN r.recipeIngredients ri " +
+            "WHERE c.id = :cookbookId ORDER BY ri.id")
+    List<ShoppingItemView> findCookbookShoppingItems(@Param("cookbookId") Long cookbookId);
+
+    @Query("SELECT r.id AS recipeId, COUNT(u) AS count FROM Recipe r JOIN r.usersWhoFavorited u GROUP BY r.id")
+    List<RecipeCountView> countFavourites();
+
+    @Query("SELECT r.id AS recipeId, COUNT(u) AS count FROM Recipe r JOIN r.usersWhoFavorited u " +
+            "WHERE r.id IN :ids GROUP BY r.id")
+    List<RecipeCountView> countFavourites(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r.id AS recipeId, r.favouriteCount AS count FROM Recipe r WHERE r.favouriteCount <> 0")
+    List<RecipeCountView> findFavouriteCounts();
+
+    @Query("SELECT r.id AS recipeId, r.viewCount AS count FROM Recipe r WHERE r.viewCount <> 0")
+    List<RecipeCountView> findViewCounts();
+
     Optional<Recipe> findByTitle(String title);
 }
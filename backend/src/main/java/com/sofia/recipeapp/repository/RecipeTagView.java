@@ -0,0 +1,9 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * recipe id - tag name pair, used to attach tags to recipe summaries
+ */
+public interface RecipeTagView {
+    Long getRecipeId();
+    String getTagName();
+}
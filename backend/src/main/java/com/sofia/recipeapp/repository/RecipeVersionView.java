@@ -0,0 +1,13 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * what a recipe response is made of that can change - its version, counters and the version of its author
+ * used to build ETags without loading the recipe
+ */
+public interface RecipeVersionView {
+    Long getId();
+    Long getVersion();
+    Long getFavouriteCount();
+    Long getViewCount();
+    Long getAuthorVersion();
+}
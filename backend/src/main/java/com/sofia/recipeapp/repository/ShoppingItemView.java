@@ -0,0 +1,11 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * ingredient row with its parsed quantity, used by shopping lists
+ */
+public interface ShoppingItemView {
+    String getName();
+    String getQuantity();
+    Double getAmount();
+    String getUnit();
+}
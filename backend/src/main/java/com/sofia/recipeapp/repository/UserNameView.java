@@ -0,0 +1,9 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * user id - username pair, loads users without their profile images
+ */
+public interface UserNameView {
+    Long getId();
+    String getUsername();
+}
@@ -1,23 +1,58 @@
 package com.sofia.recipeapp.repository;
 
+import com.sofia.recipeapp.dto.UserExportDTO;
 import com.sofia.recipeapp.model.User;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.QueryHint;
+import org.springframework.transaction.annotation.Transactional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     Optional<User> findByUsername(String username);
 
+    @Query("SELECT u.id AS id, u.username AS username FROM User u")
+    List<UserNameView> findAllNames();
+
+    @Query("SELECT u.id AS id, u.username AS username FROM User u WHERE u.username IN :usernames")
+    List<UserNameView> findNamesByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.profileImageHash AS hash, u.profileImageType AS contentType FROM User u WHERE u.id = :id")
+    Optional<ProfileImageView> findProfileImageById(@Param("id") Long id);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
     @Modifying
     @Transactional
     @Query(value = "DELETE FROM user_favorite_recipes WHERE recipe_id = :recipeId", nativeQuery = true)
     void deleteRecipeFromFavorites(@Param("recipeId") Long recipeId);
 
+    @Query("SELECT r.id FROM User u JOIN u.favoriteRecipes r WHERE u.id = :userId")
+    List<Long> findAllFavouriteRecipeIds(@Param("userId") Long userId);
+
+    @Query("SELECT r.id FROM User u JOIN u.favoriteRecipes r WHERE u.id = :userId AND r.id IN :recipeIds")
+    List<Long> findFavouriteRecipeIds(@Param("userId") Long userId, @Param("recipeIds") Collection<Long> recipeIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RecipeRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.sofia.recipeapp.dto.UserExportDTO(u.id, u.username, u.role, u.bio) FROM User u ORDER BY u.id")
+    Stream<UserExportDTO> streamAllForExport();
+
 }
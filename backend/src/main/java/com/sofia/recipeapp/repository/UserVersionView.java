@@ -0,0 +1,9 @@
+package com.sofia.recipeapp.repository;
+
+/**
+ * user id with the version of the user
+ */
+public interface UserVersionView {
+    Long getId();
+    Long getVersion();
+}
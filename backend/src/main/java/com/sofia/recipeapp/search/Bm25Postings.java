@@ -0,0 +1,123 @@
+package com.sofia.recipeapp.search;
+
+import java.util.*;
+
+/**
+ * Postings of one text field with the statistics BM25 needs, shared by the full-text indexes.
+ * Documents are added with their terms already weighted (a title word counted 3x is frequency 3).
+ * A prefix token expands to at most MAX_PREFIX_EXPANSIONS terms, the ones found in the most documents,
+ * so a short prefix keeps its common completions instead of the first ones in alphabetical order.
+ * Not thread-safe, the owning index guards it with its lock.
+ */
+public final class Bm25Postings {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    // term -> (document id -> weighted term frequency)
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // document id -> terms, needed to remove or replace a document
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<Long, Integer> lengths = new HashMap<>();
+    private long totalLength;
+
+    /**
+     * adds a document or replaces its previous terms
+     * @param id document id
+     * @param terms term -> weighted frequency
+     */
+    public void add(Long id, Map<String, Integer> terms) {
+        remove(id);
+        terms.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+        int length = terms.values().stream().mapToInt(Integer::intValue).sum();
+        documents.put(id, terms);
+        lengths.put(id, length);
+        totalLength += length;
+    }
+
+    /**
+     * @param id document id, nothing happens when it isn't indexed
+     */
+    public void remove(Long id) {
+        Map<String, Integer> terms = documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= lengths.remove(id);
+    }
+
+    /**
+     * scores the documents containing every token
+     * @param tokens query tokens
+     * @param allPrefixes true to match every token as a prefix, false for just the last one (it may be partially typed)
+     * @return document id -> summed score, empty when a token matches nothing
+     */
+    public Map<Long, Double> match(List<String> tokens, boolean allPrefixes) {
+        double averageLength = documents.isEmpty() ? 1 : (double) totalLength / documents.size();
+        Map<Long, Double> scores = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean prefix = allPrefixes || i == tokens.size() - 1;
+            Map<Long, Double> tokenScores = score(tokens.get(i), prefix, averageLength);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores == null ? new HashMap<>() : scores;
+    }
+
+    /**
+     * scores every document containing the token, for a prefix token the best matching term counts
+     */
+    private Map<Long, Double> score(String token, boolean prefix, double averageLength) {
+        Map<Long, Double> tokenScores = new HashMap<>();
+        for (Map<Long, Integer> posting : prefix ? expand(token) : exact(token)) {
+            double idf = Math.log(1 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+            posting.forEach((id, frequency) -> {
+                double norm = K1 * (1 - B + B * lengths.get(id) / averageLength);
+                tokenScores.merge(id, idf * frequency * (K1 + 1) / (frequency + norm), Math::max);
+            });
+        }
+        return tokenScores;
+    }
+
+    private List<Map<Long, Integer>> exact(String token) {
+        Map<Long, Integer> posting = postings.get(token);
+        return posting == null ? List.of() : List.of(posting);
+    }
+
+    /**
+     * @return postings of the terms starting with the prefix, at most MAX_PREFIX_EXPANSIONS with the highest document frequency
+     */
+    private List<Map<Long, Integer>> expand(String prefix) {
+        SortedMap<String, Map<Long, Integer>> matches = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (matches.size() <= MAX_PREFIX_EXPANSIONS) {
+            return new ArrayList<>(matches.values());
+        }
+        PriorityQueue<Map<Long, Integer>> top = new PriorityQueue<>(Comparator.comparingInt(Map::size));
+        for (Map<Long, Integer> posting : matches.values()) {
+            if (top.size() < MAX_PREFIX_EXPANSIONS) {
+                top.add(posting);
+            } else if (posting.size() > top.peek().size()) {
+                top.poll();
+                top.add(posting);
+            }
+        }
+        return new ArrayList<>(top);
+    }
+}
@@ -0,0 +1,257 @@
+package com.sofia.recipeapp.search;
+
+import java.util.*;
+
+/**
+ * Compressed (radix) trie for weighted prefix completion.
+ * Every node keeps the best weight found in its subtree, so the top K completions of a prefix
+ * are collected best-first without visiting the rest of the subtree.
+ * An entry can be reachable by several keys (e.g. every word of a title), it is returned once.
+ * Not thread safe, callers synchronize.
+ */
+public class CompletionTrie {
+
+    public static final class Entry {
+        private final String text;
+        private final List<String> keys;
+        private long weight;
+
+        private Entry(String text, List<String> keys, long weight) {
+            this.text = text;
+            this.keys = keys;
+            this.weight = weight;
+        }
+
+        public String text() {
+            return text;
+        }
+
+        public long weight() {
+            return weight;
+        }
+    }
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(2);
+        private final List<Entry> entries = new ArrayList<>(1);
+        private long best;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private void updateBest() {
+            long max = 0;
+            for (Entry entry : entries) {
+                max = Math.max(max, entry.weight);
+            }
+            for (Node child : children.values()) {
+                max = Math.max(max, child.best);
+            }
+            best = max;
+        }
+    }
+
+    private final Node root = new Node("");
+    private int size;
+
+    /**
+     * adds an entry
+     * @param text text returned as the completion
+     * @param keys normalized keys the entry is found by
+     * @param weight popularity, higher comes first
+     * @return the entry, needed to change its weight or remove it
+     */
+    public Entry add(String text, Collection<String> keys, long weight) {
+        Entry entry = new Entry(text, List.copyOf(new LinkedHashSet<>(keys)), weight);
+        for (String key : entry.keys) {
+            List<Node> path = insertPath(key);
+            path.get(path.size() - 1).entries.add(entry);
+            updatePath(path);
+        }
+        size++;
+        return entry;
+    }
+
+    public void setWeight(Entry entry, long weight) {
+        entry.weight = weight;
+        for (String key : entry.keys) {
+            List<Node> path = findPath(key);
+            if (path != null) {
+                updatePath(path);
+            }
+        }
+    }
+
+    public void remove(Entry entry) {
+        for (String key : entry.keys) {
+            List<Node> path = findPath(key);
+            if (path == null) {
+                continue;
+            }
+            Node node = path.get(path.size() - 1);
+            node.entries.remove(entry);
+            compact(path);
+            updatePath(path);
+        }
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param prefix normalized prefix
+     * @param limit max number of completions
+     * @return entries with a key starting with the prefix, the heaviest first
+     */
+    public List<Entry> complete(String prefix, int limit) {
+        Node start = findPrefixNode(prefix);
+        if (start == null || limit <= 0) {
+            return List.of();
+        }
+
+        // nodes are queued by the best weight of their subtree, entries by their own weight,
+        // on a tie entries go first so they are returned without expanding more nodes
+        PriorityQueue<Object[]> queue = new PriorityQueue<>(Comparator
+                .comparingLong((Object[] item) -> (long) item[0]).reversed()
+                .thenComparing(item -> !(item[1] instanceof Entry)));
+        queue.add(new Object[]{start.best, start});
+        Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Entry> result = new ArrayList<>(limit);
+
+        while (!queue.isEmpty() && result.size() < limit) {
+            Object item = queue.poll()[1];
+            if (item instanceof Entry entry) {
+                if (seen.add(entry)) {
+                    result.add(entry);
+                }
+            } else {
+                Node node = (Node) item;
+                for (Entry entry : node.entries) {
+                    queue.add(new Object[]{entry.weight, entry});
+                }
+                for (Node child : node.children.values()) {
+                    queue.add(new Object[]{child.best, child});
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * walks down to the node of the key, splitting edges and adding nodes as needed
+     */
+    private List<Node> insertPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                path.add(child);
+                return path;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                split.updateBest();
+                node.children.put(split.label.charAt(0), split);
+                child = split;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+        return path;
+    }
+
+    /**
+     * @return nodes from the root to the node of the key, null when the key isn't in the trie
+     */
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children.get(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return null;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    /**
+     * @return the highest node whose subtree holds exactly the keys starting with the prefix
+     */
+    private Node findPrefixNode(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            node = node.children.get(prefix.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            int common = commonPrefix(node.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return node;
+            }
+            if (common < node.label.length()) {
+                return null;
+            }
+            i += common;
+        }
+        return node;
+    }
+
+    /**
+     * removes empty leaves and merges nodes left with a single child, bottom up along the path
+     */
+    private void compact(List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (!node.entries.isEmpty()) {
+                return;
+            }
+            if (node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+                path.remove(i);
+            } else if (node.children.size() == 1) {
+                Node child = node.children.values().iterator().next();
+                child.label = node.label + child.label;
+                parent.children.put(child.label.charAt(0), child);
+                path.remove(i);
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void updatePath(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            path.get(i).updateBest();
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+}
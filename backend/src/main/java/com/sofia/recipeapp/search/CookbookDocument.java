@@ -0,0 +1,32 @@
+package com.sofia.recipeapp.search;
+
+import com.sofia.recipeapp.model.Cookbook;
+import com.sofia.recipeapp.model.User;
+
+import java.util.List;
+
+/**
+ * Snapshot of the searchable parts of a cookbook.
+ */
+public record CookbookDocument(
+        Long id,
+        String title,
+        String description,
+        Long ownerId,
+        String ownerUsername,
+        List<Long> collaboratorIds,
+        List<String> collaboratorUsernames
+) {
+
+    public static CookbookDocument from(Cookbook cookbook) {
+        return new CookbookDocument(
+                cookbook.getId(),
+                cookbook.getTitle(),
+                cookbook.getDescription(),
+                cookbook.getOwner().getId(),
+                cookbook.getOwner().getUsername(),
+                cookbook.getCollaborators().stream().map(User::getId).toList(),
+                cookbook.getCollaborators().stream().map(User::getUsername).toList()
+        );
+    }
+}
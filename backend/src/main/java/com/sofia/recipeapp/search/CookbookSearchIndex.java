@@ -0,0 +1,229 @@
+package com.sofia.recipeapp.search;
+
+import com.sofia.recipeapp.event.CookbookChangedEvent;
+import com.sofia.recipeapp.event.UserChangedEvent;
+import com.sofia.recipeapp.repository.CookbookRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over cookbook title, description, owner username and collaborator usernames.
+ * Two fields are searched separately - text (title 3x, description 1x) and people (owner 2x, collaborators 1x).
+ * Every query token has to match the start of a word of its field, matches are ranked with BM25 summed over both fields.
+ * Usernames are denormalized into the cookbooks, a rename reindexes every cookbook of the user.
+ * 1. on startup loads all cookbooks in batches
+ * 2. afterwards applies {@link CookbookChangedEvent}s and username changes once their transaction commits
+ */
+@Component
+@RequiredArgsConstructor
+public class CookbookSearchIndex {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int OWNER_WEIGHT = 2;
+    private static final int COLLABORATOR_WEIGHT = 1;
+
+    private final CookbookRepository cookbookRepository;
+
+    private final Bm25Postings text = new Bm25Postings();
+    private final Bm25Postings people = new Bm25Postings();
+    private final NavigableMap<Long, CookbookDocument> documents = new TreeMap<>();
+    // user id -> cookbooks the user owns or collaborates on, to find the documents a rename changes
+    private final Map<Long, Set<Long>> memberships = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0;
+        int count = 0;
+        List<Long> ids;
+        while (!(ids = cookbookRepository.findIdsAfter(lastId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            cookbookRepository.findAllByIdIn(ids).stream().map(CookbookDocument::from).forEach(this::index);
+            lastId = ids.get(ids.size() - 1);
+            count += ids.size();
+        }
+        System.out.println("Cookbook search index built, " + count + " cookbooks indexed.");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCookbookChanged(CookbookChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.cookbookId());
+        } else {
+            index(event.document());
+        }
+    }
+
+    /**
+     * renamed users are renamed in all their cookbooks, cookbooks of a deleted user are gone with them
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.oldUsername() == null) {
+            // a new user has no cookbooks yet
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Set<Long> cookbookIds = memberships.get(event.userId());
+            if (cookbookIds == null) {
+                return;
+            }
+            for (Long cookbookId : List.copyOf(cookbookIds)) {
+                CookbookDocument document = documents.get(cookbookId);
+                if (event.newUsername() == null && event.userId().equals(document.ownerId())) {
+                    removeInternal(cookbookId);
+                } else {
+                    indexInternal(withUser(document, event.userId(), event.newUsername()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * adds or replaces a cookbook
+     * @param document cookbook snapshot
+     */
+    public void index(CookbookDocument document) {
+        lock.writeLock().lock();
+        try {
+            indexInternal(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param cookbookId id of the removed cookbook
+     */
+    public void remove(Long cookbookId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(cookbookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * finds cookbooks matching both queries, without any query all cookbooks match
+     * @param query words of the title or description, ignored when blank
+     * @param username words of the owners or a collaborators username, ignored when blank
+     * @param offset number of best matches skipped
+     * @param limit max number of ids returned
+     * @return cookbook ids ordered from the most relevant, the newest first when equally relevant
+     */
+    public List<Long> search(String query, String username, long offset, int limit) {
+        List<String> textTokens = TextAnalyzer.tokenize(query);
+        List<String> peopleTokens = TextAnalyzer.tokenize(username);
+
+        lock.readLock().lock();
+        try {
+            if (textTokens.isEmpty() && peopleTokens.isEmpty()) {
+                return documents.descendingKeySet().stream().skip(offset).limit(limit).toList();
+            }
+
+            Map<Long, Double> scores = null;
+            if (!textTokens.isEmpty()) {
+                scores = text.match(textTokens, true);
+            }
+            if (!peopleTokens.isEmpty()) {
+                Map<Long, Double> peopleScores = people.match(peopleTokens, true);
+                if (scores == null) {
+                    scores = peopleScores;
+                } else {
+                    scores.keySet().retainAll(peopleScores.keySet());
+                    scores.replaceAll((id, score) -> score + peopleScores.get(id));
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+                    .skip(offset)
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexInternal(CookbookDocument document) {
+        removeInternal(document.id());
+
+        Map<String, Integer> textTerms = new HashMap<>();
+        addTerms(textTerms, document.title(), TITLE_WEIGHT);
+        addTerms(textTerms, document.description(), DESCRIPTION_WEIGHT);
+
+        Map<String, Integer> peopleTerms = new HashMap<>();
+        addTerms(peopleTerms, document.ownerUsername(), OWNER_WEIGHT);
+        document.collaboratorUsernames().forEach(name -> addTerms(peopleTerms, name, COLLABORATOR_WEIGHT));
+
+        text.add(document.id(), textTerms);
+        people.add(document.id(), peopleTerms);
+        documents.put(document.id(), document);
+        memberships.computeIfAbsent(document.ownerId(), id -> new HashSet<>()).add(document.id());
+        document.collaboratorIds().forEach(userId ->
+                memberships.computeIfAbsent(userId, id -> new HashSet<>()).add(document.id()));
+    }
+
+    private void removeInternal(Long cookbookId) {
+        CookbookDocument document = documents.remove(cookbookId);
+        if (document == null) {
+            return;
+        }
+        text.remove(cookbookId);
+        people.remove(cookbookId);
+        removeMembership(document.ownerId(), cookbookId);
+        document.collaboratorIds().forEach(userId -> removeMembership(userId, cookbookId));
+    }
+
+    private void removeMembership(Long userId, Long cookbookId) {
+        Set<Long> cookbookIds = memberships.get(userId);
+        if (cookbookIds != null && cookbookIds.remove(cookbookId) && cookbookIds.isEmpty()) {
+            memberships.remove(userId);
+        }
+    }
+
+    /**
+     * @param username new username of the user, null drops the user from the collaborators
+     * @return copy of the document with the users name replaced
+     */
+    private static CookbookDocument withUser(CookbookDocument document, Long userId, String username) {
+        String ownerUsername = userId.equals(document.ownerId()) ? username : document.ownerUsername();
+        List<Long> collaboratorIds = new ArrayList<>();
+        List<String> collaboratorUsernames = new ArrayList<>();
+        for (int i = 0; i < document.collaboratorIds().size(); i++) {
+            Long collaboratorId = document.collaboratorIds().get(i);
+            if (!collaboratorId.equals(userId)) {
+                collaboratorIds.add(collaboratorId);
+                collaboratorUsernames.add(document.collaboratorUsernames().get(i));
+            } else if (username != null) {
+                collaboratorIds.add(collaboratorId);
+                collaboratorUsernames.add(username);
+            }
+        }
+        return new CookbookDocument(document.id(), document.title(), document.description(),
+                document.ownerId(), ownerUsername, collaboratorIds, collaboratorUsernames);
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : TextAnalyzer.tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.sofia.recipeapp.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Inverted full-text index over recipe title, description, instructions and ingredient names.
+ * Terms are case and diacritic folded, every query term has to match (the last one as a prefix,
+ * so partially typed words still hit) and matches are ranked with BM25.
+ * Fields are weighted by repeating their terms - title 3x, ingredients 2x, description and instructions 1x.
+ */
+@Component
+public class FullTextIndex implements RecipeIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int INGREDIENT_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int INSTRUCTIONS_WEIGHT = 1;
+
+    private final Bm25Postings postings = new Bm25Postings();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(RecipeDocument document) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, document.title(), TITLE_WEIGHT);
+        addTerms(terms, document.description(), DESCRIPTION_WEIGHT);
+        addTerms(terms, document.instructions(), INSTRUCTIONS_WEIGHT);
+        document.ingredientNames().forEach(name -> addTerms(terms, name, INGREDIENT_WEIGHT));
+
+        lock.writeLock().lock();
+        try {
+            postings.add(document.id(), terms);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            postings.remove(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * finds recipes matching all query terms
+     * @param query free text query
+     * @param limit max number of ids returned
+     * @return recipe ids ordered from the most relevant
+     */
+    public List<Long> search(String query, int limit) {
+        return search(query, limit, id -> true);
+    }
+
+    /**
+     * finds recipes matching all query terms and the filter
+     * @param query free text query
+     * @param limit max number of ids returned
+     * @param filter recipes the results are limited to
+     * @return recipe ids ordered from the most relevant
+     */
+    public List<Long> search(String query, int limit, LongPredicate filter) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            scores = postings.match(tokens, false);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        scores.keySet().removeIf(id -> !filter.test(id));
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : TextAnalyzer.tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+}
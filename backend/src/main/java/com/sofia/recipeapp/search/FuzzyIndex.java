@@ -0,0 +1,232 @@
+package com.sofia.recipeapp.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over the words of recipe titles and ingredient names, used to correct misspelled queries.
+ * A misspelled word is looked up by its trigrams, the rarest first. The walk over their posting lists stops
+ * after MAX_POSTINGS_VISITED words, and only the MAX_CANDIDATES words sharing the most trigrams get an edit distance
+ * computed, so a lookup stays bounded however many words share a common trigram like "$co".
+ */
+@Component
+public class FuzzyIndex implements RecipeIndex {
+
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int MAX_CANDIDATES = 64;
+    private static final int MAX_POSTINGS_VISITED = 10_000;
+
+    // word -> number of recipes using it
+    private final NavigableMap<String, Integer> words = new TreeMap<>();
+    // trigram -> words containing it
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    // recipe id -> words of the recipe
+    private final Map<Long, Set<String>> recipeWords = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Match(String word, int distance, int frequency) {
+    }
+
+    @Override
+    public void index(RecipeDocument document) {
+        Set<String> documentWords = new HashSet<>(TextAnalyzer.tokenize(document.title()));
+        document.ingredientNames().forEach(name -> documentWords.addAll(TextAnalyzer.tokenize(name)));
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            for (String word : documentWords) {
+                if (words.merge(word, 1, Integer::sum) == 1) {
+                    for (String trigram : trigramsOf(word)) {
+                        trigrams.computeIfAbsent(trigram, t -> new HashSet<>()).add(word);
+                    }
+                }
+            }
+            recipeWords.put(document.id(), documentWords);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * corrects every word of the query that no recipe contains
+     * the last word is kept when some word starts with it, full-text search matches it as a prefix
+     * @param query free text query
+     * @return corrected query, null when there is nothing to correct
+     */
+    public String correct(String query) {
+        List<String> tokens = TextAnalyzer.tokenize(query);
+        boolean corrected = false;
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean last = i == tokens.size() - 1;
+                if (words.containsKey(token) || (last && isPrefix(token))) {
+                    continue;
+                }
+                List<Match> matches = similarInternal(token, 1);
+                if (!matches.isEmpty()) {
+                    tokens.set(i, matches.get(0).word());
+                    corrected = true;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return corrected ? String.join(" ", tokens) : null;
+    }
+
+    /**
+     * finds known words close to the word
+     * @param word a word, normalized here
+     * @param limit max number of matches
+     * @return known words within the allowed edit distance, the closest and then the most used first
+     */
+    public List<Match> similar(String word, int limit) {
+        lock.readLock().lock();
+        try {
+            return similarInternal(TextAnalyzer.normalize(word).trim(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param word misspelled normalized word
+     * @param limit max number of matches
+     * @return known words within the allowed edit distance, the closest and then the most used first
+     */
+    private List<Match> similarInternal(String word, int limit) {
+        if (word.length() < MIN_WORD_LENGTH) {
+            return List.of();
+        }
+        int maxDistance = word.length() <= 4 ? 1 : 2;
+
+        // words sharing the most trigrams with the query word, within reach of the edit distance by length,
+        // rare trigrams tell the candidates apart best and are walked first
+        List<Set<String>> postings = new ArrayList<>();
+        for (String trigram : trigramsOf(word)) {
+            Set<String> posting = trigrams.get(trigram);
+            if (posting != null) {
+                postings.add(posting);
+            }
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Map<String, Integer> shared = new HashMap<>();
+        int budget = MAX_POSTINGS_VISITED;
+        for (int i = 0; i < postings.size() && budget > 0; i++) {
+            for (String candidate : postings.get(i)) {
+                if (budget-- == 0) {
+                    break;
+                }
+                if (Math.abs(candidate.length() - word.length()) <= maxDistance) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        List<String> candidates = shared.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .limit(MAX_CANDIDATES)
+                .map(Map.Entry::getKey)
+                .toList();
+
+        List<Match> matches = new ArrayList<>();
+        for (String candidate : candidates) {
+            int distance = editDistance(word, candidate, maxDistance);
+            if (distance <= maxDistance) {
+                matches.add(new Match(candidate, distance, words.get(candidate)));
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::distance)
+                .thenComparing(Comparator.comparingInt(Match::frequency).reversed())
+                .thenComparing(Match::word));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    private boolean isPrefix(String token) {
+        String next = words.ceilingKey(token);
+        return next != null && next.startsWith(token);
+    }
+
+    private void removeInternal(Long recipeId) {
+        Set<String> documentWords = recipeWords.remove(recipeId);
+        if (documentWords == null) {
+            return;
+        }
+        for (String word : documentWords) {
+            if (words.merge(word, -1, Integer::sum) == 0) {
+                words.remove(word);
+                for (String trigram : trigramsOf(word)) {
+                    Set<String> posting = trigrams.get(trigram);
+                    posting.remove(word);
+                    if (posting.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * trigrams of the word padded with '$' on both ends, so the start and the end of a word weigh more
+     */
+    private static Set<String> trigramsOf(String word) {
+        String padded = "$" + word + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Damerau-Levenshtein distance (adjacent swaps count as one edit)
+     * @return the distance, or max + 1 as soon as it is certain to be over max
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+}
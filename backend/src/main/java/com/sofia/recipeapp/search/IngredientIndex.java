@@ -0,0 +1,165 @@
+package com.sofia.recipeapp.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-ingredient posting lists for "cook with what I have" search.
+ * Every distinct normalized ingredient name keeps the ids of the recipes using it in a {@link RecipeIdSet},
+ * so the many rare ingredients cost a few bytes per recipe instead of a bitmap over all recipe ids each.
+ * A pantry item covers a recipe ingredient when all of its words appear in the ingredient name,
+ * so "salt" covers "sea salt" and "eggs" covers "egg".
+ */
+@Component
+public class IngredientIndex implements RecipeIndex {
+
+    // ingredient key -> recipe ids
+    private final Map<String, RecipeIdSet> postings = new HashMap<>();
+    // word -> ingredient keys containing it
+    private final Map<String, Set<String>> keysByWord = new HashMap<>();
+    // recipe id -> ingredient keys of the recipe
+    private final Map<Long, Set<String>> recipeKeys = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(RecipeDocument document) {
+        Set<String> keys = new HashSet<>();
+        for (String name : document.ingredientNames()) {
+            String key = key(name);
+            if (!key.isEmpty()) {
+                keys.add(key);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            if (keys.isEmpty()) {
+                return;
+            }
+            for (String key : keys) {
+                postings.computeIfAbsent(key, k -> {
+                    for (String word : k.split(" ")) {
+                        keysByWord.computeIfAbsent(word, w -> new HashSet<>()).add(k);
+                    }
+                    return new RecipeIdSet();
+                }).add(Math.toIntExact(document.id()));
+            }
+            recipeKeys.put(document.id(), keys);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * finds recipes that can be cooked (or nearly cooked) from the pantry
+     * @param pantry ingredient names the user has
+     * @param maxMissing max number of ingredients the recipe may miss
+     * @param limit max number of matches
+     * @return matches ordered by number of missing ingredients, then by number of used ingredients
+     */
+    public PantryResult search(Collection<String> pantry, int maxMissing, int limit) {
+        lock.readLock().lock();
+        try {
+            Set<String> coveredKeys = new HashSet<>();
+            for (String item : pantry) {
+                coveredKeys.addAll(keysCoveredBy(key(item)));
+            }
+
+            Map<Integer, Integer> matchedCounts = new HashMap<>();
+            for (String key : coveredKeys) {
+                postings.get(key).forEach(id -> matchedCounts.merge(id, 1, Integer::sum));
+            }
+
+            List<PantryMatch> matches = new ArrayList<>();
+            matchedCounts.forEach((id, matched) -> {
+                int total = recipeKeys.get((long) id).size();
+                if (total - matched <= maxMissing) {
+                    matches.add(new PantryMatch((long) id, matched, total));
+                }
+            });
+            matches.sort(Comparator.comparingInt(PantryMatch::missing)
+                    .thenComparing(Comparator.comparingInt(PantryMatch::matched).reversed())
+                    .thenComparing(Comparator.comparingLong(PantryMatch::recipeId).reversed()));
+
+            return new PantryResult(matches.subList(0, Math.min(limit, matches.size())), coveredKeys);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * normalized form of an ingredient name - folded, singular words separated by a single space
+     * @param name ingredient name
+     * @return ingredient key, empty when the name has no words
+     */
+    public static String key(String name) {
+        return String.join(" ", TextAnalyzer.tokenize(name).stream().map(TextAnalyzer::stem).toList());
+    }
+
+    /**
+     * ingredient keys containing every word of the pantry key
+     */
+    private Set<String> keysCoveredBy(String pantryKey) {
+        if (pantryKey.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> keys = null;
+        for (String word : pantryKey.split(" ")) {
+            Set<String> withWord = keysByWord.getOrDefault(word, Set.of());
+            if (keys == null) {
+                keys = new HashSet<>(withWord);
+            } else {
+                keys.retainAll(withWord);
+            }
+        }
+        return keys;
+    }
+
+    private void removeInternal(Long recipeId) {
+        Set<String> keys = recipeKeys.remove(recipeId);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            RecipeIdSet recipes = postings.get(key);
+            recipes.remove(Math.toIntExact(recipeId));
+            if (recipes.isEmpty()) {
+                postings.remove(key);
+                for (String word : key.split(" ")) {
+                    Set<String> withWord = keysByWord.get(word);
+                    withWord.remove(key);
+                    if (withWord.isEmpty()) {
+                        keysByWord.remove(word);
+                    }
+                }
+            }
+        }
+    }
+
+    public record PantryMatch(Long recipeId, int matched, int total) {
+        public int missing() {
+            return total - matched;
+        }
+    }
+
+    /**
+     * coveredKeys - ingredient keys covered by the pantry, used to list what is missing
+     */
+    public record PantryResult(List<PantryMatch> matches, Set<String> coveredKeys) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.sofia.recipeapp.search;
+
+import com.sofia.recipeapp.model.Recipe;
+import com.sofia.recipeapp.model.RecipeIngredient;
+import com.sofia.recipeapp.model.Tag;
+
+import java.util.List;
+
+/**
+ * Snapshot of the searchable parts of a recipe, detached from the persistence context
+ * so indexes can be updated after the transaction has committed.
+ */
+public record RecipeDocument(
+        Long id,
+        String title,
+        String description,
+        String instructions,
+        Long authorId,
+        String authorUsername,
+        List<String> ingredientNames,
+        List<String> tagNames
+) {
+
+    public static RecipeDocument from(Recipe recipe) {
+        return new RecipeDocument(
+                recipe.getId(),
+                recipe.getTitle(),
+                recipe.getDescription(),
+                recipe.getInstructions(),
+                recipe.getCreatedBy().getId(),
+                recipe.getCreatedBy().getUsername(),
+                recipe.getRecipeIngredients().stream().map(RecipeIngredient::getIngredientName).toList(),
+                recipe.getTags().stream().map(Tag::getName).toList()
+        );
+    }
+}
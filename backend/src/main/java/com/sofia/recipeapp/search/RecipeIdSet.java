@@ -0,0 +1,116 @@
+package com.sofia.recipeapp.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of recipe ids of one posting list, stored by how densely it covers the id range.
+ * A sparse set is a sorted int array (32 bits per id), a set holding more than 1/32 of the ids up to its largest
+ * is a bitmap (1 bit per id of that range), which is the smaller of the two from that density on.
+ * A bitmap turns back into an array below 1/64, so ids added and removed around the threshold don't convert it every time.
+ * Not thread-safe, the owning index guards it with its lock.
+ */
+final class RecipeIdSet {
+
+    private static final int MIN_DENSE_SIZE = 64;
+    private static final int INITIAL_CAPACITY = 4;
+
+    // exactly one of them is set
+    private int[] sorted = new int[INITIAL_CAPACITY];
+    private BitSet dense;
+    private int size;
+
+    void add(int id) {
+        if (dense != null) {
+            if (!dense.get(id)) {
+                dense.set(id);
+                size++;
+                if ((long) size * 64 < dense.length()) {
+                    toSparse();
+                }
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(sorted, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        if (size == sorted.length) {
+            sorted = Arrays.copyOf(sorted, size * 2);
+        }
+        System.arraycopy(sorted, index, sorted, index + 1, size - index);
+        sorted[index] = id;
+        size++;
+        if (size >= MIN_DENSE_SIZE && (long) size * 32 > sorted[size - 1] + 1L) {
+            toDense();
+        }
+    }
+
+    void remove(int id) {
+        if (dense != null) {
+            if (dense.get(id)) {
+                dense.clear(id);
+                size--;
+                if (size < MIN_DENSE_SIZE / 2 || (long) size * 64 < dense.length()) {
+                    toSparse();
+                }
+            }
+            return;
+        }
+        int index = Arrays.binarySearch(sorted, 0, size, id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(sorted, index + 1, sorted, index, size - index - 1);
+        size--;
+        if (sorted.length > INITIAL_CAPACITY && size < sorted.length / 4) {
+            sorted = Arrays.copyOf(sorted, Math.max(INITIAL_CAPACITY, sorted.length / 2));
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isDense() {
+        return dense != null;
+    }
+
+    /**
+     * @param action called with every id in ascending order
+     */
+    void forEach(IntConsumer action) {
+        if (dense != null) {
+            for (int id = dense.nextSetBit(0); id >= 0; id = dense.nextSetBit(id + 1)) {
+                action.accept(id);
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                action.accept(sorted[i]);
+            }
+        }
+    }
+
+    private void toDense() {
+        dense = new BitSet(sorted[size - 1] + 1);
+        for (int i = 0; i < size; i++) {
+            dense.set(sorted[i]);
+        }
+        sorted = null;
+    }
+
+    private void toSparse() {
+        sorted = new int[Math.max(INITIAL_CAPACITY, size * 2)];
+        int i = 0;
+        for (int id = dense.nextSetBit(0); id >= 0; id = dense.nextSetBit(id + 1)) {
+            sorted[i++] = id;
+        }
+        dense = null;
+    }
+}
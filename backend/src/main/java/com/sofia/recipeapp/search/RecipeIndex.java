@@ -0,0 +1,20 @@
+package com.sofia.recipeapp.search;
+
+/**
+ * In-memory structure derived from recipes.
+ * Implementations are kept current by {@link RecipeIndexer}.
+ */
+public interface RecipeIndex {
+
+    /**
+     * adds a recipe to the index or replaces its previous version
+     * @param document recipe snapshot
+     */
+    void index(RecipeDocument document);
+
+    /**
+     * removes a recipe from the index, does nothing when the recipe isn't indexed
+     * @param recipeId recipe id
+     */
+    void remove(Long recipeId);
+}
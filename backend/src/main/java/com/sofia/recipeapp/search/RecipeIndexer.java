@@ -0,0 +1,57 @@
+package com.sofia.recipeapp.search;
+
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Keeps all {@link RecipeIndex} beans in sync with the database.
+ * 1. on startup loads all recipes in pages and feeds them to every index
+ * 2. afterwards applies {@link RecipeChangedEvent}s once the publishing transaction commits,
+ *    before any other listener so caches invalidated by the same event can't be refilled from stale indexes
+ */
+@Component
+@RequiredArgsConstructor
+public class RecipeIndexer {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final RecipeRepository recipeRepository;
+    private final List<RecipeIndex> indexes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0;
+        int count = 0;
+        List<Long> ids;
+        while (!(ids = recipeRepository.findIdsAfter(lastId, PageRequest.of(0, BATCH_SIZE))).isEmpty()) {
+            for (RecipeDocument document : recipeRepository.findAllForIndexing(ids).stream().map(RecipeDocument::from).toList()) {
+                indexes.forEach(index -> index.index(document));
+            }
+            lastId = ids.get(ids.size() - 1);
+            count += ids.size();
+        }
+        System.out.println("Recipe indexes built, " + count + " recipes indexed.");
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        for (RecipeIndex index : indexes) {
+            if (event.isDeleted()) {
+                index.remove(event.recipeId());
+            } else {
+                index.index(event.document());
+            }
+        }
+    }
+}
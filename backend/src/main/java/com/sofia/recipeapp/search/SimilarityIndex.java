@@ -0,0 +1,210 @@
+package com.sofia.recipeapp.search;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Finds recipes with similar ingredients and tags without comparing every pair of recipes.
+ * Every recipe gets a MinHash signature of its feature set (normalized ingredient names and tags),
+ * the signature is cut into BANDS bands and recipes sharing a whole band land in the same bucket.
+ * Recipes sharing a bucket with the given one are candidates, they are ranked by the exact Jaccard similarity
+ * of the feature sets. With 16 bands of 4 rows a pair with similarity 0.5 shares a bucket with ~64% probability,
+ * a pair with 0.8 with ~100%.
+ */
+@Component
+public class SimilarityIndex implements RecipeIndex {
+
+    private static final int BANDS = 16;
+    private static final int ROWS = 4;
+    private static final int HASHES = BANDS * ROWS;
+    static final int MAX_CANDIDATES = 256;
+    private static final long[] SEEDS = new long[HASHES];
+
+    static {
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < HASHES; i++) {
+            seed = mix(seed + 0x9E3779B97F4A7C15L);
+            SEEDS[i] = seed;
+        }
+    }
+
+    public record Similar(Long recipeId, double similarity) {
+    }
+
+    private record Indexed(long[] features, long[] bandKeys) {
+    }
+
+    // band key -> recipes in the bucket
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+    private final Map<Long, Indexed> recipes = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(RecipeDocument document) {
+        long[] features = features(document);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            if (features.length == 0) {
+                return;
+            }
+            long[] bandKeys = bandKeys(signature(features));
+            for (long bandKey : bandKeys) {
+                buckets.computeIfAbsent(bandKey, k -> new HashSet<>()).add(document.id());
+            }
+            recipes.put(document.id(), new Indexed(features, bandKeys));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param recipeId recipe id
+     * @param limit max number of recipes
+     * @param minSimilarity min Jaccard similarity of ingredients and tags
+     * @return similar recipes, the most similar first
+     */
+    public List<Similar> similar(Long recipeId, int limit, double minSimilarity) {
+        lock.readLock().lock();
+        try {
+            Indexed recipe = recipes.get(recipeId);
+            if (recipe == null) {
+                return List.of();
+            }
+
+            Set<Long> candidates = new HashSet<>();
+            for (long bandKey : recipe.bandKeys()) {
+                for (Long candidate : buckets.get(bandKey)) {
+                    if (candidates.size() >= MAX_CANDIDATES) {
+                        break;
+                    }
+                    if (!candidate.equals(recipeId)) {
+                        candidates.add(candidate);
+                    }
+                }
+            }
+
+            List<Similar> result = new ArrayList<>();
+            for (Long candidate : candidates) {
+                double similarity = jaccard(recipe.features(), recipes.get(candidate).features());
+                if (similarity >= minSimilarity) {
+                    result.add(new Similar(candidate, similarity));
+                }
+            }
+            result.sort(Comparator.comparingDouble(Similar::similarity).reversed()
+                    .thenComparing(Similar::recipeId, Comparator.reverseOrder()));
+            return result.size() > limit ? result.subList(0, limit) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long recipeId) {
+        Indexed recipe = recipes.remove(recipeId);
+        if (recipe == null) {
+            return;
+        }
+        for (long bandKey : recipe.bandKeys()) {
+            Set<Long> bucket = buckets.get(bandKey);
+            bucket.remove(recipeId);
+            if (bucket.isEmpty()) {
+                buckets.remove(bandKey);
+            }
+        }
+    }
+
+    /**
+     * @return sorted distinct hashes of the ingredient keys and tags
+     */
+    private static long[] features(RecipeDocument document) {
+        Set<Long> hashes = new HashSet<>();
+        for (String name : document.ingredientNames()) {
+            String key = IngredientIndex.key(name);
+            if (!key.isEmpty()) {
+                hashes.add(hash("i:" + key));
+            }
+        }
+        for (String tag : document.tagNames()) {
+            hashes.add(hash("t:" + tag));
+        }
+        return hashes.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static long[] signature(long[] features) {
+        long[] signature = new long[HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long feature : features) {
+            for (int i = 0; i < HASHES; i++) {
+                signature[i] = Math.min(signature[i], mix(feature ^ SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    private static long[] bandKeys(long[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS; row++) {
+                key = mix(key * 31 + signature[band * ROWS + row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private static double jaccard(long[] a, long[] b) {
+        int i = 0;
+        int j = 0;
+        int shared = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes
+     */
+    private static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * splitmix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
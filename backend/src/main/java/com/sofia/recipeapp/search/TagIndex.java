@@ -0,0 +1,107 @@
+package com.sofia.recipeapp.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One bitmap of recipe ids per tag, multi-tag filters become bitmap AND / OR / AND NOT.
+ * Recipe ids are dense identity values, so a plain {@link BitSet} stays compact (one bit per id).
+ */
+@Component
+public class TagIndex implements RecipeIndex {
+
+    // tag -> recipe ids
+    private final Map<String, BitSet> byTag = new HashMap<>();
+    // recipe id -> tags of the recipe
+    private final Map<Long, Set<String>> recipeTags = new HashMap<>();
+    private final BitSet allRecipes = new BitSet();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void index(RecipeDocument document) {
+        Set<String> tags = new HashSet<>();
+        document.tagNames().forEach(name -> tags.add(key(name)));
+        int id = Math.toIntExact(document.id());
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            tags.forEach(tag -> byTag.computeIfAbsent(tag, t -> new BitSet()).set(id));
+            recipeTags.put(document.id(), tags);
+            allRecipes.set(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filters recipes by tags, empty or null collections don't filter
+     * @param allOf recipe has to have every one of these tags
+     * @param anyOf recipe has to have at least one of these tags
+     * @param noneOf recipe can't have any of these tags
+     * @return ids of matching recipes, a new bitmap the caller can modify
+     */
+    public BitSet filter(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) allRecipes.clone();
+
+            if (allOf != null) {
+                for (String tag : allOf) {
+                    result.and(byTag.getOrDefault(key(tag), new BitSet()));
+                }
+            }
+
+            if (anyOf != null && !anyOf.isEmpty()) {
+                BitSet any = new BitSet();
+                for (String tag : anyOf) {
+                    any.or(byTag.getOrDefault(key(tag), new BitSet()));
+                }
+                result.and(any);
+            }
+
+            if (noneOf != null) {
+                for (String tag : noneOf) {
+                    result.andNot(byTag.getOrDefault(key(tag), new BitSet()));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long recipeId) {
+        Set<String> tags = recipeTags.remove(recipeId);
+        if (tags == null) {
+            return;
+        }
+        int id = Math.toIntExact(recipeId);
+        for (String tag : tags) {
+            BitSet recipes = byTag.get(tag);
+            recipes.clear(id);
+            if (recipes.isEmpty()) {
+                byTag.remove(tag);
+            }
+        }
+        allRecipes.clear(id);
+    }
+
+    private static String key(String tagName) {
+        return TextAnalyzer.normalize(tagName).trim();
+    }
+}
@@ -0,0 +1,69 @@
+package com.sofia.recipeapp.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Text normalization shared by the in-memory search indexes.
+ * Folds case and diacritics ("Švestkový" -> "svestkovy") and splits text into word tokens.
+ */
+public final class TextAnalyzer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * lower-cases text and strips diacritics
+     * @param text text to normalize, may be null
+     * @return normalized text, empty for null
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * normalizes text and splits it into word tokens
+     * @param text text to tokenize, may be null
+     * @return list of tokens in original order
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * strips common English plural endings so "tomatoes" and "tomato" match
+     * @param token normalized token
+     * @return singular form of the token
+     */
+    public static String stem(String token) {
+        if (token.length() <= 3) {
+            return token;
+        }
+        if (token.endsWith("ies")) {
+            return token.substring(0, token.length() - 3) + "y";
+        }
+        if (token.endsWith("oes") || token.endsWith("ches") || token.endsWith("shes") || token.endsWith("xes") || token.endsWith("sses")) {
+            return token.substring(0, token.length() - 2);
+        }
+        if (token.endsWith("s") && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
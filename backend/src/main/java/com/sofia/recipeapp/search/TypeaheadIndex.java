@@ -0,0 +1,280 @@
+package com.sofia.recipeapp.search;
+
+import com.sofia.recipeapp.event.FavouriteChangedEvent;
+import com.sofia.recipeapp.event.UserChangedEvent;
+import com.sofia.recipeapp.repository.RecipeCountView;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import com.sofia.recipeapp.repository.UserNameView;
+import com.sofia.recipeapp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix completions for recipe titles, usernames and ingredient names, kept in {@link CompletionTrie}s.
+ * Titles and ingredients are found by the start of any of their words ("carb" -> "Spaghetti Carbonara").
+ * Weights:
+ * title - recipes with that title, each counting 1 + number of users who favourited it
+ * user - 1 + number of recipes the user wrote
+ * ingredient - number of recipes using it
+ */
+@Component
+@RequiredArgsConstructor
+public class TypeaheadIndex implements RecipeIndex {
+
+    public enum Kind { RECIPE, USER, INGREDIENT }
+
+    private static final int MAX_KEYS_PER_ENTRY = 8;
+
+    private final UserRepository userRepository;
+    private final RecipeRepository recipeRepository;
+
+    private final CompletionTrie titles = new CompletionTrie();
+    private final CompletionTrie users = new CompletionTrie();
+    private final CompletionTrie ingredients = new CompletionTrie();
+
+    // normalized title / ingredient -> trie entry and the recipes behind it
+    private final Map<String, Group> titleGroups = new HashMap<>();
+    private final Map<String, Group> ingredientGroups = new HashMap<>();
+    private final Map<Long, UserEntry> userEntries = new HashMap<>();
+    private final Map<Long, IndexedRecipe> recipes = new HashMap<>();
+    private final Map<Long, Integer> favourites = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static final class Group {
+        private final CompletionTrie.Entry entry;
+        private final Set<Long> recipeIds = new HashSet<>();
+
+        private Group(CompletionTrie.Entry entry) {
+            this.entry = entry;
+        }
+    }
+
+    private static final class UserEntry {
+        private CompletionTrie.Entry entry;
+        private int recipeCount;
+    }
+
+    private record IndexedRecipe(String titleKey, Long authorId, Set<String> ingredientKeys) {
+    }
+
+    /**
+     * loads all users (also those without recipes) and favourite counts, recipes come from the RecipeIndexer
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<UserNameView> names = userRepository.findAllNames();
+        List<RecipeCountView> counts = recipeRepository.countFavourites();
+
+        lock.writeLock().lock();
+        try {
+            names.forEach(user -> putUser(user.getId(), user.getUsername()));
+            for (RecipeCountView count : counts) {
+                favourites.put(count.getRecipeId(), Math.toIntExact(count.getCount()));
+                reweightTitle(count.getRecipeId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void index(RecipeDocument document) {
+        String titleKey = key(document.title());
+        Set<String> ingredientKeys = new HashSet<>();
+        for (String name : document.ingredientNames()) {
+            String key = key(name);
+            if (!key.isEmpty()) {
+                ingredientKeys.add(key);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+
+            if (!titleKey.isEmpty()) {
+                titleGroups.computeIfAbsent(titleKey, k -> new Group(titles.add(document.title().trim(), wordStarts(k), 0)))
+                        .recipeIds.add(document.id());
+            }
+            for (String key : ingredientKeys) {
+                Group group = ingredientGroups.computeIfAbsent(key, k -> new Group(ingredients.add(k, wordStarts(k), 0)));
+                group.recipeIds.add(document.id());
+                ingredients.setWeight(group.entry, group.recipeIds.size());
+            }
+            recipes.put(document.id(), new IndexedRecipe(titleKey, document.authorId(), ingredientKeys));
+            reweightTitle(document.id());
+
+            if (document.authorId() != null) {
+                if (!userEntries.containsKey(document.authorId())) {
+                    putUser(document.authorId(), document.authorUsername());
+                }
+                UserEntry user = userEntries.get(document.authorId());
+                user.recipeCount++;
+                users.setWeight(user.entry, 1 + user.recipeCount);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(recipeId);
+            favourites.remove(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param kind what to complete
+     * @param query typed text
+     * @param limit max number of completions
+     * @return completions, the most popular first
+     */
+    public List<CompletionTrie.Entry> complete(Kind kind, String query, int limit) {
+        String prefix = kind == Kind.USER ? TextAnalyzer.normalize(query).trim() : key(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return switch (kind) {
+                case RECIPE -> titles.complete(prefix, limit);
+                case USER -> users.complete(prefix, limit);
+                case INGREDIENT -> ingredients.complete(prefix, limit);
+            };
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.newUsername() == null) {
+                UserEntry user = userEntries.remove(event.userId());
+                if (user != null) {
+                    users.remove(user.entry);
+                }
+            } else {
+                putUser(event.userId(), event.newUsername());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFavouriteChanged(FavouriteChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            favourites.merge(event.recipeId(), event.added() ? 1 : -1, Integer::sum);
+            if (favourites.get(event.recipeId()) <= 0) {
+                favourites.remove(event.recipeId());
+            }
+            reweightTitle(event.recipeId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long recipeId) {
+        IndexedRecipe recipe = recipes.remove(recipeId);
+        if (recipe == null) {
+            return;
+        }
+
+        Group title = titleGroups.get(recipe.titleKey());
+        if (title != null) {
+            title.recipeIds.remove(recipeId);
+            if (title.recipeIds.isEmpty()) {
+                titles.remove(title.entry);
+                titleGroups.remove(recipe.titleKey());
+            } else {
+                titles.setWeight(title.entry, titleWeight(title));
+            }
+        }
+
+        for (String key : recipe.ingredientKeys()) {
+            Group group = ingredientGroups.get(key);
+            group.recipeIds.remove(recipeId);
+            if (group.recipeIds.isEmpty()) {
+                ingredients.remove(group.entry);
+                ingredientGroups.remove(key);
+            } else {
+                ingredients.setWeight(group.entry, group.recipeIds.size());
+            }
+        }
+
+        UserEntry author = userEntries.get(recipe.authorId());
+        if (author != null) {
+            author.recipeCount--;
+            users.setWeight(author.entry, 1 + author.recipeCount);
+        }
+    }
+
+    /**
+     * adds a user or renames it, keeping its recipe count
+     */
+    private void putUser(Long userId, String username) {
+        UserEntry user = userEntries.computeIfAbsent(userId, id -> new UserEntry());
+        if (user.entry != null) {
+            if (user.entry.text().equals(username)) {
+                return;
+            }
+            users.remove(user.entry);
+        }
+        user.entry = users.add(username, List.of(TextAnalyzer.normalize(username)), 1 + user.recipeCount);
+    }
+
+    private void reweightTitle(Long recipeId) {
+        IndexedRecipe recipe = recipes.get(recipeId);
+        if (recipe == null) {
+            return;
+        }
+        Group group = titleGroups.get(recipe.titleKey());
+        if (group != null) {
+            titles.setWeight(group.entry, titleWeight(group));
+        }
+    }
+
+    private long titleWeight(Group group) {
+        long weight = 0;
+        for (Long id : group.recipeIds) {
+            weight += 1 + favourites.getOrDefault(id, 0);
+        }
+        return weight;
+    }
+
+    /**
+     * @return normalized words joined by single spaces
+     */
+    private static String key(String text) {
+        return String.join(" ", TextAnalyzer.tokenize(text));
+    }
+
+    /**
+     * @return the key and its suffixes starting at a word - "spaghetti carbonara", "carbonara"
+     */
+    private static List<String> wordStarts(String key) {
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = key.indexOf(' '); i >= 0 && keys.size() < MAX_KEYS_PER_ENTRY; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,120 @@
+package com.sofia.recipeapp.services;
+
+import com.sofia.recipeapp.event.CookbookChangedEvent;
+import com.sofia.recipeapp.event.UserChangedEvent;
+import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.repository.CookbookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Answers who may edit a cookbook without loading it, its owner or its collaborators.
+ * The role of a user comes from one indexed query and is cached for app.permissions.ttl-seconds.
+ * Cookbook events (collaborator changes, deletion) and deleted users drop their entries, a role loaded
+ * while an invalidation happened is not cached.
+ */
+@Component
+public class CookbookPermissions {
+
+    public enum Role {
+        NONE, COLLABORATOR, OWNER;
+
+        public boolean canEdit() {
+            return this != NONE;
+        }
+    }
+
+    private record Key(Long cookbookId, Long userId) {
+    }
+
+    private record Entry(Role role, long expiresAt) {
+    }
+
+    private final CookbookRepository cookbookRepository;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<Key, Entry> entries;
+    private long generation;
+
+    public CookbookPermissions(
+            CookbookRepository cookbookRepository,
+            @Value("${app.permissions.max-entries:10000}") int maxEntries,
+            @Value("${app.permissions.ttl-seconds:30}") long ttlSeconds
+    ) {
+        this.cookbookRepository = cookbookRepository;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > CookbookPermissions.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param cookbookId cookbook id
+     * @param userId user id
+     * @return role of the user in the cookbook
+     * @throws ApiException cookbook not found (404)
+     */
+    public Role getRole(Long cookbookId, Long userId) throws ApiException {
+        Key key = new Key(cookbookId, userId);
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt() > System.currentTimeMillis()) {
+                return entry.role();
+            }
+            startGeneration = generation;
+        }
+
+        Role role = cookbookRepository.findMembership(cookbookId, userId)
+                .map(membership -> Role.values()[membership])
+                .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
+
+        synchronized (this) {
+            if (generation == startGeneration) {
+                entries.put(key, new Entry(role, System.currentTimeMillis() + ttlMillis));
+            }
+        }
+        return role;
+    }
+
+    /**
+     * @throws ApiException cookbook not found (404), the user is neither the owner nor a collaborator (403)
+     */
+    public void requireEditor(Long cookbookId, Long userId, String message) throws ApiException {
+        if (!getRole(cookbookId, userId).canEdit()) {
+            throw new ApiException(message, HttpStatus.FORBIDDEN);
+        }
+    }
+
+    /**
+     * @throws ApiException cookbook not found (404), the user isn't the owner (403)
+     */
+    public void requireOwner(Long cookbookId, Long userId, String message) throws ApiException {
+        if (getRole(cookbookId, userId) != Role.OWNER) {
+            throw new ApiException(message, HttpStatus.FORBIDDEN);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCookbookChanged(CookbookChangedEvent event) {
+        generation++;
+        entries.keySet().removeIf(key -> key.cookbookId().equals(event.cookbookId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onUserChanged(UserChangedEvent event) {
+        if (event.newUsername() == null) {
+            generation++;
+            entries.keySet().removeIf(key -> key.userId().equals(event.userId()));
+        }
+    }
+}
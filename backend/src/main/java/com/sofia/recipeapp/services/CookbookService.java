@@ -1,29 +1,57 @@
 package com.sofia.recipeapp.services;
 
+import com.sofia.recipeapp.cache.ETags;
+import com.sofia.recipeapp.cache.JsonFragment;
+import com.sofia.recipeapp.cache.JsonFragmentCache;
+import com.sofia.recipeapp.cache.VersionedJson;
+import com.sofia.recipeapp.dto.BatchItemResultDTO;
+import com.sofia.recipeapp.dto.CookbookBatchDTO;
+import com.sofia.recipeapp.dto.CookbookBatchResultDTO;
 import com.sofia.recipeapp.dto.CookbookDTO;
 import com.sofia.recipeapp.dto.CreateCookbookDTO;
+import com.sofia.recipeapp.dto.FeedPageDTO;
+import com.sofia.recipeapp.dto.RecipeDTO;
+import com.sofia.recipeapp.event.CookbookChangedEvent;
+import com.sofia.recipeapp.event.CookbookRecipesChangedEvent;
 import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.feed.DiscoveryFeed;
 import com.sofia.recipeapp.model.Cookbook;
 import com.sofia.recipeapp.model.Recipe;
 import com.sofia.recipeapp.model.User;
 import com.sofia.recipeapp.repository.CookbookRepository;
+import com.sofia.recipeapp.repository.CookbookVersionView;
 import com.sofia.recipeapp.repository.RecipeRepository;
+import com.sofia.recipeapp.repository.RecipeVersionView;
 import com.sofia.recipeapp.repository.UserRepository;
+import com.sofia.recipeapp.repository.UserVersionView;
+import com.sofia.recipeapp.search.CookbookDocument;
+import com.sofia.recipeapp.search.CookbookSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CookbookService {
 
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 500;
+
     private final CookbookRepository cookbookRepository;
     private final UserRepository userRepository;
     private final RecipeRepository recipeRepository;
+    private final CookbookSearchIndex cookbookSearchIndex;
+    private final JsonFragmentCache jsonFragmentCache;
+    private final FavouriteResolver favouriteResolver;
+    private final CookbookPermissions cookbookPermissions;
+    private final ApplicationEventPublisher eventPublisher;
 
     public CookbookDTO createCookbook(CreateCookbookDTO dto, Long ownerId){
         User owner = userRepository.findById(ownerId)
@@ -37,155 +65,357 @@ public class CookbookService {
         cookbook.setRecipes(new HashSet<>());
 
         Cookbook saved = cookbookRepository.save(cookbook);
+        eventPublisher.publishEvent(CookbookChangedEvent.saved(CookbookDocument.from(saved)));
 
-        return CookbookDTO.fromEntity(saved);
+        return CookbookDTO.fromEntity(saved, recipeId -> false);
     }
 
     public CookbookDTO updateCookbook(Long cookbookId, CreateCookbookDTO dto, Long userId){
+        cookbookPermissions.requireEditor(cookbookId, userId, "Unauthorized");
+
         Cookbook cookbook = cookbookRepository.findById(cookbookId)
                 .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
-
-        boolean isAuthorized = cookbook.getOwner().getId().equals(userId) ||
-                cookbook.getCollaborators().stream().anyMatch(u -> u.getId().equals(userId));
-
-        if (!isAuthorized) {
-            throw new ApiException("Unauthorized", HttpStatus.FORBIDDEN);
-        }
-
         cookbook.setTitle(dto.getTitle());
         cookbook.setDescription(dto.getDescription());
 
         Cookbook updated = cookbookRepository.save(cookbook);
+        eventPublisher.publishEvent(CookbookChangedEvent.saved(CookbookDocument.from(updated)));
 
-        return CookbookDTO.fromEntity(updated);
+        return toCookbookDTOs(List.of(updated), userId).get(0);
     }
 
     public void deleteCookbook(Long cookbookId, Long userId) {
+        cookbookPermissions.requireOwner(cookbookId, userId, "Only owner can delete cookbook");
+
         Cookbook cookbook = cookbookRepository.findById(cookbookId)
                 .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
 
-        if (!cookbook.getOwner().getId().equals(userId)) {
-            throw new ApiException("Only owner can delete cookbook", HttpStatus.FORBIDDEN);
-        }
-
         cookbookRepository.delete(cookbook);
+        eventPublisher.publishEvent(CookbookChangedEvent.deleted(cookbookId));
     }
 
 
-    public CookbookDTO getCookbook(Long cookbookId){
-        Cookbook cookbook = cookbookRepository.findById(cookbookId)
+    /**
+     * @param cookbookId cookbook id
+     * @return hash of everything the cookbook response is built from except the users favourite flags,
+     *         with the ids of the cookbooks recipes
+     * @throws ApiException cookbook not found (404)
+     */
+    private CookbookStamp getCookbookStamp(Long cookbookId) throws ApiException {
+        CookbookVersionView cookbook = cookbookRepository.findVersionById(cookbookId)
                 .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
+        List<RecipeVersionView> recipes = recipeRepository.findCookbookVersions(cookbookId);
 
-        return CookbookDTO.fromEntity(cookbook);
+        ETags stamp = ETags.of("cookbook").add(cookbookId).add(cookbook.getVersion()).add(cookbook.getOwnerVersion());
+        for (UserVersionView collaborator : cookbookRepository.findCollaboratorVersions(cookbookId)) {
+            stamp.add(collaborator.getId(), collaborator.getVersion());
+        }
+        for (RecipeVersionView recipe : recipes) {
+            stamp.add(recipe.getId(), recipe.getVersion(), recipe.getFavouriteCount(), recipe.getViewCount(), recipe.getAuthorVersion());
+        }
+        return new CookbookStamp(stamp.build(), recipes.stream().map(RecipeVersionView::getId).toList());
     }
 
-    public List<CookbookDTO> getAllCookbooks(){
-        return cookbookRepository.findAll().stream()
-                .map(CookbookDTO::fromEntity)
-                .toList();
+    private record CookbookStamp(String stamp, List<Long> recipeIds) {
     }
 
-    public void addRecipe(Long cookbookId, Long recipeId, Long userId){
-        Cookbook cookbook = cookbookRepository.findById(cookbookId)
-                .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
+    /**
+     * the ETag is built from the versions of the cookbook, its people and recipes, the stamp and the favourite flags
+     * are looked up once for both the ETag and the JSON
+     * the JSON is cached without favourite flags, only the flags of the user are looked up per request
+     * @param cookbookId cookbook id
+     * @param userId authenticated user id
+     * @return strong ETag of the cookbook as the user sees it and the serialized cookbook DTO
+     * @throws ApiException cookbook not found (404)
+     */
+    public VersionedJson getCookbookJson(Long cookbookId, Long userId) throws ApiException {
+        CookbookStamp stamp = getCookbookStamp(cookbookId);
+        FavouriteIds favourites = favouriteResolver.resolve(userId, stamp.recipeIds());
+
+        ETags eTag = ETags.of("cookbook").add(userId).add(stamp.stamp());
+        for (Long recipeId : stamp.recipeIds()) {
+            eTag.add(favourites.contains(recipeId));
+        }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
+        return new VersionedJson(eTag.build(), () -> {
+            JsonFragment fragment = jsonFragmentCache.get(JsonFragmentCache.Kind.COOKBOOK, cookbookId, stamp.stamp(), () -> {
+                Cookbook cookbook = cookbookRepository.findDetailById(cookbookId)
+                        .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
+                CookbookDTO dto = CookbookDTO.fromEntity(cookbook, recipeId -> false);
+                return jsonFragmentCache.serialize(dto, dto.getRecipes().stream().map(RecipeDTO::getId).toList());
+            });
+            return fragment.render(favourites::contains);
+        });
+    }
+
+    public List<CookbookDTO> getAllCookbooks(Long userId){
+        return toCookbookDTOs(cookbookRepository.findAllForList(), userId);
+    }
+
+    /**
+     * gets one page of the random cookbook discovery feed
+     * @param userId authenticated user id
+     * @param seed feed seed, a new one is generated when null
+     * @param cursor cursor from the previous page, null for the first page
+     * @param size page size, capped to DiscoveryFeed.MAX_PAGE_SIZE
+     * @return page of cookbooks with the seed and the next cursor
+     */
+    public FeedPageDTO<CookbookDTO> getFeed(Long userId, Long seed, String cursor, int size) {
+        long feedSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        DiscoveryFeed.FeedPage page = DiscoveryFeed.next(
+                feedSeed,
+                cursor,
+                size,
+                cookbookRepository::findMaxId,
+                cookbookRepository::findExistingIds
+        );
+
+        List<CookbookDTO> items = toCookbookDTOs(getCookbooksInOrder(page.ids()), userId);
+        return new FeedPageDTO<>(items, feedSeed, page.nextCursor());
+    }
+
+    /**
+     * CookbookDTOs for a list of cookbooks, favourite flags of all their recipes are resolved with one query
+     * @param cookbooks cookbooks
+     * @param userId authenticated user id
+     * @return DTOs in the order of the cookbooks
+     */
+    private List<CookbookDTO> toCookbookDTOs(List<Cookbook> cookbooks, Long userId) {
+        Set<Long> recipeIds = new HashSet<>();
+        cookbooks.forEach(cookbook -> cookbook.getRecipes().forEach(recipe -> recipeIds.add(recipe.getId())));
+        FavouriteIds favourites = favouriteResolver.resolve(userId, recipeIds);
+
+        return cookbooks.stream()
+                .map(cookbook -> CookbookDTO.fromEntity(cookbook, favourites::contains))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * loads cookbooks by ids keeping the order of the ids
+     * @param ids cookbook ids
+     * @return found cookbooks
+     */
+    private List<Cookbook> getCookbooksInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Cookbook> cookbooks = cookbookRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Cookbook::getId, Function.identity()));
+        return ids.stream().map(cookbooks::get).filter(Objects::nonNull).toList();
+    }
+
+    public void addRecipe(Long cookbookId, Long recipeId, Long userId){
+        cookbookPermissions.requireEditor(cookbookId, userId, "User is not allowed to edit this cookbook");
 
         Recipe recipe = recipeRepository.findById(recipeId)
                 .orElseThrow(() -> new ApiException("Recipe not found", HttpStatus.NOT_FOUND));
 
-        if (!cookbook.getOwner().getId().equals(userId) &&
-                cookbook.getCollaborators().stream().noneMatch(u -> u.getId().equals(userId))) {
-            throw new ApiException("User is not allowed to edit this cookbook", HttpStatus.FORBIDDEN);
-        }
+        Cookbook cookbook = cookbookRepository.findById(cookbookId)
+                .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
 
-        cookbook.getRecipes().add(recipe);
-        cookbookRepository.save(cookbook);
+        if (cookbook.getRecipes().add(recipe)) {
+            cookbookRepository.save(cookbook);
+            eventPublisher.publishEvent(new CookbookRecipesChangedEvent(cookbookId, List.of(recipeId), List.of()));
+        }
     }
 
     public void removeRecipe(Long cookbookId, Long recipeId, Long userId){
+        cookbookPermissions.requireEditor(cookbookId, userId, "User is not allowed to edit this cookbook");
+
         Cookbook cookbook = cookbookRepository.findById(cookbookId)
                 .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
-
-        if (!cookbook.getOwner().getId().equals(userId) &&
-                cookbook.getCollaborators().stream().noneMatch(u -> u.getId().equals(userId))) {
-            throw new ApiException("User is not allowed to edit this cookbook", HttpStatus.FORBIDDEN);
+        // recipes hash by id, the removal is a set lookup
+        Recipe recipe = recipeRepository.findById(recipeId).orElse(null);
+        if (recipe == null || !cookbook.getRecipes().remove(recipe)) {
+            throw new ApiException("Recipe not in cookbook", HttpStatus.NOT_FOUND);
         }
-
-        Recipe recipe = cookbook.getRecipes().stream()
-                .filter(r -> r.getId().equals(recipeId))
-                .findFirst()
-                .orElseThrow(() -> new ApiException("Recipe not in cookbook", HttpStatus.NOT_FOUND));
-
-        cookbook.getRecipes().remove(recipe);
         cookbookRepository.save(cookbook);
+        eventPublisher.publishEvent(new CookbookRecipesChangedEvent(cookbookId, List.of(), List.of(recipeId)));
     }
 
     public void addCollaborator(Long cookbookId, String username, Long ownerId) {
-        Cookbook cookbook = cookbookRepository.findById(cookbookId)
-                .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
-
-        if (!cookbook.getOwner().getId().equals(ownerId)) {
-            throw new ApiException("Only the owner can add collaborators", HttpStatus.FORBIDDEN);
-        }
+        cookbookPermissions.requireOwner(cookbookId, ownerId, "Only the owner can add collaborators");
 
         User userToAdd = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
 
-        if (!cookbook.getCollaborators().contains(userToAdd)) {
-            cookbook.getCollaborators().add(userToAdd);
+        Cookbook cookbook = cookbookRepository.findById(cookbookId)
+                .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
+
+        if (cookbook.getCollaborators().add(userToAdd)) {
             cookbookRepository.save(cookbook);
+            eventPublisher.publishEvent(CookbookChangedEvent.saved(CookbookDocument.from(cookbook)));
         }
     }
 
     public void removeCollaborator(Long cookbookId, String username, Long ownerId) {
+        cookbookPermissions.requireOwner(cookbookId, ownerId, "Only the owner can remove collaborators");
+
+        User collaborator = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
+
         Cookbook cookbook = cookbookRepository.findById(cookbookId)
                 .orElseThrow(() -> new ApiException("Cookbook not found", HttpStatus.NOT_FOUND));
 
-        if (!cookbook.getOwner().getId().equals(ownerId)) {
-            throw new ApiException("Only the owner can remove collaborators", HttpStatus.FORBIDDEN);
+        if (cookbook.getCollaborators().remove(collaborator)) {
+            cookbookRepository.save(cookbook);
+            eventPublisher.publishEvent(CookbookChangedEvent.saved(CookbookDocument.from(cookbook)));
         }
+    }
 
-        User collaborator = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
+    /**
+     * adds and removes many recipes and collaborators with one permission check
+     * the outcomes are decided against the current members, adds before removes, each list in its order,
+     * afterwards only the difference is written - one insert and one delete per join table
+     * @param cookbookId cookbook id
+     * @param dto items to add and remove, missing lists count as empty
+     * @param userId authenticated user id, has to be the owner when collaborators change, an editor otherwise
+     * @return outcome of every item
+     * @throws ApiException more than MAX_BATCH_SIZE items (400), not allowed (403), cookbook not found (404)
+     */
+    @Transactional
+    public CookbookBatchResultDTO applyBatch(Long cookbookId, CookbookBatchDTO dto, Long userId) throws ApiException {
+        List<Long> addRecipes = items(dto.getAddRecipes());
+        List<Long> removeRecipes = items(dto.getRemoveRecipes());
+        List<String> addCollaborators = items(dto.getAddCollaborators());
+        List<String> removeCollaborators = items(dto.getRemoveCollaborators());
+
+        if (addRecipes.size() + removeRecipes.size() + addCollaborators.size() + removeCollaborators.size() > MAX_BATCH_SIZE) {
+            throw new ApiException("At most " + MAX_BATCH_SIZE + " items per batch", HttpStatus.BAD_REQUEST);
+        }
+        if (addCollaborators.isEmpty() && removeCollaborators.isEmpty()) {
+            cookbookPermissions.requireEditor(cookbookId, userId, "User is not allowed to edit this cookbook");
+        } else {
+            cookbookPermissions.requireOwner(cookbookId, userId, "Only the owner can change collaborators");
+        }
 
-        if (cookbook.getCollaborators().contains(collaborator)) {
-            cookbook.getCollaborators().remove(collaborator);
-            cookbookRepository.save(cookbook);
+        Set<Long> recipeIds = new HashSet<>(addRecipes);
+        recipeIds.addAll(removeRecipes);
+        Set<Long> existingRecipeIds = new HashSet<>();
+        MembershipChanges recipes = new MembershipChanges(List.of());
+        if (!recipeIds.isEmpty()) {
+            existingRecipeIds.addAll(recipeRepository.findExistingIds(recipeIds));
+            recipes = new MembershipChanges(cookbookRepository.findRecipeIdsIn(cookbookId, recipeIds));
+        }
+        for (Long recipeId : addRecipes) {
+            recipes.add(String.valueOf(recipeId), existingRecipeIds.contains(recipeId) ? recipeId : null);
+        }
+        for (Long recipeId : removeRecipes) {
+            recipes.remove(String.valueOf(recipeId), existingRecipeIds.contains(recipeId) ? recipeId : null);
+        }
+
+        Set<String> usernames = new HashSet<>(addCollaborators);
+        usernames.addAll(removeCollaborators);
+        Map<String, Long> userIds = new HashMap<>();
+        MembershipChanges collaborators = new MembershipChanges(List.of());
+        if (!usernames.isEmpty()) {
+            userRepository.findNamesByUsernameIn(usernames).forEach(user -> userIds.put(user.getUsername(), user.getId()));
+            collaborators = new MembershipChanges(cookbookRepository.findCollaboratorIdsIn(cookbookId, userIds.values()));
+        }
+        for (String username : addCollaborators) {
+            collaborators.add(username, userIds.get(username));
+        }
+        for (String username : removeCollaborators) {
+            collaborators.remove(username, userIds.get(username));
+        }
+
+        if (!recipes.inserted().isEmpty()) {
+            cookbookRepository.insertRecipes(cookbookId, recipes.inserted());
+        }
+        if (!recipes.deleted().isEmpty()) {
+            cookbookRepository.deleteRecipes(cookbookId, recipes.deleted());
+        }
+        if (!recipes.inserted().isEmpty() || !recipes.deleted().isEmpty()) {
+            eventPublisher.publishEvent(new CookbookRecipesChangedEvent(cookbookId, recipes.inserted(), recipes.deleted()));
+        }
+        if (!collaborators.inserted().isEmpty()) {
+            cookbookRepository.insertCollaborators(cookbookId, collaborators.inserted());
+        }
+        if (!collaborators.deleted().isEmpty()) {
+            cookbookRepository.deleteCollaborators(cookbookId, collaborators.deleted());
         }
+        if (!collaborators.inserted().isEmpty() || !collaborators.deleted().isEmpty()) {
+            cookbookRepository.findAllByIdIn(List.of(cookbookId)).forEach(cookbook ->
+                    eventPublisher.publishEvent(CookbookChangedEvent.saved(CookbookDocument.from(cookbook))));
+        }
+
+        return new CookbookBatchResultDTO(recipes.results, collaborators.results);
     }
 
-    public List<CookbookDTO> getCookbooksForUser(Long id) {
-        return cookbookRepository.findAllByOwnerIdOrCollaborators_Id(id, id)
-                .stream()
-                .map(CookbookDTO::fromEntity)
-                .collect(Collectors.toList());
+    private static <T> List<T> items(List<T> items) {
+        return items == null ? List.of() : items.stream().filter(Objects::nonNull).toList();
     }
 
-    public List<CookbookDTO> getCookbooksByUser(Long userId) {
-        List<Cookbook> cookbooks = cookbookRepository.findAllByOwnerIdOrCollaborators_Id(userId, userId);
-        return cookbooks.stream()
-                .map(CookbookDTO::fromEntity)
-                .collect(Collectors.toList());
+    /**
+     * replays adds and removes on the members of a join table and keeps the outcome of every item
+     */
+    private static final class MembershipChanges {
+
+        private final Set<Long> initial;
+        private final Set<Long> members;
+        private final List<BatchItemResultDTO> results = new ArrayList<>();
+
+        private MembershipChanges(Collection<Long> initial) {
+            this.initial = new HashSet<>(initial);
+            this.members = new HashSet<>(initial);
+        }
+
+        /**
+         * @param id id of the item, null when it doesn't exist
+         */
+        private void add(String item, Long id) {
+            String status = id == null ? "not_found" : members.add(id) ? "added" : "unchanged";
+            results.add(new BatchItemResultDTO(item, "add", status));
+        }
+
+        private void remove(String item, Long id) {
+            String status = id == null ? "not_found" : members.remove(id) ? "removed" : "unchanged";
+            results.add(new BatchItemResultDTO(item, "remove", status));
+        }
+
+        private Set<Long> inserted() {
+            Set<Long> inserted = new HashSet<>(members);
+            inserted.removeAll(initial);
+            return inserted;
+        }
+
+        private Set<Long> deleted() {
+            Set<Long> deleted = new HashSet<>(initial);
+            deleted.removeAll(members);
+            return deleted;
+        }
     }
 
-    public List<CookbookDTO> searchCookbooks(String title, String username) {
+    public List<CookbookDTO> getCookbooksForUser(Long id) {
+        return toCookbookDTOs(cookbookRepository.findAllByOwnerIdOrCollaborators_Id(id, id), id);
+    }
 
-        String titleFilter = (title == null || title.isBlank()) ? null : title.trim();
-        String usernameFilter = (username == null || username.isBlank()) ? null : username.trim();
+    public List<CookbookDTO> getCookbooksByUser(Long userId, Long viewerId) {
+        List<Cookbook> cookbooks = cookbookRepository.findAllByOwnerIdOrCollaborators_Id(userId, userId);
+        return toCookbookDTOs(cookbooks, viewerId);
+    }
 
-        List<Cookbook> list = cookbookRepository.searchCookbooks(titleFilter, usernameFilter);
+    public List<CookbookDTO> searchCookbooks(String title, String username, int page, int size, Long userId) {
+        return toCookbookDTOs(getCookbooksInOrder(searchCookbookIds(title, username, page, size)), userId);
+    }
 
-        return list.stream()
-                .map(CookbookDTO::fromEntity)
-                .toList();
+    /**
+     * ranks cookbooks with the search index, only the requested page of ids is loaded afterwards
+     * @param title words of the title or description, ignored when blank
+     * @param username words of the owners or a collaborators username, ignored when blank
+     * @param page zero based page number
+     * @param size page size, capped to MAX_SEARCH_PAGE_SIZE
+     * @return ids of the matching cookbooks on the page, the most relevant first
+     * @throws ApiException negative page or non-positive size (400)
+     */
+    public List<Long> searchCookbookIds(String title, String username, int page, int size) throws ApiException {
+        if (page < 0 || size < 1) {
+            throw new ApiException("Invalid page", HttpStatus.BAD_REQUEST);
+        }
+        int pageSize = Math.min(size, MAX_SEARCH_PAGE_SIZE);
+        return cookbookSearchIndex.search(title, username, (long) page * pageSize, pageSize);
     }
 
 }
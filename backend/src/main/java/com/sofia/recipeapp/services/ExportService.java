@@ -0,0 +1,111 @@
+package com.sofia.recipeapp.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sofia.recipeapp.dto.IngredientDTO;
+import com.sofia.recipeapp.dto.RecipeExportDTO;
+import com.sofia.recipeapp.dto.UserExportDTO;
+import com.sofia.recipeapp.repository.RecipeIngredientView;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import com.sofia.recipeapp.repository.RecipeTagView;
+import com.sofia.recipeapp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Streams the catalog as NDJSON (one JSON object per line).
+ * Rows are read through a forward-only result with a JDBC fetch size and written in chunks,
+ * a chunk gets its ingredients and tags with one query each, so memory depends on the chunk size only.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final RecipeRepository recipeRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * writes all recipes with their ingredients and tags
+     * @param out response stream, not closed
+     * @throws IOException write error
+     */
+    @Transactional(readOnly = true)
+    public void exportRecipes(OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out);
+             Stream<RecipeExportDTO> recipes = recipeRepository.streamAllForExport()) {
+            List<RecipeExportDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+            Iterator<RecipeExportDTO> iterator = recipes.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                    writeRecipes(generator, chunk);
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * writes all users without passwords and profile images
+     * @param out response stream, not closed
+     * @throws IOException write error
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out);
+             Stream<UserExportDTO> users = userRepository.streamAllForExport()) {
+            Iterator<UserExportDTO> iterator = users.iterator();
+            for (int count = 1; iterator.hasNext(); count++) {
+                writeLine(generator, iterator.next());
+                if (count % CHUNK_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        }
+    }
+
+    private void writeRecipes(JsonGenerator generator, List<RecipeExportDTO> chunk) throws IOException {
+        Map<Long, RecipeExportDTO> byId = new HashMap<>();
+        chunk.forEach(recipe -> byId.put(recipe.getId(), recipe));
+
+        for (RecipeIngredientView ingredient : recipeRepository.findIngredients(byId.keySet())) {
+            byId.get(ingredient.getRecipeId()).getIngredients()
+                    .add(new IngredientDTO(ingredient.getId(), ingredient.getName(), ingredient.getQuantity()));
+        }
+        for (RecipeTagView tag : recipeRepository.findTagNames(byId.keySet())) {
+            byId.get(tag.getRecipeId()).getTags().add(tag.getTagName());
+        }
+
+        for (RecipeExportDTO recipe : chunk) {
+            writeLine(generator, recipe);
+        }
+        generator.flush();
+    }
+
+    private void writeLine(JsonGenerator generator, Object value) throws IOException {
+        lineWriter().writeValue(generator, value);
+        generator.writeRaw('\n');
+    }
+
+    private ObjectWriter lineWriter() {
+        return objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+}
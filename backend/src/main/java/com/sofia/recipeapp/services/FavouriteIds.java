@@ -0,0 +1,35 @@
+package com.sofia.recipeapp.services;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of favourite recipe ids kept as a sorted primitive array.
+ */
+public final class FavouriteIds {
+
+    private static final FavouriteIds EMPTY = new FavouriteIds(new long[0]);
+
+    private final long[] ids;
+
+    private FavouriteIds(long[] ids) {
+        this.ids = ids;
+    }
+
+    public static FavouriteIds empty() {
+        return EMPTY;
+    }
+
+    public static FavouriteIds of(Collection<Long> ids) {
+        long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        return sorted.length == 0 ? EMPTY : new FavouriteIds(sorted);
+    }
+
+    public boolean contains(long recipeId) {
+        return Arrays.binarySearch(ids, recipeId) >= 0;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+}
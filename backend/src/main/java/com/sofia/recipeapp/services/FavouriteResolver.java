@@ -0,0 +1,41 @@
+package com.sofia.recipeapp.services;
+
+import com.sofia.recipeapp.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Resolves the favourite flag for a page of recipes with one id-only query
+ * instead of initializing the users whole favourites collection.
+ */
+@Service
+@RequiredArgsConstructor
+public class FavouriteResolver {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+
+    /**
+     * gets which of the recipes the user has in favourites
+     * @param userId user id, null for no user
+     * @param recipeIds recipes shown to the user
+     * @return favourite recipe ids limited to the given recipes
+     */
+    public FavouriteIds resolve(Long userId, Collection<Long> recipeIds) {
+        if (userId == null || recipeIds.isEmpty()) {
+            return FavouriteIds.empty();
+        }
+
+        List<Long> ids = new ArrayList<>(recipeIds);
+        List<Long> favourites = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            favourites.addAll(userRepository.findFavouriteRecipeIds(userId, ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()))));
+        }
+        return FavouriteIds.of(favourites);
+    }
+}
@@ -0,0 +1,198 @@
+package com.sofia.recipeapp.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sofia.recipeapp.dto.ImportErrorDTO;
+import com.sofia.recipeapp.dto.ImportReportDTO;
+import com.sofia.recipeapp.dto.IngredientDTO;
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.importer.RecipeBatchWriter;
+import com.sofia.recipeapp.importer.RecipeRecord;
+import com.sofia.recipeapp.importer.RecipeRecordReader;
+import com.sofia.recipeapp.importer.RecipeRow;
+import com.sofia.recipeapp.model.Tag;
+import com.sofia.recipeapp.repository.TagRepository;
+import com.sofia.recipeapp.repository.UserRepository;
+import com.sofia.recipeapp.search.RecipeDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Bulk recipe import.
+ * Records are parsed one by one and written in batches of BATCH_SIZE, each batch in its own transaction,
+ * so a failure only rolls back its batch. A failed batch is retried row by row to find the broken records.
+ * Authors are looked up once per username, tags with one query per import,
+ * recipes of unknown authors are assigned to the importing admin.
+ */
+@Service
+@RequiredArgsConstructor
+public class RecipeImportService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int TITLE_LENGTH = 100;
+    private static final int COLUMN_LENGTH = 255;
+
+    private final RecipeBatchWriter batchWriter;
+    private final TagRepository tagRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * imports all recipes of the stream
+     * @param in import file
+     * @param format how records are delimited
+     * @param adminId importing admin, author of recipes whose author doesn't exist
+     * @param adminUsername importing admin username
+     * @return counts, errors of the first MAX_REPORTED_ERRORS failed records and throughput
+     */
+    public ImportReportDTO importRecipes(InputStream in, RecipeRecordReader.Format format, Long adminId, String adminUsername) {
+        ImportRun run = new ImportRun(adminId, adminUsername);
+        try {
+            new RecipeRecordReader(objectMapper, run).read(in, format);
+        } catch (IOException e) {
+            run.error(run.read + 1, null, "reading stopped: " + e.getMessage());
+        }
+        run.flush();
+
+        long durationMs = Math.max(1, (System.nanoTime() - run.startedAt) / 1_000_000);
+        double perSecond = Math.round(run.imported * 10_000.0 / durationMs) / 10.0;
+        System.out.println("Recipe import finished, " + run.imported + " imported, " + run.failed + " failed, " +
+                perSecond + " recipes/s.");
+        return new ImportReportDTO(run.read, run.imported, run.failed, run.errors, durationMs, perSecond);
+    }
+
+    private class ImportRun implements RecipeRecordReader.Handler {
+
+        private final long startedAt = System.nanoTime();
+        private final long adminId;
+        private final String adminUsername;
+        private final Map<String, Long> tagIds = new HashMap<>();
+        private final Map<String, Optional<Long>> authorIds = new HashMap<>();
+        private final List<RecipeRow> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+
+        private long read;
+        private long imported;
+        private long failed;
+
+        ImportRun(long adminId, String adminUsername) {
+            this.adminId = adminId;
+            this.adminUsername = adminUsername;
+            for (Tag tag : tagRepository.findAll()) {
+                tagIds.put(tag.getName().toLowerCase(Locale.ROOT), tag.getId());
+            }
+        }
+
+        @Override
+        public void record(RecipeRecord record) {
+            read++;
+            String problem = validate(record);
+            if (problem != null) {
+                error(record.number(), record.title(), problem);
+                return;
+            }
+
+            String description = record.description();
+            if (description != null && description.length() > COLUMN_LENGTH) {
+                description = description.substring(0, COLUMN_LENGTH);
+            }
+            Optional<Long> authorId = record.authorUsername() == null ? Optional.empty()
+                    : authorIds.computeIfAbsent(record.authorUsername(), userRepository::findIdByUsername);
+            List<Long> tags = record.tags().stream().map(tagIds::get).filter(Objects::nonNull).distinct().toList();
+
+            batch.add(new RecipeRow(record, description,
+                    authorId.orElse(adminId),
+                    authorId.isPresent() ? record.authorUsername() : adminUsername,
+                    tags));
+            if (batch.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void error(long number, String message) {
+            read++;
+            error(number, null, message);
+        }
+
+        void error(long number, String title, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportErrorDTO(number, title, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                write(batch);
+                imported += batch.size();
+            } catch (RuntimeException batchFailure) {
+                for (RecipeRow row : batch) {
+                    try {
+                        write(List.of(row));
+                        imported++;
+                    } catch (RuntimeException e) {
+                        error(row.record().number(), row.record().title(), rootMessage(e));
+                    }
+                }
+            }
+            batch.clear();
+        }
+
+        private void write(List<RecipeRow> rows) {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Long> ids = batchWriter.insert(rows);
+                for (int i = 0; i < rows.size(); i++) {
+                    eventPublisher.publishEvent(RecipeChangedEvent.saved(toDocument(ids.get(i), rows.get(i))));
+                }
+            });
+        }
+
+        private RecipeDocument toDocument(Long id, RecipeRow row) {
+            RecipeRecord record = row.record();
+            List<String> tagNames = record.tags().stream().filter(tagIds::containsKey).distinct().toList();
+            return new RecipeDocument(id, record.title(), row.description(), record.instructions(),
+                    row.authorId(), row.authorUsername(),
+                    record.ingredients().stream().map(IngredientDTO::getName).toList(),
+                    tagNames);
+        }
+    }
+
+    private static String validate(RecipeRecord record) {
+        if (record.title() == null || record.title().isBlank()) {
+            return "title is required";
+        }
+        if (record.title().length() > TITLE_LENGTH) {
+            return "title is longer than " + TITLE_LENGTH + " characters";
+        }
+        for (IngredientDTO ingredient : record.ingredients()) {
+            if (ingredient.getName() == null || ingredient.getName().isBlank()) {
+                return "ingredient without a name";
+            }
+            if (ingredient.getName().length() > COLUMN_LENGTH
+                    || (ingredient.getQuantity() != null && ingredient.getQuantity().length() > COLUMN_LENGTH)) {
+                return "ingredient longer than " + COLUMN_LENGTH + " characters";
+            }
+        }
+        return null;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+}
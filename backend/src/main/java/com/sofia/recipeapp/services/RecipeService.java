@@ -1,34 +1,70 @@
 package com.sofia.recipeapp.services;
 
+import com.sofia.recipeapp.cache.ETags;
+import com.sofia.recipeapp.cache.JsonFragment;
+import com.sofia.recipeapp.cache.JsonFragmentCache;
+import com.sofia.recipeapp.cache.RecipeSearchKey;
+import com.sofia.recipeapp.cache.SearchResultCache;
+import com.sofia.recipeapp.cache.VersionedJson;
+import com.sofia.recipeapp.counter.ViewCounters;
+import com.sofia.recipeapp.dto.FeedPageDTO;
 import com.sofia.recipeapp.dto.IngredientDTO;
+import com.sofia.recipeapp.dto.PantryMatchDTO;
 import com.sofia.recipeapp.dto.RecipeAdminDTO;
 import com.sofia.recipeapp.dto.RecipeDTO;
+import com.sofia.recipeapp.dto.RecipePatchDTO;
+import com.sofia.recipeapp.dto.RecipeSearchResultDTO;
+import com.sofia.recipeapp.event.FavouriteChangedEvent;
+import com.sofia.recipeapp.event.RecipeChangedEvent;
 import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.feed.DiscoveryFeed;
 import com.sofia.recipeapp.model.Recipe;
 import com.sofia.recipeapp.model.RecipeIngredient;
 import com.sofia.recipeapp.model.Tag;
 import com.sofia.recipeapp.model.User;
 import com.sofia.recipeapp.repository.RecipeRepository;
+import com.sofia.recipeapp.repository.RecipeVersionView;
 import com.sofia.recipeapp.repository.TagRepository;
 import com.sofia.recipeapp.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.sofia.recipeapp.search.FullTextIndex;
+import com.sofia.recipeapp.search.FuzzyIndex;
+import com.sofia.recipeapp.search.IngredientIndex;
+import com.sofia.recipeapp.search.RecipeDocument;
+import com.sofia.recipeapp.search.TagIndex;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RecipeService {
 
+    public enum SearchSort { RELEVANCE, VIEWS }
+
     private final UserRepository userRepository;
     private final RecipeRepository recipeRepository;
     private final TagRepository tagRepository;
+    private final FullTextIndex fullTextIndex;
+    private final FuzzyIndex fuzzyIndex;
+    private final IngredientIndex ingredientIndex;
+    private final TagIndex tagIndex;
+    private final SearchResultCache searchResultCache;
+    private final FavouriteResolver favouriteResolver;
+    private final ViewCounters viewCounters;
+    private final JsonFragmentCache jsonFragmentCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.search.max-results:100}")
+    private int maxSearchResults;
 
     /**
      * adds a recipe to user favourite recipes
@@ -40,6 +76,7 @@ public class RecipeService {
         if (!user.getFavoriteRecipes().contains(recipe)) {
             user.getFavoriteRecipes().add(recipe);
             userRepository.save(user);
+            eventPublisher.publishEvent(new FavouriteChangedEvent(recipeId, user.getId(), true));
         }
     }
 
@@ -54,6 +91,7 @@ public class RecipeService {
         if (user.getFavoriteRecipes().contains(recipe)) {
             user.getFavoriteRecipes().remove(recipe);
             userRepository.save(user);
+            eventPublisher.publishEvent(new FavouriteChangedEvent(recipeId, user.getId(), false));
         }
     }
 
@@ -82,7 +120,8 @@ public class RecipeService {
         Set<Tag> tags = tagRepository.findAllByNameIn(recipeDTO.getTags());
         recipe.setTags(tags);
 
-        recipeRepository.save(recipe);
+        Recipe saved = recipeRepository.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.saved(RecipeDocument.from(saved)));
     }
 
 
@@ -97,35 +136,239 @@ public class RecipeService {
                 .orElseThrow(() -> new ApiException("Recipe not found", HttpStatus.NOT_FOUND));
     }
 
-    public List<RecipeDTO> search(User user, String username, String title, List<String> tags) {
+    /**
+     * Searches recipes
+     * 1. tag filters pick candidate ids from the tag index
+     * 2. author filter narrows the candidates down by the ids of the authors recipes
+     * 3. with a title - candidates are ranked with the full-text index, otherwise the newest come first
+     * 4. only the top hits are loaded from DB
+     * When a title finds nothing, misspelled words are corrected with the fuzzy index and the corrected query is used.
+     * Sorted by views, the title hits are reordered by their view counts and without a title
+     * the most viewed of all matching recipes are returned. View counts change all the time, so that order isn't cached.
+     * @param user authenticated user
+     * @param username author name filter
+     * @param title full-text query
+     * @param tags tags the recipe has to have
+     * @param anyTags recipe has to have at least one of these tags
+     * @param excludedTags tags the recipe can't have
+     * @param sort relevance or views, relevance when null
+     * @return matching recipes in the sort order, with the corrected query when it was used
+     * @throws ApiException unknown sort (400)
+     */
+    public RecipeSearchResultDTO search(User user, String username, String title, List<String> tags,
+                                        List<String> anyTags, List<String> excludedTags, String sort) throws ApiException {
+        SearchSort searchSort = parseSort(sort);
+        boolean hasTitle = title != null && !title.isBlank();
+
+        if (searchSort == SearchSort.VIEWS && !hasTitle) {
+            List<Long> mostViewed = mostViewed(candidates(username, tags, anyTags, excludedTags));
+            return new RecipeSearchResultDTO(toRecipeDTOs(getRecipesInOrder(mostViewed), user), null);
+        }
+
+        List<Long> rankedIds = searchCached(username, title, tags, anyTags, excludedTags);
+        String didYouMean = null;
+
+        if (rankedIds.isEmpty() && hasTitle) {
+            String corrected = fuzzyIndex.correct(title);
+            if (corrected != null) {
+                rankedIds = searchCached(username, corrected, tags, anyTags, excludedTags);
+                didYouMean = rankedIds.isEmpty() ? null : corrected;
+            }
+        }
+
+        if (searchSort == SearchSort.VIEWS) {
+            // stable sort, equally viewed hits keep their relevance order
+            rankedIds = new ArrayList<>(rankedIds);
+            rankedIds.sort(Comparator.comparingLong(viewCounters::get).reversed());
+        }
+
+        return new RecipeSearchResultDTO(toRecipeDTOs(getRecipesInOrder(rankedIds), user), didYouMean);
+    }
+
+    private static SearchSort parseSort(String sort) throws ApiException {
+        if (sort == null || sort.isBlank()) {
+            return SearchSort.RELEVANCE;
+        }
+        try {
+            return SearchSort.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Unknown sort " + sort, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * @param candidates ids of matching recipes
+     * @return up to maxSearchResults of the candidates, the most viewed first, then the newest
+     */
+    private List<Long> mostViewed(BitSet candidates) {
+        Comparator<long[]> order = Comparator.<long[]>comparingLong(entry -> entry[1]).thenComparingLong(entry -> entry[0]);
+        PriorityQueue<long[]> top = new PriorityQueue<>(order);
+        for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+            top.add(new long[]{id, viewCounters.get((long) id)});
+            if (top.size() > maxSearchResults) {
+                top.poll();
+            }
+        }
+        List<long[]> sorted = new ArrayList<>(top);
+        sorted.sort(order.reversed());
+        return sorted.stream().map(entry -> entry[0]).toList();
+    }
 
-        List<Recipe> recipes = recipeRepository.search(
-                username != null && !username.isBlank() ? username : null,
-                title != null && !title.isBlank() ? title : null,
-                tags != null && !tags.isEmpty() ? tags : null,
-                tags != null && !tags.isEmpty() ? tags.size() : 0
+    private List<Long> searchCached(String username, String title, List<String> tags,
+                                    List<String> anyTags, List<String> excludedTags) {
+        return searchResultCache.getRecipes(
+                RecipeSearchKey.of(username, title, tags, anyTags, excludedTags),
+                () -> searchIds(username, title, tags, anyTags, excludedTags)
         );
-        return recipes.stream().map(recipe -> RecipeDTO.GetRecipeDTO(recipe, user)).collect(Collectors.toList());
+    }
 
+    private List<Long> searchIds(String username, String title, List<String> tags,
+                                 List<String> anyTags, List<String> excludedTags) {
+        BitSet candidates = candidates(username, tags, anyTags, excludedTags);
+
+        if (title != null && !title.isBlank()) {
+            return fullTextIndex.search(title, maxSearchResults, id -> candidates.get(Math.toIntExact(id)));
+        }
+
+        List<Long> newestIds = new ArrayList<>();
+        for (int id = candidates.previousSetBit(candidates.length()); id >= 0 && newestIds.size() < maxSearchResults;
+             id = candidates.previousSetBit(id - 1)) {
+            newestIds.add((long) id);
+        }
+        return newestIds;
+    }
+
+    /**
+     * @return ids of recipes passing the tag and author filters
+     */
+    private BitSet candidates(String username, List<String> tags, List<String> anyTags, List<String> excludedTags) {
+        BitSet candidates = tagIndex.filter(tags, anyTags, excludedTags);
+
+        if (username != null && !username.isBlank()) {
+            BitSet authored = new BitSet();
+            recipeRepository.findIdsByCreatedByUsernameLike(username.trim())
+                    .forEach(id -> authored.set(Math.toIntExact(id)));
+            candidates.and(authored);
+        }
+        return candidates;
+    }
+
+    /**
+     * Finds recipes that can be cooked from the given ingredients
+     * fully makeable recipes come first, then recipes missing one, two, ... ingredients
+     * @param user authenticated user
+     * @param pantry ingredients the user has
+     * @param maxMissing max number of missing ingredients
+     * @param limit max number of recipes
+     * @return matching recipes with the ingredients they are missing
+     */
+    public List<PantryMatchDTO> searchByPantry(User user, List<String> pantry, int maxMissing, int limit) {
+        IngredientIndex.PantryResult result = ingredientIndex.search(pantry, Math.max(0, maxMissing),
+                Math.max(1, Math.min(limit, maxSearchResults)));
+
+        Map<Long, Recipe> recipes = getRecipesInOrder(result.matches().stream().map(IngredientIndex.PantryMatch::recipeId).toList())
+                .stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+
+        FavouriteIds favourites = favouriteResolver.resolve(user.getId(), recipes.keySet());
+        List<PantryMatchDTO> matches = new ArrayList<>();
+        for (IngredientIndex.PantryMatch match : result.matches()) {
+            Recipe recipe = recipes.get(match.recipeId());
+            if (recipe == null) {
+                continue;
+            }
+            List<String> missing = recipe.getRecipeIngredients().stream()
+                    .map(RecipeIngredient::getIngredientName)
+                    .filter(name -> !result.coveredKeys().contains(IngredientIndex.key(name)))
+                    .toList();
+            matches.add(new PantryMatchDTO(RecipeDTO.GetRecipeDTO(recipe, favourites.contains(recipe.getId())), match.matched(), match.total(), missing));
+        }
+        return matches;
+    }
+
+    /**
+     * RecipeDTOs for a list of recipes, favourite flags of the whole list are resolved with one query
+     * view counts include views not flushed yet
+     * @param recipes recipes
+     * @param user authenticated user
+     * @return DTOs in the order of the recipes
+     */
+    private List<RecipeDTO> toRecipeDTOs(List<Recipe> recipes, User user) {
+        FavouriteIds favourites = favouriteResolver.resolve(user.getId(), recipes.stream().map(Recipe::getId).toList());
+        return recipes.stream()
+                .map(recipe -> {
+                    RecipeDTO dto = RecipeDTO.GetRecipeDTO(recipe, favourites.contains(recipe.getId()));
+                    dto.setViewCount(viewCounters.get(recipe.getId()));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * loads recipes by ids keeping the order of the ids
+     * @param ids recipe ids
+     * @return found recipes
+     */
+    private List<Recipe> getRecipesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Recipe> recipes = recipeRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        return ids.stream().map(recipes::get).filter(Objects::nonNull).toList();
     }
 
     /**
-     * Gets a recipe by id
-     * only if the recipe was created by a specific user
      * @param id recipe id
-     * @return recipe DTO
-     * @throws ApiException when the recipe isn't created by specified user (403)
-     *                      or when recipe doesn't exist (404)
+     * @return hash of everything the recipe response is built from, except the users favourite flag
+     * @throws ApiException recipe not found (404)
      */
-    public RecipeDTO getRecipeDTOById(Long id, Long userId) throws ApiException {
-        Recipe recipe = recipeRepository.findById(id)
+    private String getRecipeStamp(Long id) throws ApiException {
+        RecipeVersionView recipe = recipeRepository.findVersionById(id)
                 .orElseThrow(() -> new ApiException(
                         "Recipe not found with id " + id,
                         HttpStatus.NOT_FOUND
                 ));
-        User authUser = userRepository.getReferenceById(userId);
+        return ETags.of("recipe")
+                .add(recipe.getId(), recipe.getVersion(), recipe.getFavouriteCount(), recipe.getViewCount(), recipe.getAuthorVersion())
+                .build();
+    }
+
+    /**
+     * counts a view of the recipe, also when the client already had it
+     * @param id recipe id
+     */
+    public void countView(Long id) {
+        viewCounters.increment(id);
+    }
 
-        return RecipeDTO.GetRecipeDTO(recipe, authUser);
+    /**
+     * Gets a recipe by id
+     * the ETag is built from versions and counters without loading the recipe, the stamp and the favourite flag
+     * are looked up once for both the ETag and the JSON
+     * the JSON is cached without the favourite flag, only the flag of the user is looked up per request
+     * the view count is the stored one, so it only changes when the ETag does
+     * @param id recipe id
+     * @param userId authenticated user id
+     * @return strong ETag of the recipe as the user sees it and the serialized recipe DTO
+     * @throws ApiException when recipe doesn't exist (404)
+     */
+    public VersionedJson getRecipeJson(Long id, Long userId) throws ApiException {
+        String stamp = getRecipeStamp(id);
+        FavouriteIds favourites = favouriteResolver.resolve(userId, List.of(id));
+        String eTag = ETags.of("recipe").add(userId).add(stamp).add(favourites.contains(id)).build();
+
+        return new VersionedJson(eTag, () -> {
+            JsonFragment fragment = jsonFragmentCache.get(JsonFragmentCache.Kind.RECIPE, id, stamp, () -> {
+                Recipe recipe = recipeRepository.findDetailById(id)
+                        .orElseThrow(() -> new ApiException(
+                                "Recipe not found with id " + id,
+                                HttpStatus.NOT_FOUND
+                        ));
+                return jsonFragmentCache.serialize(RecipeDTO.GetRecipeDTO(recipe, false), List.of(id));
+            });
+            return fragment.render(favourites::contains);
+        });
     }
 
     /**
@@ -149,6 +392,7 @@ public class RecipeService {
 
         userRepository.deleteRecipeFromFavorites(id);
         recipeRepository.deleteById(id);
+        eventPublisher.publishEvent(RecipeChangedEvent.deleted(id));
     }
 
     /**
@@ -156,71 +400,147 @@ public class RecipeService {
      * 1. find the recipe
      * 2. update title, description and instructions
      * 3. update ingredients
-     *  - update existing ingredients
-     *  - add new ingredients
-     *  - set ingredient
-     *  - add to list of updated
-     *  - remove ingredients not in updated
-     *  - add ingredients from updated
-     * @param updatedRecipe updated recipe
+     *  - existing ingredients are looked up by id and updated
+     *  - ingredients without a known id are added
+     *  - ingredients not in the update are removed
+     * @param updatedRecipe updated recipe, with a version the update fails when the recipe changed since
      * @param username updating user name
-     * @throws ResponseStatusException when the recipe isn't created by specified user
+     * @throws ApiException when the recipe isn't created by specified user (403)
+     *                      or the recipe was changed since the version (409)
      */
     @Transactional
-    public void updateRecipe(RecipeDTO updatedRecipe, String username) throws ResponseStatusException {
-        Recipe recipe = recipeRepository.findById(updatedRecipe.getId())
-                .orElseThrow(() -> new ApiException(
-                        "Recipe not found with id " + updatedRecipe.getId(),
-                        HttpStatus.NOT_FOUND
-                ));
-
-        if (!(recipe.getCreatedBy().getUsername().equals(username))) {
-            throw new ApiException("This recipe wasn't created by this user", HttpStatus.FORBIDDEN);
-        }
+    public void updateRecipe(RecipeDTO updatedRecipe, String username) throws ApiException {
+        Recipe recipe = getEditableRecipe(updatedRecipe.getId(), username, updatedRecipe.getVersion());
 
+        recipe.setUpdatedAt(Instant.now());
         recipe.setTitle(updatedRecipe.getTitle());
         recipe.setDescription(updatedRecipe.getDescription());
         recipe.setInstructions(updatedRecipe.getInstructions());
 
+        Map<Long, RecipeIngredient> existing = ingredientsById(recipe);
         List<RecipeIngredient> updatedIngredients = new ArrayList<>();
-
         for (IngredientDTO dto : updatedRecipe.getIngredients()) {
-            RecipeIngredient ingredient = null;
-
-            if (dto.getId() != null) {
-                ingredient = recipe.getRecipeIngredients().stream()
-                        .filter(i -> dto.getId().equals(i.getId()))
-                        .findFirst()
-                        .orElse(null);
-            }
-
+            RecipeIngredient ingredient = dto.getId() == null ? null : existing.remove(dto.getId());
             if (ingredient == null) {
                 ingredient = new RecipeIngredient();
                 ingredient.setRecipe(recipe);
             }
-
             ingredient.setIngredientName(dto.getName());
             ingredient.setQuantity(dto.getQuantity());
-
             updatedIngredients.add(ingredient);
         }
 
-        recipe.getRecipeIngredients().removeIf(existing ->
-                updatedIngredients.stream()
-                        .noneMatch(updated -> existing.getId() != null &&
-                                existing.getId().equals(updated.getId()))
-        );
-
-        for (RecipeIngredient updated : updatedIngredients) {
-            if (!recipe.getRecipeIngredients().contains(updated)) {
-                recipe.getRecipeIngredients().add(updated);
-            }
-        }
+        // whatever is left in existing wasn't in the update
+        recipe.getRecipeIngredients().clear();
+        recipe.getRecipeIngredients().addAll(updatedIngredients);
 
         Set<Tag> tags = tagRepository.findAllByNameIn(updatedRecipe.getTags());
         recipe.setTags(tags);
 
         recipeRepository.save(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.saved(RecipeDocument.from(recipe)));
+    }
+
+    /**
+     * Applies only the changed fields and ingredients to a recipe
+     * changed and removed ingredients are looked up by id in a map, so a patch costs O(changes + ingredients)
+     * @param id recipe id
+     * @param patch changes and the version they were made on
+     * @param user updating user
+     * @return updated recipe with its new version
+     * @throws ApiException missing version or unknown ingredient id (400), not the author (403),
+     *                      recipe not found (404), recipe changed since the version (409)
+     */
+    @Transactional
+    public RecipeDTO patchRecipe(Long id, RecipePatchDTO patch, User user) throws ApiException {
+        if (patch.getVersion() == null) {
+            throw new ApiException("Recipe version is required", HttpStatus.BAD_REQUEST);
+        }
+        Recipe recipe = getEditableRecipe(id, user.getUsername(), patch.getVersion());
+        recipe.setUpdatedAt(Instant.now());
+
+        if (patch.getTitle() != null) {
+            recipe.setTitle(patch.getTitle());
+        }
+        if (patch.getDescription() != null) {
+            recipe.setDescription(patch.getDescription());
+        }
+        if (patch.getInstructions() != null) {
+            recipe.setInstructions(patch.getInstructions());
+        }
+        if (patch.getTags() != null) {
+            recipe.setTags(tagRepository.findAllByNameIn(patch.getTags()));
+        }
+
+        Map<Long, RecipeIngredient> existing = ingredientsById(recipe);
+        if (patch.getRemovedIngredientIds() != null && !patch.getRemovedIngredientIds().isEmpty()) {
+            Set<Long> removed = new HashSet<>(patch.getRemovedIngredientIds());
+            if (!existing.keySet().containsAll(removed)) {
+                throw new ApiException("Unknown ingredient id", HttpStatus.BAD_REQUEST);
+            }
+            recipe.getRecipeIngredients().removeIf(ingredient -> removed.contains(ingredient.getId()));
+        }
+        if (patch.getIngredients() != null) {
+            for (IngredientDTO dto : patch.getIngredients()) {
+                if (dto.getId() == null) {
+                    RecipeIngredient ingredient = new RecipeIngredient();
+                    ingredient.setRecipe(recipe);
+                    ingredient.setIngredientName(dto.getName());
+                    ingredient.setQuantity(dto.getQuantity());
+                    recipe.getRecipeIngredients().add(ingredient);
+                    continue;
+                }
+                RecipeIngredient ingredient = existing.get(dto.getId());
+                if (ingredient == null) {
+                    throw new ApiException("Unknown ingredient id " + dto.getId(), HttpStatus.BAD_REQUEST);
+                }
+                if (dto.getName() != null) {
+                    ingredient.setIngredientName(dto.getName());
+                }
+                if (dto.getQuantity() != null) {
+                    ingredient.setQuantity(dto.getQuantity());
+                }
+            }
+        }
+
+        // flushed here so the new version is known, a concurrent update fails with 409
+        Recipe saved = recipeRepository.saveAndFlush(recipe);
+        eventPublisher.publishEvent(RecipeChangedEvent.saved(RecipeDocument.from(saved)));
+        boolean favourite = favouriteResolver.resolve(user.getId(), List.of(id)).contains(id);
+        return RecipeDTO.GetRecipeDTO(saved, favourite);
+    }
+
+    /**
+     * @param id recipe id
+     * @param username updating user name
+     * @param version version the changes were made on, null to skip the check
+     * @return recipe with its ingredients
+     * @throws ApiException recipe not found (404), not the author (403), recipe changed since the version (409)
+     */
+    private Recipe getEditableRecipe(Long id, String username, Long version) throws ApiException {
+        Recipe recipe = recipeRepository.findDetailById(id)
+                .orElseThrow(() -> new ApiException(
+                        "Recipe not found with id " + id,
+                        HttpStatus.NOT_FOUND
+                ));
+
+        if (!(recipe.getCreatedBy().getUsername().equals(username))) {
+            throw new ApiException("This recipe wasn't created by this user", HttpStatus.FORBIDDEN);
+        }
+        if (version != null && version != recipe.getVersion()) {
+            throw new ApiException("The recipe was changed by someone else, reload it and try again", HttpStatus.CONFLICT);
+        }
+        return recipe;
+    }
+
+    private static Map<Long, RecipeIngredient> ingredientsById(Recipe recipe) {
+        Map<Long, RecipeIngredient> byId = new HashMap<>();
+        for (RecipeIngredient ingredient : recipe.getRecipeIngredients()) {
+            if (ingredient.getId() != null) {
+                byId.put(ingredient.getId(), ingredient);
+            }
+        }
+        return byId;
     }
 
     public void deleteRecipeAsAdmin(Long id) {
@@ -229,17 +549,38 @@ public class RecipeService {
 
         userRepository.deleteRecipeFromFavorites(id);
         recipeRepository.deleteById(id);
+        eventPublisher.publishEvent(RecipeChangedEvent.deleted(id));
     }
 
 
     public List<RecipeDTO> getAllRecipesForUser(User user) {
-        return recipeRepository.findAll().stream()
-                .map(recipe -> RecipeDTO.GetRecipeDTO(recipe, user))
-                .toList();
+        return toRecipeDTOs(recipeRepository.findAllForList(), user);
+    }
+
+    /**
+     * gets one page of the random discovery feed
+     * @param user authenticated user
+     * @param seed feed seed, a new one is generated when null
+     * @param cursor cursor from the previous page, null for the first page
+     * @param size page size, capped to DiscoveryFeed.MAX_PAGE_SIZE
+     * @return page of recipes with the seed and the next cursor
+     */
+    public FeedPageDTO<RecipeDTO> getFeed(User user, Long seed, String cursor, int size) {
+        long feedSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        DiscoveryFeed.FeedPage page = DiscoveryFeed.next(
+                feedSeed,
+                cursor,
+                size,
+                recipeRepository::findMaxId,
+                recipeRepository::findExistingIds
+        );
+
+        List<RecipeDTO> recipes = toRecipeDTOs(getRecipesInOrder(page.ids()), user);
+        return new FeedPageDTO<>(recipes, feedSeed, page.nextCursor());
     }
 
     public List<RecipeAdminDTO> getAllRecipesAsAdmin() {
-        return recipeRepository.findAll().stream()
+        return recipeRepository.findAllForAdmin().stream()
                 .map(r -> new RecipeAdminDTO(
                         r.getId(),
                         r.getTitle(),
@@ -251,10 +592,14 @@ public class RecipeService {
                 .collect(Collectors.toList());
     }
 
-    public List<RecipeDTO> getRecipesByUser(User user) {
-        return recipeRepository.findByCreatedByUsername(user.getUsername()).stream()
-                .map(recipe -> RecipeDTO.GetRecipeDTO(recipe, user))
-                .toList();
+    /**
+     * gets recipes created by a user
+     * @param author recipes author
+     * @param viewer authenticated user, favourite flags are resolved for this user
+     * @return authors recipes
+     */
+    public List<RecipeDTO> getRecipesByUser(User author, User viewer) {
+        return toRecipeDTOs(recipeRepository.findByCreatedByUsername(author.getUsername()), viewer);
     }
 }
 
@@ -0,0 +1,125 @@
+package com.sofia.recipeapp.services;
+
+import com.sofia.recipeapp.dto.ShoppingListItemDTO;
+import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.repository.CookbookRepository;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import com.sofia.recipeapp.repository.ShoppingItemView;
+import com.sofia.recipeapp.search.IngredientIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Shopping lists summed from the amounts and units parsed when the ingredients were saved.
+ * Ingredients with the same normalized name and canonical unit are one line, quantities without an amount
+ * are listed as written.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShoppingListService {
+
+    public static final int MAX_RECIPES = 100;
+    public static final int MAX_SCALE = 100;
+
+    private final RecipeRepository recipeRepository;
+    private final CookbookRepository cookbookRepository;
+
+    private static final class Line {
+        private final String name;
+        private final String unit;
+        private double amount;
+        private boolean hasAmount;
+        private final List<String> quantities = new ArrayList<>();
+
+        private Line(String name, String unit) {
+            this.name = name;
+            this.unit = unit;
+        }
+    }
+
+    /**
+     * @param cookbookId cookbook id
+     * @param scale every amount is multiplied by it, 2 for twice the servings
+     * @return shopping list for all recipes of the cookbook, sorted by name
+     * @throws ApiException cookbook not found (404), scale out of range (400)
+     */
+    public List<ShoppingListItemDTO> getCookbookShoppingList(Long cookbookId, double scale) throws ApiException {
+        validateScale(scale);
+        if (!cookbookRepository.existsById(cookbookId)) {
+            throw new ApiException("Cookbook not found", HttpStatus.NOT_FOUND);
+        }
+        return aggregate(recipeRepository.findCookbookShoppingItems(cookbookId), scale);
+    }
+
+    /**
+     * @param recipeIds recipe ids, ids of missing recipes are skipped
+     * @param scale every amount is multiplied by it, 2 for twice the servings
+     * @return shopping list for the recipes, sorted by name
+     * @throws ApiException no ids or more than MAX_RECIPES, scale out of range (400)
+     */
+    public List<ShoppingListItemDTO> getShoppingList(List<Long> recipeIds, double scale) throws ApiException {
+        validateScale(scale);
+        Set<Long> ids = new HashSet<>(recipeIds);
+        if (ids.isEmpty()) {
+            throw new ApiException("At least one recipe id is required", HttpStatus.BAD_REQUEST);
+        }
+        if (ids.size() > MAX_RECIPES) {
+            throw new ApiException("At most " + MAX_RECIPES + " recipes are allowed", HttpStatus.BAD_REQUEST);
+        }
+        return aggregate(recipeRepository.findShoppingItems(ids), scale);
+    }
+
+    private static void validateScale(double scale) throws ApiException {
+        if (!(scale > 0 && scale <= MAX_SCALE)) {
+            throw new ApiException("Scale has to be more than 0 and at most " + MAX_SCALE, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * one pass over the ingredient rows, nothing is parsed here
+     */
+    private static List<ShoppingListItemDTO> aggregate(List<ShoppingItemView> items, double scale) {
+        Map<String, Line> lines = new HashMap<>();
+        for (ShoppingItemView item : items) {
+            String name = item.getName() == null ? "" : item.getName().trim();
+            String key = IngredientIndex.key(name);
+            if (key.isEmpty()) {
+                key = name.toLowerCase(Locale.ROOT);
+            }
+            String unit = item.getAmount() == null ? null : item.getUnit();
+
+            Line line = lines.computeIfAbsent(key + '\u0000' + unit, k -> new Line(name, unit));
+            if (item.getAmount() != null) {
+                line.amount += item.getAmount() * scale;
+                line.hasAmount = true;
+            } else if (item.getQuantity() != null && !item.getQuantity().isBlank()) {
+                line.quantities.add(item.getQuantity().trim());
+            }
+        }
+
+        return lines.values().stream()
+                .sorted(Comparator.comparing((Line line) -> line.name.toLowerCase(Locale.ROOT))
+                        .thenComparing(line -> line.unit, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(ShoppingListService::toDTO)
+                .toList();
+    }
+
+    /**
+     * large amounts of grams and millilitres are shown in kilograms and litres
+     */
+    private static ShoppingListItemDTO toDTO(Line line) {
+        if (!line.hasAmount) {
+            return new ShoppingListItemDTO(line.name, null, null, line.quantities);
+        }
+        double amount = line.amount;
+        String unit = line.unit;
+        if (amount >= 1000 && ("g".equals(unit) || "ml".equals(unit))) {
+            amount /= 1000;
+            unit = "g".equals(unit) ? "kg" : "l";
+        }
+        return new ShoppingListItemDTO(line.name, Math.round(amount * 100) / 100.0, unit, line.quantities);
+    }
+}
@@ -0,0 +1,74 @@
+package com.sofia.recipeapp.services;
+
+import com.sofia.recipeapp.dto.FuzzyMatchDTO;
+import com.sofia.recipeapp.dto.SuggestionDTO;
+import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.search.FuzzyIndex;
+import com.sofia.recipeapp.search.TextAnalyzer;
+import com.sofia.recipeapp.search.TypeaheadIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+public class SuggestionService {
+
+    public static final int MAX_LIMIT = 20;
+
+    private final TypeaheadIndex typeaheadIndex;
+    private final FuzzyIndex fuzzyIndex;
+
+    /**
+     * completes typed text
+     * @param query typed text
+     * @param types recipe, user and/or ingredient, all of them when empty
+     * @param limit max number of suggestions per type
+     * @return suggestions grouped by type in the order of types, the most popular first
+     * @throws ApiException unknown type (400)
+     */
+    public List<SuggestionDTO> suggest(String query, List<String> types, int limit) throws ApiException {
+        List<TypeaheadIndex.Kind> kinds = new ArrayList<>();
+        if (types == null || types.isEmpty()) {
+            kinds.addAll(List.of(TypeaheadIndex.Kind.values()));
+        } else {
+            for (String type : types) {
+                try {
+                    kinds.add(TypeaheadIndex.Kind.valueOf(type.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new ApiException("Unknown suggestion type " + type, HttpStatus.BAD_REQUEST);
+                }
+            }
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<SuggestionDTO> suggestions = new ArrayList<>();
+        for (TypeaheadIndex.Kind kind : kinds) {
+            String type = kind.name().toLowerCase(Locale.ROOT);
+            typeaheadIndex.complete(kind, query, size)
+                    .forEach(entry -> suggestions.add(new SuggestionDTO(entry.text(), type, entry.weight())));
+        }
+        return suggestions;
+    }
+
+    /**
+     * words of recipe titles and ingredients close to a possibly misspelled word
+     * @param word one word
+     * @param limit max number of matches
+     * @return matches, the fewest edits away first and the most used first among them
+     * @throws ApiException the text isn't a single word (400)
+     */
+    public List<FuzzyMatchDTO> similarWords(String word, int limit) throws ApiException {
+        List<String> tokens = TextAnalyzer.tokenize(word);
+        if (tokens.size() != 1) {
+            throw new ApiException("Expected a single word", HttpStatus.BAD_REQUEST);
+        }
+        return fuzzyIndex.similar(tokens.get(0), Math.max(1, Math.min(limit, MAX_LIMIT))).stream()
+                .map(match -> new FuzzyMatchDTO(match.word(), match.distance(), match.frequency()))
+                .toList();
+    }
+}
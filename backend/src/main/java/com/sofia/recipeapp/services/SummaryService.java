@@ -0,0 +1,295 @@
+package com.sofia.recipeapp.services;
+
+import com.sofia.recipeapp.cache.ETags;
+import com.sofia.recipeapp.counter.FavouriteCounters;
+import com.sofia.recipeapp.dto.CookbookSummaryDTO;
+import com.sofia.recipeapp.dto.CursorPageDTO;
+import com.sofia.recipeapp.dto.FeedPageDTO;
+import com.sofia.recipeapp.dto.RecipeSummaryDTO;
+import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.feed.DiscoveryFeed;
+import com.sofia.recipeapp.repository.CookbookCoverView;
+import com.sofia.recipeapp.repository.CookbookRepository;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import com.sofia.recipeapp.repository.RecipeTagView;
+import com.sofia.recipeapp.repository.RecipeVersionView;
+import com.sofia.recipeapp.search.SimilarityIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Lightweight read models for list views.
+ * A recipe list is 3 queries - summary rows (projection, no instructions or ingredient rows), tag names and favourite ids.
+ */
+@Service
+@RequiredArgsConstructor
+public class SummaryService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int MAX_RANKED = 50;
+    private static final double MIN_SIMILARITY = 0.1;
+
+    private final RecipeRepository recipeRepository;
+    private final CookbookRepository cookbookRepository;
+    private final FavouriteResolver favouriteResolver;
+    private final SimilarityIndex similarityIndex;
+    private final FavouriteCounters favouriteCounters;
+
+    /**
+     * gets one page of recipe summaries in the random discovery order
+     * @param userId authenticated user id, favourite flags are resolved for this user
+     * @param seed feed seed, a new one is generated when null
+     * @param cursor cursor from the previous page, null for the first page
+     * @param size page size, capped to DiscoveryFeed.MAX_PAGE_SIZE
+     * @return page of recipe summaries with the seed and the next cursor
+     * @throws ApiException malformed cursor (400)
+     */
+    public FeedPageDTO<RecipeSummaryDTO> getRecipeFeed(Long userId, Long seed, String cursor, int size) throws ApiException {
+        long feedSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        DiscoveryFeed.FeedPage page = DiscoveryFeed.next(
+                feedSeed,
+                cursor,
+                size,
+                recipeRepository::findMaxId,
+                recipeRepository::findExistingIds
+        );
+        return new FeedPageDTO<>(complete(getSummariesInOrder(page.ids()), userId), feedSeed, page.nextCursor());
+    }
+
+    /**
+     * @param authorId recipes author
+     * @param userId authenticated user id, favourite flags are resolved for this user
+     * @return authors recipe summaries
+     */
+    public List<RecipeSummaryDTO> getRecipesByUser(Long authorId, Long userId) {
+        return complete(recipeRepository.findSummariesByCreatedById(authorId), userId);
+    }
+
+    public List<RecipeSummaryDTO> getFavouriteRecipes(Long userId) {
+        List<RecipeSummaryDTO> summaries = recipeRepository.findFavouriteSummaries(userId);
+        attachTags(summaries);
+        summaries.forEach(summary -> summary.setFavourite(true));
+        return summaries;
+    }
+
+    /**
+     * @param cookbookId cookbook id
+     * @param userId authenticated user id
+     * @return summaries of the recipes in the cookbook
+     * @throws ApiException cookbook not found (404)
+     */
+    public List<RecipeSummaryDTO> getCookbookRecipes(Long cookbookId, Long userId) throws ApiException {
+        if (!cookbookRepository.existsById(cookbookId)) {
+            throw new ApiException("Cookbook not found", HttpStatus.NOT_FOUND);
+        }
+        return complete(recipeRepository.findCookbookSummaries(cookbookId), userId);
+    }
+
+    /**
+     * @param recipeId recipe id
+     * @param userId authenticated user id
+     * @param limit max number of recipes
+     * @return summaries of recipes sharing the most ingredients and tags with the recipe, the most similar first
+     * @throws ApiException recipe not found (404)
+     */
+    public List<RecipeSummaryDTO> getSimilarRecipes(Long recipeId, Long userId, int limit) throws ApiException {
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new ApiException("Recipe not found", HttpStatus.NOT_FOUND);
+        }
+        List<Long> ids = similarityIndex.similar(recipeId, Math.max(1, Math.min(limit, MAX_RANKED)), MIN_SIMILARITY).stream()
+                .map(SimilarityIndex.Similar::recipeId)
+                .toList();
+        return complete(getSummariesInOrder(ids), userId);
+    }
+
+    /**
+     * @param userId authenticated user id
+     * @param limit max number of recipes
+     * @return summaries of recipes favourited the most lately, the most trending first
+     */
+    public List<RecipeSummaryDTO> getTrendingRecipes(Long userId, int limit) {
+        List<Long> ids = favouriteCounters.trending(Math.max(1, Math.min(limit, MAX_RANKED))).stream()
+                .map(FavouriteCounters.Trending::recipeId)
+                .toList();
+        return complete(getSummariesInOrder(ids), userId);
+    }
+
+    /**
+     * one page of the recipes in a cookbook, ordered by id
+     * @param cookbookId cookbook id
+     * @param userId authenticated user id
+     * @param cursor cursor from the previous page, null for the first page
+     * @param size page size, capped to MAX_PAGE_SIZE
+     * @return page of recipe summaries with the next cursor
+     * @throws ApiException cookbook not found (404), malformed cursor (400)
+     */
+    public CursorPageDTO<RecipeSummaryDTO> getCookbookRecipesPage(Long cookbookId, Long userId, String cursor, int size)
+            throws ApiException {
+        if (!cookbookRepository.existsById(cookbookId)) {
+            throw new ApiException("Cookbook not found", HttpStatus.NOT_FOUND);
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        long afterId = cursor == null ? 0 : decodeCursor(cursor);
+
+        // one more than the page, tells whether there is a next page
+        List<RecipeSummaryDTO> summaries = new ArrayList<>(
+                recipeRepository.findCookbookSummariesAfter(cookbookId, afterId, PageRequest.of(0, pageSize + 1)));
+        String nextCursor = null;
+        if (summaries.size() > pageSize) {
+            summaries.subList(pageSize, summaries.size()).clear();
+            nextCursor = Long.toString(summaries.get(pageSize - 1).getId(), 36);
+        }
+        return new CursorPageDTO<>(complete(summaries, userId), nextCursor);
+    }
+
+    private static long decodeCursor(String cursor) throws ApiException {
+        try {
+            long afterId = Long.parseLong(cursor, 36);
+            if (afterId > 0) {
+                return afterId;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new ApiException("Invalid cursor", HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * gets one page of cookbook summaries in the random discovery order
+     * @param seed feed seed, a new one is generated when null
+     * @param cursor cursor from the previous page, null for the first page
+     * @param size page size, capped to DiscoveryFeed.MAX_PAGE_SIZE
+     * @return page of cookbook summaries with the seed and the next cursor
+     * @throws ApiException malformed cursor (400)
+     */
+    public FeedPageDTO<CookbookSummaryDTO> getCookbookFeed(Long seed, String cursor, int size) throws ApiException {
+        long feedSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        DiscoveryFeed.FeedPage page = DiscoveryFeed.next(
+                feedSeed,
+                cursor,
+                size,
+                cookbookRepository::findMaxId,
+                cookbookRepository::findExistingIds
+        );
+        return new FeedPageDTO<>(getCookbooksInOrder(page.ids()), feedSeed, page.nextCursor());
+    }
+
+    /**
+     * @param userId owner or collaborator id
+     * @return summaries of cookbooks the user owns or collaborates on
+     */
+    public List<CookbookSummaryDTO> getCookbooksForUser(Long userId) {
+        return attachCovers(cookbookRepository.findSummariesForUser(userId));
+    }
+
+    /**
+     * @param ids cookbook ids, e.g. of a search result
+     * @return summaries of the cookbooks in the order of the ids
+     */
+    public List<CookbookSummaryDTO> getCookbooksInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, CookbookSummaryDTO> byId = cookbookRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(CookbookSummaryDTO::getId, Function.identity()));
+        return attachCovers(ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toCollection(ArrayList::new)));
+    }
+
+    /**
+     * ETag of getRecipesByUser, from the versions of the recipes
+     * @param authorId recipes author
+     * @param userId authenticated user id
+     * @return ETag
+     */
+    public String getRecipesByUserETag(Long authorId, Long userId) {
+        return listETag("user-recipes", authorId, recipeRepository.findVersionsByCreatedById(authorId), userId);
+    }
+
+    public String getFavouriteRecipesETag(Long userId) {
+        return listETag("favourite-recipes", userId, recipeRepository.findFavouriteVersions(userId), null);
+    }
+
+    /**
+     * ETag of getCookbookRecipes, from the versions of the recipes
+     * @param cookbookId cookbook id
+     * @param userId authenticated user id
+     * @return ETag
+     * @throws ApiException cookbook not found (404)
+     */
+    public String getCookbookRecipesETag(Long cookbookId, Long userId) throws ApiException {
+        if (!cookbookRepository.existsById(cookbookId)) {
+            throw new ApiException("Cookbook not found", HttpStatus.NOT_FOUND);
+        }
+        return listETag("cookbook-recipes", cookbookId, recipeRepository.findCookbookVersions(cookbookId), userId);
+    }
+
+    /**
+     * aggregate ETag of a summary list, summaries have no view count so views don't change it
+     * @param userId user the favourite flags are resolved for, null when all recipes are favourites
+     */
+    private String listETag(String kind, Long listId, List<RecipeVersionView> recipes, Long userId) {
+        FavouriteIds favourites = userId == null
+                ? FavouriteIds.empty()
+                : favouriteResolver.resolve(userId, recipes.stream().map(RecipeVersionView::getId).toList());
+        ETags eTag = ETags.of(kind).add(listId).add(userId);
+        for (RecipeVersionView recipe : recipes) {
+            eTag.add(recipe.getId(), recipe.getVersion(), recipe.getFavouriteCount(), recipe.getAuthorVersion())
+                    .add(favourites.contains(recipe.getId()));
+        }
+        return eTag.build();
+    }
+
+    private List<RecipeSummaryDTO> getSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, RecipeSummaryDTO> byId = recipeRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(RecipeSummaryDTO::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<RecipeSummaryDTO> complete(List<RecipeSummaryDTO> summaries, Long userId) {
+        attachTags(summaries);
+        FavouriteIds favourites = favouriteResolver.resolve(userId, summaries.stream().map(RecipeSummaryDTO::getId).toList());
+        summaries.forEach(summary -> summary.setFavourite(favourites.contains(summary.getId())));
+        return summaries;
+    }
+
+    private List<CookbookSummaryDTO> attachCovers(List<CookbookSummaryDTO> summaries) {
+        Map<Long, CookbookSummaryDTO> byId = summaries.stream()
+                .filter(summary -> summary.getRecipeCount() > 0)
+                .collect(Collectors.toMap(CookbookSummaryDTO::getId, Function.identity(), (a, b) -> a));
+        List<Long> ids = List.copyOf(byId.keySet());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            for (CookbookCoverView cover : cookbookRepository.findCoverTitles(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))) {
+                byId.get(cover.getCookbookId()).getCoverTitles().add(cover.getTitle());
+            }
+        }
+        return summaries;
+    }
+
+    private void attachTags(List<RecipeSummaryDTO> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        Map<Long, RecipeSummaryDTO> byId = summaries.stream()
+                .collect(Collectors.toMap(RecipeSummaryDTO::getId, Function.identity(), (a, b) -> a));
+        List<Long> ids = List.copyOf(byId.keySet());
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            for (RecipeTagView tag : recipeRepository.findTagNames(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())))) {
+                byId.get(tag.getRecipeId()).getTags().add(tag.getTagName());
+            }
+        }
+    }
+}
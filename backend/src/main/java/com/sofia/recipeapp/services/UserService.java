@@ -1,12 +1,21 @@
 package com.sofia.recipeapp.services;
 
+import com.sofia.recipeapp.cache.ETags;
 import com.sofia.recipeapp.dto.*;
+import com.sofia.recipeapp.event.FavouriteChangedEvent;
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.event.UserChangedEvent;
 import com.sofia.recipeapp.model.Recipe;
 import com.sofia.recipeapp.security.UserAuthProvider;
 import com.sofia.recipeapp.exception.ApiException;
 import com.sofia.recipeapp.model.User;
+import com.sofia.recipeapp.repository.ProfileImageView;
+import com.sofia.recipeapp.repository.RecipeRepository;
 import com.sofia.recipeapp.repository.UserRepository;
+import com.sofia.recipeapp.storage.BlobStore;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,6 +28,7 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -31,6 +41,9 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserAuthProvider userAuthProvider;
     private final PasswordEncoder passwordEncoder;
+    private final RecipeRepository recipeRepository;
+    private final BlobStore blobStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -55,6 +68,7 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(password));
         user.setRole("USER");
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser.getId(), null, savedUser.getUsername()));
         return new UserDTO(savedUser.getId(), savedUser.getUsername(), null);
     }
 
@@ -82,7 +96,7 @@ public class UserService {
      */
     public List<RecipeDTO> getUserFavouriteRecipes(String username) {
         Optional<User> userOpt = userRepository.findByUsername(username);
-        return userOpt.map(user -> user.getFavoriteRecipes().stream().map(recipe -> RecipeDTO.GetRecipeDTO(recipe, user)).collect(Collectors.toList())).orElse(Collections.emptyList());
+        return userOpt.map(user -> recipeRepository.findFavouritesOfUser(user.getId()).stream().map(recipe -> RecipeDTO.GetRecipeDTO(recipe, true)).collect(Collectors.toList())).orElse(Collections.emptyList());
     }
 
     @Transactional
@@ -90,7 +104,15 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
 
+        // users recipes are removed together with the user
+        List<Long> recipeIds = recipeRepository.findIdsByCreatedById(id);
+        List<Long> favouriteIds = userRepository.findAllFavouriteRecipeIds(id);
+
         userRepository.delete(user);
+        blobStore.release(user.getProfileImageHash());
+        favouriteIds.forEach(recipeId -> eventPublisher.publishEvent(new FavouriteChangedEvent(recipeId, id, false)));
+        recipeIds.forEach(recipeId -> eventPublisher.publishEvent(RecipeChangedEvent.deleted(recipeId)));
+        eventPublisher.publishEvent(new UserChangedEvent(id, user.getUsername(), null));
     }
 
     public UserDTO loginAdmin(UserPasswordDTO user) {
@@ -107,7 +129,14 @@ public class UserService {
         return new UserDTO(foundUser.getId(), foundUser.getUsername(), token);
     }
 
-    public void updateProfileImage(String username, MultipartFile file) {
+    /**
+     * stores the image in the blob store, the user keeps just its hash, the previous image loses a reference
+     * @param username authenticated username
+     * @param file uploaded jpg, png or webp image up to 2 MB, wider images are scaled to 400 px
+     * @throws ApiException bad image (400), too large (413), user not found (404), storage failure (500)
+     */
+    @Transactional
+    public void updateProfileImage(String username, MultipartFile file) throws ApiException {
         try {
             if (file.isEmpty()) {
                 throw new ApiException("File is empty", HttpStatus.BAD_REQUEST);
@@ -131,11 +160,13 @@ public class UserService {
 
             byte[] resizedImage = resizeImageIfNeeded(file.getBytes(), contentType);
 
-            user.setProfileImage(resizedImage);
+            String previousHash = user.getProfileImageHash();
+            user.setProfileImageHash(blobStore.put(resizedImage));
             user.setProfileImageType(contentType);
             userRepository.save(user);
+            blobStore.release(previousHash);
 
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             throw new ApiException("Failed to save profile image", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
@@ -179,15 +210,31 @@ public class UserService {
     }
 
 
-    public byte[] getProfileImage(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * @param userId user id
+     * @return file and content type of the users profile image, empty when the user has none
+     * @throws ApiException user not found (404)
+     */
+    public Optional<ProfileImage> getProfileImage(Long userId) throws ApiException {
+        ProfileImageView image = userRepository.findProfileImageById(userId)
+                .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
+        return blobStore.get(image.getHash()).map(file -> new ProfileImage(file, image.getContentType()));
+    }
 
-        if (user.getProfileImage() == null) {
-            throw new RuntimeException("User has no profile image");
-        }
+    public record ProfileImage(Resource file, String contentType) {
+    }
 
-        return user.getProfileImage();
+    /**
+     * ETag of the users profile, or of the profile image
+     * @param id user id
+     * @param kind "profile" or "image"
+     * @return ETag
+     * @throws ApiException user not found (404)
+     */
+    public String getUserETag(Long id, String kind) throws ApiException {
+        long version = userRepository.findVersionById(id)
+                .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
+        return ETags.of(kind).add(id).add(version).build();
     }
 
     public UserProfileDTO getUserProfile(Long id) {
@@ -207,6 +254,7 @@ public class UserService {
         User user = userRepository.findByUsername(currentUsername)
                 .orElseThrow(() -> new ApiException("User not found", HttpStatus.NOT_FOUND));
 
+        String oldUsername = user.getUsername();
         if (dto.getUsername() != null && !dto.getUsername().equals(user.getUsername())) {
             if (userRepository.existsByUsername(dto.getUsername())) {
                 throw new ApiException("Username already taken", HttpStatus.BAD_REQUEST);
@@ -219,6 +267,9 @@ public class UserService {
         }
 
         userRepository.save(user);
+        if (!oldUsername.equals(user.getUsername())) {
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), oldUsername, user.getUsername()));
+        }
 
         return new UserProfileDTO(
                 user.getId(),
@@ -0,0 +1,181 @@
+package com.sofia.recipeapp.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content-addressed file store, a blob is stored once under the SHA-256 of its content (dir/ab/cd/abcd...).
+ * 1. a file is written to a temporary file next to it and moved into place atomically, readers never see half a file
+ * 2. storing content that is already there only adds a reference
+ * 3. references are counted in the blobs table, inside the transaction of the caller
+ * 4. unreferenced blobs are deleted every app.blobs.sweep-interval-ms, the row and the file go together
+ * 5. when the transaction of a put rolls back, the blob is recorded as unreferenced so the sweep deletes its file
+ * A reference is always added before the file is written, so a sweep can't delete a file that is being stored again.
+ */
+@Component
+public class BlobStore {
+
+    private static final String ADD_REFERENCE = "UPDATE blobs SET ref_count = ref_count + 1 WHERE hash = ?";
+    private static final String INSERT_BLOB = "INSERT INTO blobs (hash, size, ref_count) VALUES (?, ?, 1)";
+    private static final String INSERT_UNREFERENCED = "INSERT INTO blobs (hash, size, ref_count) VALUES (?, ?, 0)";
+    private static final String REMOVE_REFERENCE = "UPDATE blobs SET ref_count = ref_count - 1 WHERE hash = ? AND ref_count > 0";
+    private static final String SELECT_UNREFERENCED = "SELECT hash FROM blobs WHERE ref_count = 0";
+    private static final String DELETE_UNREFERENCED = "DELETE FROM blobs WHERE hash = ? AND ref_count = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final Path root;
+
+    public BlobStore(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.blobs.dir:data/blobs}") String root
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        // after a rollback the connection of the caller is still bound, the row has to be written in its own transaction
+        this.newTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.root = Path.of(root).toAbsolutePath();
+    }
+
+    /**
+     * stores the content and adds a reference to it, should run in the transaction that saves the reference
+     * @param content blob content
+     * @return SHA-256 of the content, the key of the blob
+     * @throws UncheckedIOException the file couldn't be written
+     */
+    public String put(byte[] content) {
+        String hash = hash(content);
+        addReference(hash, content.length);
+        sweepOnRollback(hash, content.length);
+
+        Path path = path(hash);
+        if (Files.exists(path)) {
+            return hash;
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (FileAlreadyExistsException e) {
+            // stored by a concurrent put meanwhile, same hash means same content
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store blob " + hash, e);
+        }
+        return hash;
+    }
+
+    /**
+     * removes a reference, the blob is deleted by the next sweep once nothing references it
+     * @param hash key of the blob, ignored when null
+     */
+    public void release(String hash) {
+        if (hash != null) {
+            jdbcTemplate.update(REMOVE_REFERENCE, hash);
+        }
+    }
+
+    /**
+     * @param hash key of the blob
+     * @return the stored file, empty when there is no such blob
+     */
+    public Optional<Resource> get(String hash) {
+        if (hash == null || !hash.matches("[0-9a-f]{64}")) {
+            return Optional.empty();
+        }
+        Path path = path(hash);
+        return Files.exists(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    /**
+     * deletes unreferenced blobs, the file is deleted while the row is locked by the delete,
+     * a concurrent put of the same content waits and then stores the file again
+     */
+    @Scheduled(fixedDelayString = "${app.blobs.sweep-interval-ms:60000}")
+    public void sweep() {
+        List<String> hashes = jdbcTemplate.queryForList(SELECT_UNREFERENCED, String.class);
+        for (String hash : hashes) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (jdbcTemplate.update(DELETE_UNREFERENCED, hash) == 1) {
+                    try {
+                        Files.deleteIfExists(path(hash));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to delete blob " + hash, e);
+                    }
+                }
+            });
+        }
+    }
+
+    private void addReference(String hash, long size) {
+        if (jdbcTemplate.update(ADD_REFERENCE, hash) == 1) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_BLOB, hash, size);
+        } catch (DuplicateKeyException e) {
+            // inserted by a concurrent put meanwhile
+            jdbcTemplate.update(ADD_REFERENCE, hash);
+        }
+    }
+
+    /**
+     * the file is written right away but the reference only exists once the caller commits,
+     * without a row the file of a rolled back put would never be swept
+     */
+    private void sweepOnRollback(String hash, long size) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    newTransaction.executeWithoutResult(s -> jdbcTemplate.update(INSERT_UNREFERENCED, hash, size));
+                } catch (DuplicateKeyException e) {
+                    // still referenced, or stored again meanwhile
+                }
+            }
+        });
+    }
+
+    private Path path(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.sofia.recipeapp.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves profile images from the users.profile_image column (before the blob store) into the {@link BlobStore}.
+ * Runs on startup, one user per transaction, so a single image is in memory at a time.
+ * The column of a user is cleared together with setting the hash, an interrupted run continues on the next start.
+ * Databases created after the move don't have the column, there is nothing to do then.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProfileImageMigration {
+
+    private static final String SELECT_IDS = "SELECT id FROM users WHERE profile_image IS NOT NULL";
+    // a user who uploaded a new image since the move started already has a hash, the old image is dropped
+    private static final String CLEAR_REPLACED =
+            "UPDATE users SET profile_image = NULL WHERE profile_image IS NOT NULL AND profile_image_hash IS NOT NULL";
+    private static final String SELECT_IMAGE = "SELECT profile_image FROM users WHERE id = ? AND profile_image_hash IS NULL";
+    private static final String MOVE_IMAGE =
+            "UPDATE users SET profile_image_hash = ?, profile_image = NULL WHERE id = ? AND profile_image_hash IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore blobStore;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        List<Long> ids;
+        try {
+            ids = jdbcTemplate.queryForList(SELECT_IDS, Long.class);
+        } catch (BadSqlGrammarException e) {
+            // no profile_image column
+            return;
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.update(CLEAR_REPLACED);
+        int moved = 0;
+        for (Long id : ids) {
+            Boolean done = transactionTemplate.execute(status -> {
+                List<byte[]> images = jdbcTemplate.query(SELECT_IMAGE, (rs, row) -> rs.getBytes(1), id);
+                if (images.isEmpty() || images.get(0) == null) {
+                    return false;
+                }
+                if (jdbcTemplate.update(MOVE_IMAGE, blobStore.put(images.get(0)), id) == 0) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (Boolean.TRUE.equals(done)) {
+                moved++;
+            }
+        }
+        System.out.println("Moved " + moved + " profile images to the blob store.");
+    }
+}
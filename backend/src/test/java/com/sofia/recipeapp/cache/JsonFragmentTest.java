@@ -0,0 +1,93 @@
+package com.sofia.recipeapp.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonFragmentTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Map<String, Object> recipe(long id, String title) {
+        Map<String, Object> recipe = new LinkedHashMap<>();
+        recipe.put("id", id);
+        recipe.put("title", title);
+        recipe.put("favourite", false);
+        return recipe;
+    }
+
+    private byte[] cookbook(List<Long> recipeIds) throws IOException {
+        List<Map<String, Object>> recipes = new ArrayList<>();
+        for (Long id : recipeIds) {
+            recipes.add(recipe(id, "Recipe " + id));
+        }
+        return objectMapper.writeValueAsBytes(Map.of("title", "Sunday", "recipes", recipes));
+    }
+
+    private static byte[] write(JsonPayload payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        payload.writeTo(out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void splicesTheFlagsOfTheUserIntoACookbook() throws IOException {
+        List<Long> recipeIds = List.of(3L, 1L, 4L, 5L, 9L, 2L);
+        JsonFragment fragment = JsonFragment.of(cookbook(recipeIds), recipeIds);
+        Set<Long> favourites = Set.of(1L, 5L, 2L);
+
+        JsonPayload payload = fragment.render(favourites::contains);
+        byte[] json = write(payload);
+
+        assertThat(payload.contentLength()).isEqualTo(json.length);
+        JsonNode recipes = objectMapper.readTree(json).get("recipes");
+        assertThat(recipes).hasSize(recipeIds.size());
+        for (JsonNode recipe : recipes) {
+            assertThat(recipe.get("favourite").asBoolean()).isEqualTo(favourites.contains(recipe.get("id").asLong()));
+        }
+    }
+
+    @Test
+    void rendersTheSerializedJsonWhenNothingIsAFavourite() throws IOException {
+        List<Long> recipeIds = List.of(1L, 2L);
+        byte[] serialized = cookbook(recipeIds);
+        JsonPayload payload = JsonFragment.of(serialized, recipeIds).render(id -> false);
+
+        assertThat(write(payload)).isEqualTo(serialized);
+        assertThat(payload.contentLength()).isEqualTo(serialized.length);
+    }
+
+    @Test
+    void ignoresTheFlagInsideAString() throws IOException {
+        String title = "Not my \"favourite\":false recipe";
+        byte[] serialized = objectMapper.writeValueAsBytes(recipe(1, title));
+
+        JsonPayload payload = JsonFragment.of(serialized, List.of(1L)).render(id -> true);
+        JsonNode recipe = objectMapper.readTree(write(payload));
+
+        assertThat(recipe.get("title").asText()).isEqualTo(title);
+        assertThat(recipe.get("favourite").asBoolean()).isTrue();
+    }
+
+    @Test
+    void rejectsJsonWithoutOneFlagPerRecipe() throws IOException {
+        byte[] serialized = cookbook(List.of(1L, 2L));
+
+        assertThatThrownBy(() -> JsonFragment.of(serialized, List.of(1L, 2L, 3L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Expected 3 favourite flags, found 2");
+        assertThatThrownBy(() -> JsonFragment.of(serialized, List.of(1L)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
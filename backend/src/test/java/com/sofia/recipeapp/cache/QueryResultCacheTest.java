@@ -0,0 +1,93 @@
+package com.sofia.recipeapp.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryResultCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<List<Long>> loader(Long... ids) {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(ids);
+        };
+    }
+
+    @Test
+    void loadsOnceAndServesFromCache() {
+        QueryResultCache<String> cache = new QueryResultCache<>(10, 60_000);
+
+        assertThat(cache.get("a", loader(1L, 2L))).containsExactly(1L, 2L);
+        assertThat(cache.get("a", loader(3L))).containsExactly(1L, 2L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        QueryResultCache<String> cache = new QueryResultCache<>(2, 60_000);
+        cache.get("a", loader(1L));
+        cache.get("b", loader(2L));
+        cache.get("a", loader(1L));
+        cache.get("c", loader(3L));
+        loads.set(0);
+
+        cache.get("a", loader(1L));
+        assertThat(loads).hasValue(0);
+        cache.get("b", loader(2L));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void expiredEntriesAreLoadedAgain() {
+        QueryResultCache<String> cache = new QueryResultCache<>(10, 0);
+
+        cache.get("a", loader(1L));
+        assertThat(cache.get("a", loader(2L))).containsExactly(2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidatesOnlyMatchingEntries() {
+        QueryResultCache<String> cache = new QueryResultCache<>(10, 60_000);
+        cache.get("a", loader(1L, 2L));
+        cache.get("b", loader(3L));
+        loads.set(0);
+
+        cache.invalidateIf((key, ids) -> ids.contains(2L));
+
+        cache.get("a", loader(1L));
+        cache.get("b", loader(3L));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void resultLoadedDuringAnInvalidationIsNotStored() {
+        QueryResultCache<String> cache = new QueryResultCache<>(10, 60_000);
+
+        List<Long> result = cache.get("a", () -> {
+            loads.incrementAndGet();
+            cache.invalidateIf((key, ids) -> true);
+            return List.of(1L);
+        });
+
+        assertThat(result).containsExactly(1L);
+        assertThat(cache.get("a", loader(2L))).containsExactly(2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void clearDropsEverything() {
+        QueryResultCache<String> cache = new QueryResultCache<>(10, 60_000);
+        cache.get("a", loader(1L));
+
+        cache.clear();
+
+        assertThat(cache.get("a", loader(2L))).containsExactly(2L);
+    }
+}
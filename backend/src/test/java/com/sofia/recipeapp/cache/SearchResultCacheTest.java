@@ -0,0 +1,97 @@
+package com.sofia.recipeapp.cache;
+
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.event.UserChangedEvent;
+import com.sofia.recipeapp.search.RecipeDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final SearchResultCache cache = new SearchResultCache(100, 300);
+
+    private static RecipeDocument recipe(long id, String title, String author, String... tags) {
+        return new RecipeDocument(id, title, "", "", 1L, author, List.of(), List.of(tags));
+    }
+
+    /**
+     * @return whether the key is still cached, a miss caches an empty result again
+     */
+    private boolean cached(RecipeSearchKey key) {
+        boolean[] loaded = {false};
+        cache.getRecipes(key, () -> {
+            loaded[0] = true;
+            return List.of();
+        });
+        return !loaded[0];
+    }
+
+    @Test
+    void equivalentQueriesShareAKey() {
+        assertThat(RecipeSearchKey.of(" Alice ", "Crème  brûlée", List.of("B", "a"), null, List.of()))
+                .isEqualTo(RecipeSearchKey.of("alice", "creme brulee", List.of("a", "b", "a"), List.of(), null));
+    }
+
+    @Test
+    void matchesTermsOfEveryFieldAndAPrefixOfTheLastToken() {
+        RecipeDocument document = new RecipeDocument(1L, "Tomato soup", "Warming", "Simmer slowly", 1L, "alice",
+                List.of("Basil leaves"), List.of("vegan"));
+        Set<String> terms = RecipeSearchKey.terms(document);
+
+        assertThat(RecipeSearchKey.of(null, "soup simmer bas", List.of("Vegan"), null, null).matches(terms, document)).isTrue();
+        assertThat(RecipeSearchKey.of("ali", "warming", null, null, null).matches(terms, document)).isTrue();
+        assertThat(RecipeSearchKey.of(null, "bas soup", null, null, null).matches(terms, document)).isFalse();
+        assertThat(RecipeSearchKey.of(null, "soup", null, null, List.of("vegan")).matches(terms, document)).isFalse();
+    }
+
+    @Test
+    void changeDropsEntriesContainingTheRecipe() {
+        RecipeSearchKey soup = RecipeSearchKey.of(null, "soup", null, null, null);
+        RecipeSearchKey cake = RecipeSearchKey.of(null, "cake", null, null, null);
+        cache.getRecipes(soup, () -> List.of(1L));
+        cache.getRecipes(cake, () -> List.of(2L));
+
+        cache.onRecipeChanged(RecipeChangedEvent.deleted(1L));
+
+        assertThat(cached(soup)).isFalse();
+        assertThat(cached(cake)).isTrue();
+    }
+
+    @Test
+    void changeDropsEntriesTheRecipeNowMatches() {
+        RecipeSearchKey veganSoup = RecipeSearchKey.of(null, "sou", List.of("vegan"), null, null);
+        RecipeSearchKey dessert = RecipeSearchKey.of(null, null, List.of("dessert"), null, null);
+        RecipeSearchKey excludingVegan = RecipeSearchKey.of(null, "soup", null, null, List.of("vegan"));
+        cache.getRecipes(veganSoup, List::of);
+        cache.getRecipes(dessert, List::of);
+        cache.getRecipes(excludingVegan, List::of);
+
+        cache.onRecipeChanged(RecipeChangedEvent.saved(recipe(7, "Tomato soup", "alice", "Vegan")));
+
+        assertThat(cached(veganSoup)).isFalse();
+        assertThat(cached(dessert)).isTrue();
+        assertThat(cached(excludingVegan)).isTrue();
+    }
+
+    @Test
+    void renameDropsEntriesFilteringOnEitherName() {
+        RecipeSearchKey byOld = RecipeSearchKey.of("ali", null, null, null, null);
+        RecipeSearchKey byNew = RecipeSearchKey.of("zel", null, null, null, null);
+        RecipeSearchKey byOther = RecipeSearchKey.of("bob", null, null, null, null);
+        RecipeSearchKey unfiltered = RecipeSearchKey.of(null, "soup", null, null, null);
+        for (RecipeSearchKey key : List.of(byOld, byNew, byOther, unfiltered)) {
+            cache.getRecipes(key, List::of);
+        }
+
+        cache.onUserChanged(new UserChangedEvent(1L, "alice", "zelda"));
+
+        assertThat(cached(byOld)).isFalse();
+        assertThat(cached(byNew)).isFalse();
+        assertThat(cached(byOther)).isTrue();
+        assertThat(cached(unfiltered)).isTrue();
+    }
+}
@@ -0,0 +1,141 @@
+package com.sofia.recipeapp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RecipeControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * registers and logs in a user
+     * @return Authorization header value
+     */
+    private String login(String username) throws Exception {
+        String credentials = objectMapper.writeValueAsString(
+                Map.of("username", username, "password", "secret"));
+        mvc.perform(post("/api/users/register").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().is2xxSuccessful());
+        String response = mvc.perform(post("/api/users/login").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return "Bearer " + objectMapper.readTree(response).get("token").asText();
+    }
+
+    /**
+     * creates a recipe with two ingredients
+     * @return the created recipe as the author sees it
+     */
+    private JsonNode createRecipe(String authorization) throws Exception {
+        mvc.perform(post("/api/recipes").header("Authorization", authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Pancakes\",\"ingredients\":[" +
+                                "{\"name\":\"flour\",\"quantity\":\"100 g\"},{\"name\":\"milk\",\"quantity\":\"200 ml\"}]," +
+                                "\"tags\":[]}"))
+                .andExpect(status().isCreated());
+        String response = mvc.perform(get("/api/recipes/user").header("Authorization", authorization))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get(0);
+    }
+
+    private static String ingredientPatch(long version, long ingredientId, String quantity) {
+        return "{\"version\":" + version + ",\"ingredients\":[{\"id\":" + ingredientId +
+                ",\"quantity\":\"" + quantity + "\"}]}";
+    }
+
+    @Test
+    void ingredientOnlyPatchBumpsTheVersion() throws Exception {
+        String authorization = login("patch-author");
+        JsonNode recipe = createRecipe(authorization);
+        long version = recipe.get("version").asLong();
+        long flourId = recipe.get("ingredients").get(0).get("id").asLong();
+
+        String response = mvc.perform(patch("/api/recipes/recipe/{id}", recipe.get("id").asLong())
+                        .header("Authorization", authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ingredientPatch(version, flourId, "150 g")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ingredients[0].quantity").value("150 g"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(objectMapper.readTree(response).get("version").asLong()).isGreaterThan(version);
+    }
+
+    @Test
+    void ingredientOnlyPatchWithAStaleVersionConflicts() throws Exception {
+        String authorization = login("stale-author");
+        JsonNode recipe = createRecipe(authorization);
+        long id = recipe.get("id").asLong();
+        long staleVersion = recipe.get("version").asLong();
+        long flourId = recipe.get("ingredients").get(0).get("id").asLong();
+        long milkId = recipe.get("ingredients").get(1).get("id").asLong();
+
+        mvc.perform(patch("/api/recipes/recipe/{id}", id).header("Authorization", authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ingredientPatch(staleVersion, flourId, "150 g")))
+                .andExpect(status().isOk());
+
+        // made on the version before the first patch, touches only another ingredient
+        mvc.perform(patch("/api/recipes/recipe/{id}", id).header("Authorization", authorization)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ingredientPatch(staleVersion, milkId, "300 ml")))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void summariesArePagedThroughTheDiscoveryFeed() throws Exception {
+        String authorization = login("feed-author");
+        Set<Long> created = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(createRecipe(authorization).get("id").asLong());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/recipes/summary").header("Authorization", authorization)
+                    .param("seed", "7").param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.seed").value(7))
+                    .andReturn().getResponse().getContentAsString());
+            assertThat(page.get("items").size()).isLessThanOrEqualTo(2);
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(seen).doesNotHaveDuplicates().containsAll(created);
+
+        mvc.perform(get("/api/recipes/summary").header("Authorization", authorization).param("cursor", "zzzzzzzzzzz.0"))
+                .andExpect(status().isBadRequest());
+    }
+}
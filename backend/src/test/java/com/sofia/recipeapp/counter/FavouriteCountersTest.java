@@ -0,0 +1,117 @@
+package com.sofia.recipeapp.counter;
+
+import com.sofia.recipeapp.event.FavouriteChangedEvent;
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.repository.RecipeCountView;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class FavouriteCountersTest {
+
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final FavouriteCounters counters = new FavouriteCounters(recipeRepository, jdbcTemplate, 24);
+
+    private record Count(Long getRecipeId, Long getCount) implements RecipeCountView {
+    }
+
+    private static FavouriteChangedEvent favourite(long recipeId, boolean added) {
+        return new FavouriteChangedEvent(recipeId, 7L, added);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object>> flushed() {
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), updates.capture());
+        return updates.getValue().stream().map(List::of).toList();
+    }
+
+    @Test
+    void loadWritesOnlyStoredCountsThatDiffer() {
+        when(recipeRepository.findFavouriteCounts()).thenReturn(List.of(
+                new Count(1L, 2L), new Count(2L, 5L), new Count(3L, 4L)));
+        when(recipeRepository.countFavourites()).thenReturn(List.of(
+                new Count(1L, 2L), new Count(2L, 3L)));
+
+        counters.load();
+        counters.flush();
+
+        assertThat(counters.get(1L)).isEqualTo(2);
+        assertThat(counters.get(2L)).isEqualTo(3);
+        assertThat(counters.get(3L)).isZero();
+        assertThat(flushed()).containsExactlyInAnyOrder(List.of(3L, 2L), List.of(0L, 3L));
+    }
+
+    @Test
+    void favouriteChangedWhileLoadingIsRecountedNotAdded() {
+        when(recipeRepository.countFavourites()).thenAnswer(invocation -> {
+            // committed before the count, its listener runs while the load is still running
+            counters.onFavouriteChanged(favourite(1L, true));
+            return List.of(new Count(1L, 3L));
+        });
+        when(recipeRepository.countFavourites(anyCollection())).thenReturn(List.of(new Count(1L, 3L)));
+
+        counters.load();
+
+        assertThat(counters.get(1L)).isEqualTo(3);
+        verify(recipeRepository).countFavourites(Set.of(1L));
+
+        counters.onFavouriteChanged(favourite(1L, true));
+        assertThat(counters.get(1L)).isEqualTo(4);
+    }
+
+    @Test
+    void flushWritesChangedCountsOnce() {
+        counters.load();
+        counters.onFavouriteChanged(favourite(1L, true));
+        counters.onFavouriteChanged(favourite(1L, true));
+        counters.onFavouriteChanged(favourite(1L, false));
+        counters.onFavouriteChanged(favourite(2L, true));
+
+        counters.flush();
+        counters.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        assertThat(flushed()).containsExactlyInAnyOrder(List.of(1L, 1L), List.of(1L, 2L));
+    }
+
+    @Test
+    void failedFlushKeepsTheCountsDirty() {
+        counters.load();
+        counters.onFavouriteChanged(favourite(1L, true));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[]{1});
+
+        assertThatThrownBy(counters::flush).isInstanceOf(DataAccessResourceFailureException.class);
+        counters.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        assertThat(flushed()).containsExactly(List.of(1L, 1L));
+    }
+
+    @Test
+    void deletedRecipeIsNotWritten() {
+        counters.load();
+        counters.onFavouriteChanged(favourite(1L, true));
+        counters.onRecipeChanged(RecipeChangedEvent.deleted(1L));
+
+        counters.flush();
+
+        assertThat(counters.get(1L)).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,126 @@
+package com.sofia.recipeapp.counter;
+
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.repository.RecipeCountView;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ViewCountersTest {
+
+    private static final int FLUSH_THRESHOLD = 3;
+
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+    private final ViewCounters counters = new ViewCounters(recipeRepository, jdbcTemplate, taskScheduler, FLUSH_THRESHOLD);
+
+    private record Count(Long getRecipeId, Long getCount) implements RecipeCountView {
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object>> flushed() {
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), updates.capture());
+        return updates.getValue().stream().map(List::of).toList();
+    }
+
+    @Test
+    void totalsIncludeStoredAndBufferedViews() {
+        when(recipeRepository.findViewCounts()).thenReturn(List.of(new Count(1L, 10L)));
+        counters.load();
+
+        counters.increment(1L);
+        counters.increment(2L);
+
+        assertThat(counters.get(1L)).isEqualTo(11);
+        assertThat(counters.get(2L)).isEqualTo(1);
+        assertThat(counters.get(3L)).isZero();
+    }
+
+    @Test
+    void flushAddsOnlyTheBufferedViews() {
+        when(recipeRepository.findViewCounts()).thenReturn(List.of(new Count(1L, 10L)));
+        counters.load();
+        counters.increment(1L);
+        counters.increment(1L);
+        counters.increment(2L);
+
+        counters.flush();
+        counters.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        assertThat(flushed()).containsExactlyInAnyOrder(List.of(2L, 1L), List.of(1L, 2L));
+        assertThat(counters.get(1L)).isEqualTo(12);
+    }
+
+    @Test
+    void viewsAfterAFlushGoToTheNextOne() {
+        counters.increment(1L);
+        counters.flush();
+        counters.increment(1L);
+        counters.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        assertThat(flushed()).containsExactly(List.of(1L, 1L));
+        assertThat(counters.get(1L)).isEqualTo(2);
+    }
+
+    @Test
+    void schedulesOneFlushOnceEnoughRecipesHaveBufferedViews() {
+        for (long recipeId = 1; recipeId < FLUSH_THRESHOLD; recipeId++) {
+            counters.increment(recipeId);
+        }
+        verifyNoInteractions(taskScheduler);
+
+        counters.increment((long) FLUSH_THRESHOLD);
+        counters.increment(FLUSH_THRESHOLD + 1L);
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+
+        // the flush empties the buffer and allows the next one to be scheduled
+        counters.flush();
+        for (long recipeId = 1; recipeId <= FLUSH_THRESHOLD; recipeId++) {
+            counters.increment(recipeId);
+        }
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void failedFlushKeepsTheViewsBuffered() {
+        counters.increment(1L);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("database down"))
+                .thenReturn(new int[]{1});
+
+        assertThatThrownBy(counters::flush).isInstanceOf(DataAccessResourceFailureException.class);
+        counters.increment(1L);
+        counters.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        assertThat(flushed()).containsExactly(List.of(2L, 1L));
+    }
+
+    @Test
+    void deletedRecipeIsNotWritten() {
+        counters.increment(1L);
+        counters.onRecipeChanged(RecipeChangedEvent.deleted(1L));
+
+        counters.flush();
+
+        assertThat(counters.get(1L)).isZero();
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
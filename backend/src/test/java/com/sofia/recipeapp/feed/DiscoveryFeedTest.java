@@ -0,0 +1,135 @@
+package com.sofia.recipeapp.feed;
+
+import com.sofia.recipeapp.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscoveryFeedTest {
+
+    private static Function<List<Long>, Collection<Long>> existing(Set<Long> ids, List<Integer> lookups) {
+        return candidates -> {
+            lookups.add(candidates.size());
+            return candidates.stream().filter(ids::contains).toList();
+        };
+    }
+
+    /**
+     * reads the whole feed page by page
+     * @return ids in feed order
+     */
+    private static List<Long> readAll(long seed, int size, Set<Long> ids) {
+        long maxId = ids.stream().mapToLong(Long::longValue).max().orElse(0);
+        List<Long> result = new ArrayList<>();
+        String cursor = null;
+        do {
+            DiscoveryFeed.FeedPage page = DiscoveryFeed.next(seed, cursor, size, () -> maxId, existing(ids, new ArrayList<>()));
+            result.addAll(page.ids());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return result;
+    }
+
+    @Test
+    void returnsEveryExistingIdExactlyOnce() {
+        Set<Long> ids = new HashSet<>();
+        for (long id = 1; id <= 500; id++) {
+            if (id % 3 != 0) {
+                ids.add(id);
+            }
+        }
+
+        List<Long> feed = readAll(11, 20, ids);
+
+        assertThat(feed).hasSize(ids.size()).doesNotHaveDuplicates();
+        assertThat(new HashSet<>(feed)).isEqualTo(ids);
+    }
+
+    @Test
+    void sameSeedGivesSameOrder() {
+        Set<Long> ids = new HashSet<>();
+        for (long id = 1; id <= 100; id++) {
+            ids.add(id);
+        }
+
+        assertThat(readAll(5, 7, ids)).isEqualTo(readAll(5, 7, ids));
+        assertThat(readAll(5, 7, ids)).isNotEqualTo(readAll(6, 7, ids));
+    }
+
+    @Test
+    void emptyTableHasNoPages() {
+        DiscoveryFeed.FeedPage page = DiscoveryFeed.next(1, null, 10, () -> null, existing(Set.of(), new ArrayList<>()));
+
+        assertThat(page.ids()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void keepsLookingPastTheProbeBudgetInsteadOfReturningAnEmptyPage() {
+        // one row left after deleting everything else, far more holes than the budget of one item
+        Set<Long> ids = Set.of(10_000L);
+        List<Integer> lookups = new ArrayList<>();
+
+        DiscoveryFeed.FeedPage page = DiscoveryFeed.next(3, null, 1, () -> 10_000L, existing(ids, lookups));
+
+        assertThat(page.ids()).containsExactly(10_000L);
+        // lookups grow while they find nothing, so the scan takes far fewer than one per 10 ids
+        assertThat(lookups.size()).isLessThan(100);
+        assertThat(lookups).allMatch(size -> size <= 1000);
+    }
+
+    @Test
+    void stopsAtTheRequestLimitAndContinuesOnTheNextPage() {
+        Set<Long> ids = Set.of(1_000_000L);
+        List<Long> found = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            List<Integer> lookups = new ArrayList<>();
+            DiscoveryFeed.FeedPage page = DiscoveryFeed.next(3, cursor, 1, () -> 1_000_000L, existing(ids, lookups));
+            assertThat(lookups.stream().mapToInt(Integer::intValue).sum()).isLessThanOrEqualTo(DiscoveryFeed.MAX_PROBES_PER_REQUEST);
+            if (page.ids().isEmpty() && found.isEmpty()) {
+                // cut short before the only id, the feed isn't over yet
+                assertThat(page.nextCursor()).isNotNull();
+            }
+            found.addAll(page.ids());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(found).containsExactly(1_000_000L);
+        assertThat(pages).isGreaterThan(1);
+    }
+
+    @Test
+    void rejectsACursorBeyondTheLargestId() {
+        Set<Long> ids = Set.of(1L, 2L, 3L);
+        String forged = new FeedCursor(1L << 40, 0).encode();
+
+        for (String cursor : new String[]{forged, "zzzzzzzzzzz.0", new FeedCursor(Long.MAX_VALUE, 0).encode()}) {
+            assertThatThrownBy(() -> DiscoveryFeed.next(1, cursor, 10, () -> 3L, existing(ids, new ArrayList<>())))
+                    .as(cursor)
+                    .isInstanceOf(ApiException.class)
+                    .hasMessage("Invalid cursor");
+        }
+        assertThatThrownBy(() -> DiscoveryFeed.next(1, "3.0", 10, () -> null, existing(Set.of(), new ArrayList<>())))
+                .isInstanceOf(ApiException.class);
+    }
+
+    @Test
+    void capsPageSize() {
+        Set<Long> ids = new HashSet<>();
+        for (long id = 1; id <= 1000; id++) {
+            ids.add(id);
+        }
+
+        DiscoveryFeed.FeedPage page = DiscoveryFeed.next(1, null, 10_000, () -> 1000L, existing(ids, new ArrayList<>()));
+
+        assertThat(page.ids()).hasSize(DiscoveryFeed.MAX_PAGE_SIZE);
+        assertThat(page.nextCursor()).isNotNull();
+    }
+}
@@ -0,0 +1,37 @@
+package com.sofia.recipeapp.feed;
+
+import com.sofia.recipeapp.exception.ApiException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        FeedCursor cursor = new FeedCursor(123456789L, 4242L);
+
+        assertThat(FeedCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsACursorOverMoreIdsThanExist() {
+        String cursor = new FeedCursor(1000, 5).encode();
+
+        assertThat(FeedCursor.decode(cursor, 1000)).isEqualTo(new FeedCursor(1000, 5));
+        assertThatThrownBy(() -> FeedCursor.decode(cursor, 999))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String cursor : new String[]{"", "abc", "1.2.3", "0.5", "5.-1", "zz.!"}) {
+            assertThatThrownBy(() -> FeedCursor.decode(cursor))
+                    .as(cursor)
+                    .isInstanceOf(ApiException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.sofia.recipeapp.feed;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeededPermutationTest {
+
+    private static List<Long> order(long seed, int bits) {
+        SeededPermutation permutation = new SeededPermutation(seed, bits);
+        List<Long> values = new ArrayList<>();
+        for (long position = 0; position < permutation.size(); position++) {
+            values.add(permutation.apply(position));
+        }
+        return values;
+    }
+
+    @Test
+    void isBijectionOverItsDomain() {
+        for (int bits : new int[]{1, 2, 7, 12}) {
+            for (long seed : new long[]{0, 1, -42, Long.MAX_VALUE}) {
+                List<Long> values = order(seed, bits);
+                Set<Long> distinct = new HashSet<>(values);
+
+                assertThat(distinct).hasSize(1 << bits);
+                assertThat(distinct).allMatch(value -> value >= 0 && value < (1L << bits));
+            }
+        }
+    }
+
+    @Test
+    void sameSeedGivesSameOrder() {
+        assertThat(order(7, 10)).isEqualTo(order(7, 10));
+        assertThat(order(7, 10)).isNotEqualTo(order(8, 10));
+    }
+
+    @Test
+    void bitsForCoversTheValue() {
+        assertThat(SeededPermutation.bitsFor(0)).isEqualTo(1);
+        assertThat(SeededPermutation.bitsFor(1)).isEqualTo(1);
+        assertThat(SeededPermutation.bitsFor(2)).isEqualTo(2);
+        assertThat(SeededPermutation.bitsFor(1023)).isEqualTo(10);
+        assertThat(SeededPermutation.bitsFor(1024)).isEqualTo(11);
+    }
+
+    @Test
+    void rejectsBitsOutOfRange() {
+        assertThatThrownBy(() -> new SeededPermutation(1, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SeededPermutation(1, 63)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
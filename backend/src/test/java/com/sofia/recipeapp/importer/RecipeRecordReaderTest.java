@@ -0,0 +1,103 @@
+package com.sofia.recipeapp.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sofia.recipeapp.dto.IngredientDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeRecordReaderTest {
+
+    private final List<RecipeRecord> records = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+
+    private void read(String content, RecipeRecordReader.Format format) throws IOException {
+        RecipeRecordReader reader = new RecipeRecordReader(new ObjectMapper(), new RecipeRecordReader.Handler() {
+            @Override
+            public void record(RecipeRecord record) {
+                records.add(record);
+            }
+
+            @Override
+            public void error(long number, String message) {
+                errors.add(number + ": " + message);
+            }
+        });
+        reader.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    @Test
+    void readsExportLinesAndSkipsBrokenOnes() throws IOException {
+        read("""
+                {"title":"Goulash","description":"Beef","instructions":"Stew","createdByUsername":"alice","ingredients":[{"name":"beef","quantity":"1 kg"}],"tags":["Gluten Free","main_course"]}
+                {broken
+
+                [1]
+                {"title":"Soup"}
+                """, RecipeRecordReader.Format.NDJSON);
+
+        assertThat(records).extracting(RecipeRecord::number).containsExactly(1L, 4L);
+        RecipeRecord goulash = records.get(0);
+        assertThat(goulash.title()).isEqualTo("Goulash");
+        assertThat(goulash.authorUsername()).isEqualTo("alice");
+        assertThat(goulash.ingredients()).containsExactly(new IngredientDTO(null, "beef", "1 kg"));
+        assertThat(goulash.tags()).containsExactly("gluten-free", "main-course");
+        assertThat(errors).hasSize(2);
+        assertThat(errors.get(0)).startsWith("2: invalid JSON");
+        assertThat(errors.get(1)).isEqualTo("3: expected a JSON object");
+    }
+
+    @Test
+    void readsSchemaOrgRecipesFromAGraph() throws IOException {
+        read("""
+                {"@context":"https://schema.org","@graph":[
+                  {"@type":"WebPage","name":"not a recipe"},
+                  {"@type":["Recipe"],"name":"Garlic bread","author":[{"@type":"Person","name":"bob"}],
+                   "recipeIngredient":["1 1/2 cups flour","3 cloves garlic","salt to taste"],
+                   "recipeInstructions":[{"@type":"HowToSection","itemListElement":[{"@type":"HowToStep","text":" Mix. "},{"@type":"HowToStep","text":"Bake."}]}],
+                   "keywords":"quick, Side Dish","recipeCategory":["bread"],
+                   "suitableForDiet":"https://schema.org/VeganDiet"}
+                ]}
+                """, RecipeRecordReader.Format.JSON_LD);
+
+        assertThat(errors).isEmpty();
+        assertThat(records).hasSize(1);
+        RecipeRecord bread = records.get(0);
+        assertThat(bread.number()).isEqualTo(1);
+        assertThat(bread.title()).isEqualTo("Garlic bread");
+        assertThat(bread.authorUsername()).isEqualTo("bob");
+        assertThat(bread.instructions()).isEqualTo("Mix.\nBake.");
+        assertThat(bread.tags()).containsExactly("quick", "side-dish", "bread", "vegan");
+        assertThat(bread.ingredients()).containsExactly(
+                new IngredientDTO(null, "flour", "1 1/2 cups"),
+                new IngredientDTO(null, "garlic", "3 cloves"),
+                new IngredientDTO(null, "salt to taste", ""));
+    }
+
+    @Test
+    void readsTopLevelArraysOfRecipes() throws IOException {
+        read("""
+                [{"@type":"Recipe","name":"A"},{"@type":"Recipe","name":"B"}]
+                """, RecipeRecordReader.Format.JSON_LD);
+
+        assertThat(records).extracting(RecipeRecord::title).containsExactly("A", "B");
+    }
+
+    @Test
+    void parsesLeadingQuantities() {
+        assertThat(RecipeRecordReader.parseIngredient("200 g spaghetti"))
+                .isEqualTo(new IngredientDTO(null, "spaghetti", "200 g"));
+        assertThat(RecipeRecordReader.parseIngredient("2-3 cloves garlic"))
+                .isEqualTo(new IngredientDTO(null, "garlic", "2-3 cloves"));
+        assertThat(RecipeRecordReader.parseIngredient("½ tsp. salt"))
+                .isEqualTo(new IngredientDTO(null, "salt", "½ tsp."));
+        assertThat(RecipeRecordReader.parseIngredient("2 eggs"))
+                .isEqualTo(new IngredientDTO(null, "eggs", "2"));
+    }
+}
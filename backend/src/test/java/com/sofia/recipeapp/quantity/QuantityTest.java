@@ -0,0 +1,57 @@
+package com.sofia.recipeapp.quantity;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantityTest {
+
+    @ParameterizedTest(name = "\"{0}\" is {1} {2}")
+    @CsvSource(delimiter = '|', textBlock = """
+            200 g               | 200       | g
+            1.5 kg              | 1500      | g
+            1,5 kg              | 1500      | g
+            1,000 g             | 1000      | g
+            2,500.5 g           | 2500.5    | g
+            1,25 l              | 1250      | ml
+            1 1/2 cups          | 354.88    | ml
+            1/2 tsp             | 2.46      | ml
+            ½ cup               | 118.29    | ml
+            1½ cups             | 354.88    | ml
+            2 Tbsp.             | 29.57     | ml
+            4 fl oz             | 118.29    | ml
+            1 lb                | 453.59    | g
+            2-3 cloves          | 3         | clove
+            2 to 3 cloves       | 3         | clove
+            2 large cloves      | 2         | clove
+            1 can               | 1         | can
+            2 tins              | 2         | can
+            1 pinch             | 1         | pinch
+            3 slices            | 3         | slice
+            1 pack              | 1         | pack
+            4 bay leaves        | 4         | leaf
+            3                   | 3         | pcs
+            2 eggs              | 2         | pcs
+            2 large eggs        | 2         | pcs
+            3 medium tomatoes   | 3         | pcs
+            2 pieces            | 2         | pcs
+            """)
+    void parsesAmountAndCanonicalUnit(String text, double amount, String unit) {
+        Quantity quantity = Quantity.parse(text);
+
+        assertThat(quantity).isNotNull();
+        assertThat(quantity.amount()).isCloseTo(amount, within(0.01));
+        assertThat(quantity.unit()).isEqualTo(unit);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "a pinch", "to taste", "some", "1/0 cup"})
+    void quantitiesWithoutAnAmountAreNotParsed(String text) {
+        assertThat(Quantity.parse(text)).isNull();
+    }
+}
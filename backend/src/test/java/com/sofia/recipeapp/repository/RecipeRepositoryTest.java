@@ -0,0 +1,94 @@
+package com.sofia.recipeapp.repository;
+
+import com.sofia.recipeapp.model.Recipe;
+import com.sofia.recipeapp.model.RecipeIngredient;
+import com.sofia.recipeapp.model.Tag;
+import com.sofia.recipeapp.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+class RecipeRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    /**
+     * persists a recipe with two ingredients and three tags and detaches it
+     * @return id of the recipe
+     */
+    private Long persistRecipe(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setRole("USER");
+        entityManager.persist(user);
+
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Pancakes");
+        recipe.setCreatedBy(user);
+        for (String name : List.of("flour", "milk")) {
+            RecipeIngredient ingredient = new RecipeIngredient();
+            ingredient.setIngredientName(name);
+            ingredient.setRecipe(recipe);
+            recipe.getRecipeIngredients().add(ingredient);
+        }
+        for (String name : List.of("breakfast", "sweet", "quick")) {
+            Tag tag = new Tag();
+            tag.setName(name);
+            entityManager.persist(tag);
+            recipe.getTags().add(tag);
+        }
+        Long id = entityManager.persistAndFlush(recipe).getId();
+        entityManager.clear();
+        return id;
+    }
+
+    private static void assertIngredientsAndTags(Recipe recipe) {
+        assertThat(recipe.getRecipeIngredients())
+                .extracting(RecipeIngredient::getIngredientName)
+                .containsExactlyInAnyOrder("flour", "milk");
+        assertThat(recipe.getTags()).hasSize(3);
+    }
+
+    @Test
+    void findAllForIndexingDoesNotRepeatIngredientsPerTag() {
+        Long id = persistRecipe("alice");
+
+        List<Recipe> recipes = recipeRepository.findAllForIndexing(List.of(id));
+
+        assertThat(recipes).hasSize(1);
+        assertIngredientsAndTags(recipes.get(0));
+    }
+
+    @Test
+    void detailGraphDoesNotRepeatIngredientsPerTag() {
+        Long id = persistRecipe("bob");
+
+        assertIngredientsAndTags(recipeRepository.findDetailById(id).orElseThrow());
+    }
+
+    @Test
+    void listAndAdminGraphsReturnEveryRecipeOnce() {
+        Long first = persistRecipe("carol");
+        Long second = persistRecipe("dave");
+
+        assertThat(recipeRepository.findAllByIdIn(List.of(first, second))).hasSize(2)
+                .allSatisfy(RecipeRepositoryTest::assertIngredientsAndTags);
+        assertThat(recipeRepository.findAllForAdmin()).extracting(Recipe::getId)
+                .containsOnlyOnce(first, second);
+    }
+}
@@ -0,0 +1,119 @@
+package com.sofia.recipeapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompletionTrieTest {
+
+    private final CompletionTrie trie = new CompletionTrie();
+
+    private List<String> complete(String prefix, int limit) {
+        return trie.complete(prefix, limit).stream().map(CompletionTrie.Entry::text).toList();
+    }
+
+    @Test
+    void returnsTheHeaviestCompletionsFirst() {
+        trie.add("carrot", List.of("carrot"), 5);
+        trie.add("carbonara", List.of("carbonara"), 9);
+        trie.add("car", List.of("car"), 1);
+        trie.add("cake", List.of("cake"), 20);
+
+        assertThat(complete("car", 10)).containsExactly("carbonara", "carrot", "car");
+        assertThat(complete("ca", 2)).containsExactly("cake", "carbonara");
+        assertThat(complete("", 1)).containsExactly("cake");
+        assertThat(complete("carx", 10)).isEmpty();
+        assertThat(complete("car", 0)).isEmpty();
+    }
+
+    @Test
+    void prefixEndingInsideAnEdgeStillMatches() {
+        trie.add("spaghetti carbonara", List.of("spaghetti", "carbonara"), 3);
+
+        assertThat(complete("spag", 5)).containsExactly("spaghetti carbonara");
+        assertThat(complete("carb", 5)).containsExactly("spaghetti carbonara");
+        assertThat(complete("spaghettis", 5)).isEmpty();
+    }
+
+    @Test
+    void entryReachableBySeveralKeysIsReturnedOnce() {
+        trie.add("pasta pasta", List.of("pasta", "pasta", "pastas"), 4);
+        trie.add("pastrami", List.of("pastrami"), 1);
+
+        assertThat(complete("past", 10)).containsExactly("pasta pasta", "pastrami");
+        assertThat(trie.size()).isEqualTo(2);
+    }
+
+    @Test
+    void weightChangesReorderCompletions() {
+        CompletionTrie.Entry salt = trie.add("salt", List.of("salt"), 1);
+        trie.add("salmon", List.of("salmon"), 5);
+
+        trie.setWeight(salt, 10);
+        assertThat(complete("sal", 2)).containsExactly("salt", "salmon");
+
+        trie.setWeight(salt, 0);
+        assertThat(complete("sal", 1)).containsExactly("salmon");
+    }
+
+    @Test
+    void removalCompactsTheTrie() {
+        CompletionTrie.Entry tea = trie.add("tea", List.of("tea"), 1);
+        CompletionTrie.Entry teal = trie.add("teal", List.of("teal"), 2);
+        trie.add("team", List.of("team"), 3);
+
+        trie.remove(teal);
+        assertThat(complete("te", 10)).containsExactly("team", "tea");
+
+        trie.remove(tea);
+        assertThat(complete("tea", 10)).containsExactly("team");
+        assertThat(complete("teal", 10)).isEmpty();
+        assertThat(trie.size()).isEqualTo(1);
+    }
+
+    @Test
+    void matchesABruteForceScanUnderRandomChanges() {
+        Random random = new Random(3);
+        Map<String, CompletionTrie.Entry> entries = new HashMap<>();
+        Map<String, Long> weights = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String text = randomWord(random);
+            if (entries.containsKey(text) && random.nextBoolean()) {
+                trie.remove(entries.remove(text));
+                weights.remove(text);
+            } else if (entries.containsKey(text)) {
+                long weight = random.nextInt(1000);
+                trie.setWeight(entries.get(text), weight);
+                weights.put(text, weight);
+            } else {
+                long weight = random.nextInt(1000);
+                entries.put(text, trie.add(text, List.of(text), weight));
+                weights.put(text, weight);
+            }
+        }
+
+        for (String prefix : List.of("", "a", "b", "ab", "ba", "abc", "cab", "aaaa")) {
+            List<Long> expected = weights.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .toList();
+            List<Long> actual = trie.complete(prefix, 10).stream().map(CompletionTrie.Entry::weight).toList();
+            assertThat(actual).as(prefix).isEqualTo(expected);
+            assertThat(trie.complete(prefix, 10)).allMatch(entry -> entry.text().startsWith(prefix));
+        }
+        assertThat(trie.size()).isEqualTo(entries.size());
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(3)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.sofia.recipeapp.search;
+
+import com.sofia.recipeapp.event.UserChangedEvent;
+import com.sofia.recipeapp.repository.CookbookRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CookbookSearchIndexTest {
+
+    private static final long ALICE = 1;
+    private static final long BOB = 2;
+
+    private final CookbookSearchIndex index = new CookbookSearchIndex(mock(CookbookRepository.class));
+
+    private static CookbookDocument cookbook(long id, String title, String description, long ownerId, String owner) {
+        return new CookbookDocument(id, title, description, ownerId, owner, List.of(), List.of());
+    }
+
+    @Test
+    void matchesEveryTokenAsAPrefixAndRanksTitlesFirst() {
+        index.index(cookbook(1, "Weeknight dinners", "quick sunday bread too", ALICE, "alice"));
+        index.index(cookbook(2, "Sunday bread", "", ALICE, "alice"));
+        index.index(cookbook(3, "Sunday roast", "", ALICE, "alice"));
+
+        assertThat(index.search("sun bre", null, 0, 10)).containsExactly(2L, 1L);
+        assertThat(index.search("bread sun", null, 0, 10)).containsExactly(2L, 1L);
+        assertThat(index.search("sunday pizza", null, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void ranksOwnersAboveCollaboratorsAndCombinesBothQueries() {
+        index.index(cookbook(1, "Soups", "", ALICE, "alice"));
+        index.index(new CookbookDocument(2L, "Soups", "", BOB, "bob", List.of(ALICE), List.of("alice")));
+        index.index(cookbook(3, "Cakes", "", ALICE, "alice"));
+
+        assertThat(index.search(null, "ali", 0, 10)).containsExactly(3L, 1L, 2L);
+        assertThat(index.search("soup", "ali", 0, 10)).containsExactly(1L, 2L);
+        assertThat(index.search("soup", "bob", 0, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void withoutQueriesListsEveryCookbookNewestFirst() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(cookbook(id, "Cookbook " + id, "", ALICE, "alice"));
+        }
+
+        assertThat(index.search(" ", null, 1, 2)).containsExactly(4L, 3L);
+    }
+
+    @Test
+    void reindexingReplacesAndRemovingDropsTheCookbook() {
+        index.index(cookbook(1, "Pasta", "", ALICE, "alice"));
+        index.index(cookbook(1, "Noodles", "", ALICE, "alice"));
+
+        assertThat(index.search("pasta", null, 0, 10)).isEmpty();
+        assertThat(index.search("noodle", null, 0, 10)).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.search(null, null, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void renamesAndDeletedUsersUpdateTheirCookbooks() {
+        index.index(cookbook(1, "Alice's", "", ALICE, "alice"));
+        index.index(new CookbookDocument(2L, "Bob's", "", BOB, "bob", List.of(ALICE), List.of("alice")));
+
+        index.onUserChanged(new UserChangedEvent(ALICE, "alice", "carol"));
+        assertThat(index.search(null, "alice", 0, 10)).isEmpty();
+        assertThat(index.search(null, "carol", 0, 10)).containsExactly(1L, 2L);
+
+        index.onUserChanged(new UserChangedEvent(ALICE, "carol", null));
+        assertThat(index.search(null, "carol", 0, 10)).isEmpty();
+        assertThat(index.search(null, null, 0, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void prefixExpansionKeepsTheMostFrequentTerms() {
+        // more rare completions of "sa" than are expanded, all sorting before "salt"
+        long id = 1;
+        for (int i = 0; i < Bm25Postings.MAX_PREFIX_EXPANSIONS + 10; i++) {
+            index.index(cookbook(id++, "sa" + (char) ('a' + i / 26) + (char) ('a' + i % 26), "", ALICE, "alice"));
+        }
+        long firstSalted = id;
+        for (int i = 0; i < 3; i++) {
+            index.index(cookbook(id++, "salt", "", ALICE, "alice"));
+        }
+
+        assertThat(index.search("sa", null, 0, 1000)).contains(firstSalted, firstSalted + 1, firstSalted + 2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.sofia.recipeapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FullTextIndexTest {
+
+    private final FullTextIndex index = new FullTextIndex();
+
+    private static RecipeDocument recipe(long id, String title, String description, String... ingredients) {
+        return new RecipeDocument(id, title, description, "", 1L, "alice", List.of(ingredients), List.of());
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        index.index(recipe(1, "Pancakes", "served with tomato jam"));
+        index.index(recipe(2, "Tomato soup", "a warm soup"));
+        index.index(recipe(3, "Bread", "plain"));
+
+        assertThat(index.search("tomato", 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void ranksShorterDocumentsAboveLongerOnes() {
+        index.index(recipe(1, "Garlic saffron rice", ""));
+        index.index(recipe(2, "Saffron buns", ""));
+
+        assertThat(index.search("saffron", 10)).containsExactly(2L, 1L);
+        assertThat(index.search("garlic saffron", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void requiresEveryTermAndTreatsOnlyTheLastAsPrefix() {
+        index.index(recipe(1, "Chicken curry", "", "chicken", "rice"));
+        index.index(recipe(2, "Chickpea curry", "", "chickpeas"));
+
+        assertThat(index.search("curry chick", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("chick curry", 10)).isEmpty();
+        assertThat(index.search("chicken rice", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void foldsCaseAndDiacritics() {
+        index.index(recipe(1, "Crème Brûlée", ""));
+
+        assertThat(index.search("creme brulee", 10)).containsExactly(1L);
+        assertThat(index.search("CRÈME", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void reindexingReplacesAndRemovingDropsTheRecipe() {
+        index.index(recipe(1, "Apple pie", ""));
+        index.index(recipe(1, "Pear pie", ""));
+
+        assertThat(index.search("apple", 10)).isEmpty();
+        assertThat(index.search("pear", 10)).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.search("pie", 10)).isEmpty();
+    }
+
+    @Test
+    void appliesFilterAndLimit() {
+        for (long id = 1; id <= 5; id++) {
+            index.index(recipe(id, "Salad", ""));
+        }
+
+        // equally relevant matches come newest first
+        assertThat(index.search("salad", 2)).containsExactly(5L, 4L);
+        assertThat(index.search("salad", 10, id -> id % 2 == 1)).containsExactly(5L, 3L, 1L);
+    }
+
+    @Test
+    void prefixExpansionKeepsTheMostFrequentTerms() {
+        // more rare completions of "sa" than are expanded, all sorting before "salt"
+        long id = 1;
+        for (int i = 0; i < Bm25Postings.MAX_PREFIX_EXPANSIONS + 10; i++) {
+            index.index(recipe(id++, "sa" + (char) ('a' + i / 26) + (char) ('a' + i % 26), ""));
+        }
+        long firstSalted = id;
+        for (int i = 0; i < 3; i++) {
+            index.index(recipe(id++, "salt", ""));
+        }
+
+        assertThat(index.search("sa", 1000)).contains(firstSalted, firstSalted + 1, firstSalted + 2);
+    }
+}
@@ -0,0 +1,81 @@
+package com.sofia.recipeapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class FuzzyIndexTest {
+
+    private final FuzzyIndex index = new FuzzyIndex();
+
+    private void recipe(long id, String title, String... ingredients) {
+        index.index(new RecipeDocument(id, title, "", "", 1L, "alice", List.of(ingredients), List.of()));
+    }
+
+    @Test
+    void correctsUnknownWords() {
+        recipe(1, "Spaghetti Carbonara", "eggs", "bacon");
+        recipe(2, "Lasagna");
+
+        assertThat(index.correct("spagetti carbonara")).isEqualTo("spaghetti carbonara");
+        assertThat(index.correct("Lasagne")).isEqualTo("lasagna");
+        assertThat(index.correct("bcaon eggs")).isEqualTo("bacon eggs");
+    }
+
+    @Test
+    void leavesKnownWordsAndTypedPrefixesAlone() {
+        recipe(1, "Spaghetti Carbonara");
+
+        assertThat(index.correct("spaghetti")).isNull();
+        assertThat(index.correct("spaghetti carbo")).isNull();
+        assertThat(index.correct("xyzzy")).isNull();
+        // too short to correct
+        assertThat(index.correct("sp")).isNull();
+    }
+
+    @Test
+    void ranksSimilarWordsByDistanceThenFrequency() {
+        recipe(1, "tomato soup");
+        recipe(2, "potato soup");
+        recipe(3, "potato salad");
+        recipe(4, "tomatoes");
+
+        assertThat(index.similar("Tomato", 10)).extracting(FuzzyIndex.Match::word)
+                .containsExactly("tomato", "potato", "tomatoes");
+        assertThat(index.similar("pomato", 10)).extracting(FuzzyIndex.Match::word, FuzzyIndex.Match::distance)
+                .startsWith(tuple("potato", 1), tuple("tomato", 1));
+        assertThat(index.similar("pomato", 1)).hasSize(1);
+    }
+
+    @Test
+    void removedRecipesNoLongerSuggestTheirWords() {
+        recipe(1, "Goulash");
+        index.remove(1L);
+
+        assertThat(index.correct("gulash")).isNull();
+        assertThat(index.similar("goulash", 10)).isEmpty();
+    }
+
+    @Test
+    void findsTheWordPastManyWordsSharingCommonTrigrams() {
+        // far more words starting with "co" than the posting walk visits
+        long id = 1;
+        for (int i = 0; i < 15_000; i++) {
+            recipe(id++, "co" + Integer.toString(i, 36) + "x");
+        }
+        recipe(id, "cornichon");
+
+        assertThat(index.correct("cornichom")).isEqualTo("cornichon");
+    }
+
+    @Test
+    void editDistanceCountsSwapsAsOneEdit() {
+        assertThat(FuzzyIndex.editDistance("bacon", "bcaon", 2)).isEqualTo(1);
+        assertThat(FuzzyIndex.editDistance("lasagne", "lasagna", 2)).isEqualTo(1);
+        assertThat(FuzzyIndex.editDistance("kitten", "sitting", 5)).isEqualTo(3);
+        assertThat(FuzzyIndex.editDistance("kitten", "sitting", 1)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,80 @@
+package com.sofia.recipeapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngredientIndexTest {
+
+    private final IngredientIndex index = new IngredientIndex();
+
+    private void recipe(long id, String... ingredients) {
+        index.index(new RecipeDocument(id, "", "", "", 1L, "alice", List.of(ingredients), List.of()));
+    }
+
+    private List<Long> ids(IngredientIndex.PantryResult result) {
+        return result.matches().stream().map(IngredientIndex.PantryMatch::recipeId).toList();
+    }
+
+    @Test
+    void keyFoldsCasePluralsAndPunctuation() {
+        assertThat(IngredientIndex.key("Fresh  Tomatoes,")).isEqualTo("fresh tomato");
+        assertThat(IngredientIndex.key("Crème fraîche")).isEqualTo("creme fraiche");
+        assertThat(IngredientIndex.key(" - ")).isEmpty();
+    }
+
+    @Test
+    void pantryItemCoversIngredientsContainingAllItsWords() {
+        recipe(1, "sea salt", "eggs");
+        recipe(2, "salted butter");
+
+        IngredientIndex.PantryResult result = index.search(List.of("Salt", "egg"), 0, 10);
+
+        assertThat(ids(result)).containsExactly(1L);
+        assertThat(result.coveredKeys()).containsExactlyInAnyOrder("sea salt", "egg");
+    }
+
+    @Test
+    void ordersByMissingThenByMatchedIngredients() {
+        recipe(1, "flour", "milk", "egg");
+        recipe(2, "flour", "milk", "egg", "sugar");
+        recipe(3, "flour", "milk");
+        recipe(4, "flour", "butter", "sugar", "vanilla");
+
+        IngredientIndex.PantryResult result = index.search(List.of("flour", "milk", "egg"), 1, 10);
+
+        assertThat(ids(result)).containsExactly(1L, 3L, 2L);
+        assertThat(result.matches().get(2).missing()).isEqualTo(1);
+    }
+
+    @Test
+    void appliesLimit() {
+        for (long id = 1; id <= 5; id++) {
+            recipe(id, "rice");
+        }
+
+        assertThat(ids(index.search(List.of("rice"), 0, 2))).containsExactly(5L, 4L);
+    }
+
+    @Test
+    void reindexingReplacesAndRemovingDropsTheRecipe() {
+        recipe(1, "rice");
+        recipe(1, "pasta");
+
+        assertThat(ids(index.search(List.of("rice"), 0, 10))).isEmpty();
+        assertThat(ids(index.search(List.of("pasta"), 0, 10))).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(ids(index.search(List.of("pasta"), 0, 10))).isEmpty();
+    }
+
+    @Test
+    void handlesIdsFarApart() {
+        recipe(3, "saffron");
+        recipe(5_000_000, "saffron");
+
+        assertThat(ids(index.search(List.of("saffron"), 0, 10))).containsExactly(5_000_000L, 3L);
+    }
+}
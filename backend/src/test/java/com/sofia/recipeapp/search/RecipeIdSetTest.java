@@ -0,0 +1,95 @@
+package com.sofia.recipeapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeIdSetTest {
+
+    private static List<Integer> ids(RecipeIdSet set) {
+        List<Integer> ids = new ArrayList<>();
+        set.forEach(ids::add);
+        return ids;
+    }
+
+    @Test
+    void keepsIdsSortedWithoutDuplicates() {
+        RecipeIdSet set = new RecipeIdSet();
+        for (int id : new int[]{42, 7, 1000, 7, 3}) {
+            set.add(id);
+        }
+        set.remove(1000);
+        set.remove(5);
+
+        assertThat(ids(set)).containsExactly(3, 7, 42);
+        assertThat(set.size()).isEqualTo(3);
+    }
+
+    @Test
+    void staysSparseForRareIdsOverALargeRange() {
+        RecipeIdSet set = new RecipeIdSet();
+        for (int i = 1; i <= 1000; i++) {
+            set.add(i * 1000);
+        }
+
+        assertThat(set.isDense()).isFalse();
+        assertThat(set.size()).isEqualTo(1000);
+    }
+
+    @Test
+    void switchesToBitmapWhenDenseAndBackWhenThinnedOut() {
+        RecipeIdSet set = new RecipeIdSet();
+        for (int id = 0; id < 1000; id++) {
+            set.add(id);
+        }
+        assertThat(set.isDense()).isTrue();
+
+        for (int id = 0; id < 1000; id++) {
+            if (id % 100 != 0) {
+                set.remove(id);
+            }
+        }
+        assertThat(set.isDense()).isFalse();
+        assertThat(ids(set)).containsExactly(0, 100, 200, 300, 400, 500, 600, 700, 800, 900);
+    }
+
+    @Test
+    void aFarIdTurnsABitmapBackIntoAnArray() {
+        RecipeIdSet set = new RecipeIdSet();
+        for (int id = 0; id < 100; id++) {
+            set.add(id);
+        }
+        assertThat(set.isDense()).isTrue();
+
+        set.add(10_000_000);
+
+        assertThat(set.isDense()).isFalse();
+        assertThat(ids(set)).hasSize(101).endsWith(10_000_000);
+    }
+
+    @Test
+    void matchesATreeSetUnderRandomChanges() {
+        Random random = new Random(1);
+        RecipeIdSet set = new RecipeIdSet();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            // a narrow range fills up into a bitmap, the occasional far id thins it out again
+            int id = random.nextInt(10) == 0 ? random.nextInt(1_000_000) : random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                set.remove(id);
+                expected.remove(id);
+            } else {
+                set.add(id);
+                expected.add(id);
+            }
+        }
+
+        assertThat(ids(set)).containsExactlyElementsOf(expected);
+        assertThat(set.size()).isEqualTo(expected.size());
+    }
+}
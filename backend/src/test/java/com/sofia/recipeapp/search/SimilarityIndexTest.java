@@ -0,0 +1,91 @@
+package com.sofia.recipeapp.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SimilarityIndexTest {
+
+    private final SimilarityIndex index = new SimilarityIndex();
+
+    private static RecipeDocument recipe(long id, List<String> ingredients, List<String> tags) {
+        return new RecipeDocument(id, "Recipe " + id, "", "", 1L, "alice", ingredients, tags);
+    }
+
+    @Test
+    void ranksByJaccardSimilarityOfIngredientsAndTags() {
+        List<String> base = List.of("flour", "milk", "egg", "sugar", "butter", "salt");
+        index.index(recipe(1, base, List.of("breakfast", "sweet")));
+        // 8 shared features out of 8
+        index.index(recipe(2, base, List.of("breakfast", "sweet")));
+        // 8 shared out of 9
+        index.index(recipe(3, List.of("flour", "milk", "egg", "sugar", "butter", "salt", "vanilla"),
+                List.of("breakfast", "sweet")));
+        // nothing shared
+        index.index(recipe(4, List.of("rice", "beans"), List.of("dinner")));
+
+        List<SimilarityIndex.Similar> similar = index.similar(1L, 10, 0.5);
+
+        assertThat(similar).extracting(SimilarityIndex.Similar::recipeId).containsExactly(2L, 3L);
+        assertThat(similar.get(0).similarity()).isEqualTo(1.0);
+        assertThat(similar.get(1).similarity()).isCloseTo(8.0 / 9, within(1e-9));
+    }
+
+    @Test
+    void normalizesIngredientNames() {
+        index.index(recipe(1, List.of("Tomatoes", "Onions", "garlic"), List.of()));
+        index.index(recipe(2, List.of("tomato", "onion", "Garlic"), List.of()));
+
+        assertThat(index.similar(1L, 10, 1.0)).extracting(SimilarityIndex.Similar::recipeId).containsExactly(2L);
+    }
+
+    @Test
+    void appliesMinSimilarityAndLimit() {
+        List<String> ingredients = List.of("pasta", "tomato", "basil", "garlic");
+        for (long id = 1; id <= 5; id++) {
+            index.index(recipe(id, ingredients, List.of("italian")));
+        }
+        index.index(recipe(6, List.of("pasta", "cream"), List.of("italian")));
+
+        // equally similar recipes come newest first
+        assertThat(index.similar(1L, 2, 0.9)).extracting(SimilarityIndex.Similar::recipeId).containsExactly(5L, 4L);
+        assertThat(index.similar(1L, 10, 0.9)).extracting(SimilarityIndex.Similar::recipeId)
+                .doesNotContain(1L, 6L);
+    }
+
+    @Test
+    void reindexingReplacesAndRemovingDropsTheRecipe() {
+        List<String> soup = List.of("leek", "potato", "stock", "cream");
+        index.index(recipe(1, soup, List.of("soup")));
+        index.index(recipe(2, soup, List.of("soup")));
+
+        index.index(recipe(2, List.of("chocolate", "flour", "sugar"), List.of("cake")));
+        assertThat(index.similar(1L, 10, 0.1)).isEmpty();
+
+        index.index(recipe(2, soup, List.of("soup")));
+        index.remove(2L);
+        assertThat(index.similar(1L, 10, 0.1)).isEmpty();
+        assertThat(index.similar(2L, 10, 0.1)).isEmpty();
+    }
+
+    @Test
+    void recipesWithoutIngredientsOrTagsAreNotIndexed() {
+        index.index(recipe(1, List.of(), List.of()));
+        index.index(recipe(2, List.of(), List.of()));
+
+        assertThat(index.similar(1L, 10, 0.0)).isEmpty();
+    }
+
+    @Test
+    void boundsTheCandidatesOfCrowdedBuckets() {
+        List<String> ingredients = List.of("water", "salt");
+        for (long id = 1; id <= SimilarityIndex.MAX_CANDIDATES + 50; id++) {
+            index.index(recipe(id, ingredients, List.of()));
+        }
+
+        assertThat(index.similar(1L, 1000, 0.0)).hasSize(SimilarityIndex.MAX_CANDIDATES);
+    }
+}
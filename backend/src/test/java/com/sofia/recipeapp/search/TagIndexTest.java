@@ -0,0 +1,76 @@
+package com.sofia.recipeapp.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagIndexTest {
+
+    private final TagIndex index = new TagIndex();
+
+    private void recipe(long id, String... tags) {
+        index.index(new RecipeDocument(id, "", "", "", 1L, "alice", List.of(), List.of(tags)));
+    }
+
+    private static List<Integer> ids(BitSet bits) {
+        return bits.stream().boxed().toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        recipe(1, "Vegan", "Quick");
+        recipe(2, "vegan", "Dessert");
+        recipe(3, "Quick", "Dessert");
+        recipe(4);
+    }
+
+    @Test
+    void withoutTagsEveryRecipeMatches() {
+        assertThat(ids(index.filter(null, List.of(), null))).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void allOfRequiresEveryTag() {
+        assertThat(ids(index.filter(List.of("vegan", "quick"), null, null))).containsExactly(1);
+        assertThat(ids(index.filter(List.of("vegan", "unknown"), null, null))).isEmpty();
+    }
+
+    @Test
+    void anyOfRequiresOneOfTheTags() {
+        assertThat(ids(index.filter(null, List.of("dessert", "quick"), null))).containsExactly(1, 2, 3);
+        assertThat(ids(index.filter(null, List.of("unknown"), null))).isEmpty();
+    }
+
+    @Test
+    void noneOfExcludesTheTags() {
+        assertThat(ids(index.filter(null, null, List.of("dessert")))).containsExactly(1, 4);
+        assertThat(ids(index.filter(null, null, List.of("unknown")))).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void combinesFiltersAndFoldsCase() {
+        assertThat(ids(index.filter(List.of("VEGAN"), List.of("quick", "dessert"), List.of("Quick")))).containsExactly(2);
+    }
+
+    @Test
+    void resultIsACopy() {
+        index.filter(null, null, null).clear();
+
+        assertThat(ids(index.filter(null, null, null))).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void reindexingReplacesTagsAndRemovingDropsTheRecipe() {
+        recipe(1, "Dessert");
+        index.remove(3L);
+
+        assertThat(ids(index.filter(List.of("vegan"), null, null))).containsExactly(2);
+        assertThat(ids(index.filter(List.of("dessert"), null, null))).containsExactly(1, 2);
+        assertThat(ids(index.filter(List.of("quick"), null, null))).isEmpty();
+        assertThat(ids(index.filter(null, null, null))).containsExactly(1, 2, 4);
+    }
+}
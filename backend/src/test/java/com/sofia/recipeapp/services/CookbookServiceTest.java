@@ -0,0 +1,194 @@
+package com.sofia.recipeapp.services;
+
+import com.sofia.recipeapp.cache.JsonFragmentCache;
+import com.sofia.recipeapp.dto.BatchItemResultDTO;
+import com.sofia.recipeapp.dto.CookbookBatchDTO;
+import com.sofia.recipeapp.dto.CookbookBatchResultDTO;
+import com.sofia.recipeapp.event.CookbookChangedEvent;
+import com.sofia.recipeapp.event.CookbookRecipesChangedEvent;
+import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.model.Cookbook;
+import com.sofia.recipeapp.model.Recipe;
+import com.sofia.recipeapp.model.User;
+import com.sofia.recipeapp.search.CookbookSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Import(CookbookService.class)
+@RecordApplicationEvents
+class CookbookServiceTest {
+
+    @Autowired
+    private CookbookService cookbookService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockitoBean
+    private CookbookPermissions cookbookPermissions;
+
+    @MockitoBean
+    private CookbookSearchIndex cookbookSearchIndex;
+
+    @MockitoBean
+    private JsonFragmentCache jsonFragmentCache;
+
+    @MockitoBean
+    private FavouriteResolver favouriteResolver;
+
+    private User alice;
+    private User bob;
+    private User carol;
+    private Recipe first;
+    private Recipe second;
+    private Recipe third;
+    private Long cookbookId;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("alice");
+        bob = user("bob");
+        carol = user("carol");
+        first = recipe("First");
+        second = recipe("Second");
+        third = recipe("Third");
+
+        Cookbook cookbook = new Cookbook();
+        cookbook.setTitle("Sunday");
+        cookbook.setOwner(alice);
+        cookbook.getRecipes().add(first);
+        cookbook.getCollaborators().add(bob);
+        cookbookId = entityManager.persistAndFlush(cookbook).getId();
+        entityManager.clear();
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setRole("USER");
+        return entityManager.persist(user);
+    }
+
+    private Recipe recipe(String title) {
+        Recipe recipe = new Recipe();
+        recipe.setTitle(title);
+        recipe.setCreatedBy(alice);
+        return entityManager.persist(recipe);
+    }
+
+    private List<Long> recipeIds() {
+        return jdbcTemplate.queryForList(
+                "SELECT recipe_id FROM cookbook_recipes WHERE cookbook_id = ? ORDER BY recipe_id", Long.class, cookbookId);
+    }
+
+    private List<Long> collaboratorIds() {
+        return jdbcTemplate.queryForList(
+                "SELECT user_id FROM cookbook_collaborators WHERE cookbook_id = ? ORDER BY user_id", Long.class, cookbookId);
+    }
+
+    @Test
+    void replaysRecipeChangesAndWritesOnlyTheDifference() {
+        long missing = third.getId() + 1000;
+        CookbookBatchDTO batch = new CookbookBatchDTO(
+                List.of(second.getId(), first.getId(), second.getId(), missing),
+                List.of(first.getId(), third.getId()),
+                null, null);
+
+        CookbookBatchResultDTO result = cookbookService.applyBatch(cookbookId, batch, alice.getId());
+
+        assertThat(result.getRecipes())
+                .extracting(BatchItemResultDTO::getItem, BatchItemResultDTO::getOperation, BatchItemResultDTO::getStatus)
+                .containsExactly(
+                        tuple(String.valueOf(second.getId()), "add", "added"),
+                        tuple(String.valueOf(first.getId()), "add", "unchanged"),
+                        tuple(String.valueOf(second.getId()), "add", "unchanged"),
+                        tuple(String.valueOf(missing), "add", "not_found"),
+                        tuple(String.valueOf(first.getId()), "remove", "removed"),
+                        tuple(String.valueOf(third.getId()), "remove", "unchanged"));
+        assertThat(result.getCollaborators()).isEmpty();
+        assertThat(recipeIds()).containsExactly(second.getId());
+
+        verify(cookbookPermissions).requireEditor(any(), any(), any());
+        assertThat(events.stream(CookbookRecipesChangedEvent.class)).singleElement().satisfies(event -> {
+            assertThat(event.added()).containsExactly(second.getId());
+            assertThat(event.removed()).containsExactly(first.getId());
+        });
+    }
+
+    @Test
+    void addedAndRemovedInOneBatchWritesNothing() {
+        CookbookBatchDTO batch = new CookbookBatchDTO(
+                List.of(third.getId()), List.of(third.getId()), List.of("carol"), List.of("carol"));
+
+        CookbookBatchResultDTO result = cookbookService.applyBatch(cookbookId, batch, alice.getId());
+
+        assertThat(result.getRecipes()).extracting(BatchItemResultDTO::getStatus).containsExactly("added", "removed");
+        assertThat(result.getCollaborators()).extracting(BatchItemResultDTO::getStatus).containsExactly("added", "removed");
+        assertThat(recipeIds()).containsExactly(first.getId());
+        assertThat(collaboratorIds()).containsExactly(bob.getId());
+        assertThat(events.stream(CookbookRecipesChangedEvent.class)).isEmpty();
+        assertThat(events.stream(CookbookChangedEvent.class)).isEmpty();
+    }
+
+    @Test
+    void collaboratorChangesNeedTheOwnerAndReindexTheCookbook() {
+        CookbookBatchDTO batch = new CookbookBatchDTO(
+                null, null, List.of("carol", "bob", "nobody"), List.of("bob"));
+
+        CookbookBatchResultDTO result = cookbookService.applyBatch(cookbookId, batch, alice.getId());
+
+        assertThat(result.getCollaborators())
+                .extracting(BatchItemResultDTO::getItem, BatchItemResultDTO::getOperation, BatchItemResultDTO::getStatus)
+                .containsExactly(
+                        tuple("carol", "add", "added"),
+                        tuple("bob", "add", "unchanged"),
+                        tuple("nobody", "add", "not_found"),
+                        tuple("bob", "remove", "removed"));
+        assertThat(collaboratorIds()).containsExactly(carol.getId());
+
+        verify(cookbookPermissions).requireOwner(any(), any(), any());
+        assertThat(events.stream(CookbookChangedEvent.class)).singleElement()
+                .satisfies(event -> assertThat(event.document().collaboratorUsernames()).containsExactly("carol"));
+    }
+
+    @Test
+    void rejectsTooLargeBatchesBeforeCheckingPermissions() {
+        List<Long> ids = Collections.nCopies(CookbookService.MAX_BATCH_SIZE + 1, first.getId());
+
+        assertThatThrownBy(() -> cookbookService.applyBatch(cookbookId, new CookbookBatchDTO(ids, null, null, null), alice.getId()))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+        verifyNoInteractions(cookbookPermissions);
+    }
+}
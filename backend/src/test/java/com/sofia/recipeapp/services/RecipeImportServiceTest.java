@@ -0,0 +1,171 @@
+package com.sofia.recipeapp.services;
+
+import com.sofia.recipeapp.dto.ImportReportDTO;
+import com.sofia.recipeapp.event.RecipeChangedEvent;
+import com.sofia.recipeapp.importer.RecipeBatchWriter;
+import com.sofia.recipeapp.importer.RecipeRecordReader;
+import com.sofia.recipeapp.importer.RecipeRow;
+import com.sofia.recipeapp.model.Tag;
+import com.sofia.recipeapp.model.User;
+import com.sofia.recipeapp.repository.TagRepository;
+import com.sofia.recipeapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Import({RecipeImportService.class, RecipeBatchWriter.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@RecordApplicationEvents
+// batches commit on their own, as they do outside of tests
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RecipeImportServiceTest {
+
+    @Autowired
+    private RecipeImportService importService;
+
+    @MockitoSpyBean
+    private RecipeBatchWriter batchWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        admin = user("admin");
+        user("alice");
+        for (String name : List.of("vegan", "gluten-free")) {
+            Tag tag = new Tag();
+            tag.setName(name);
+            tagRepository.save(tag);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : List.of("recipe_tag", "recipe_ingredient", "recipes", "tag", "users")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("secret");
+        user.setRole("USER");
+        return userRepository.save(user);
+    }
+
+    private ImportReportDTO importNdjson(String content) {
+        return importService.importRecipes(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                RecipeRecordReader.Format.NDJSON, admin.getId(), admin.getUsername());
+    }
+
+    private Long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    @Test
+    void importsRecipesWithIngredientsTagsAndAuthors() {
+        ImportReportDTO report = importNdjson("""
+                {"title":"Goulash","createdByUsername":"alice","ingredients":[{"name":"beef","quantity":"1 kg"},{"name":"onion","quantity":"2"}],"tags":["Gluten Free","unknown"]}
+                {"title":"Ghost soup","createdByUsername":"ghost","ingredients":[],"tags":["vegan"]}
+                {"description":"no title"}
+                """);
+
+        assertThat(report.getRead()).isEqualTo(3);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement()
+                .satisfies(error -> assertThat(error.getMessage()).isEqualTo("title is required"));
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT u.username FROM recipes r JOIN users u ON u.id = r.created_by ORDER BY r.id", String.class))
+                .containsExactly("alice", "admin");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT CONCAT(ingredient_name, ':', amount, ':', unit) FROM recipe_ingredient ORDER BY id", String.class))
+                .containsExactly("beef:1000.0:g", "onion:2.0:pcs");
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT t.name FROM recipe_tag rt JOIN tag t ON t.id = rt.tag_id ORDER BY rt.recipe_id", String.class))
+                .containsExactly("gluten-free", "vegan");
+        assertThat(events.stream(RecipeChangedEvent.class)).hasSize(2);
+    }
+
+    @Test
+    void writesLargeImportsInSeveralBatches() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1201; i++) {
+            content.append("{\"title\":\"Recipe ").append(i).append("\",\"ingredients\":[{\"name\":\"salt\"}]}\n");
+        }
+
+        ImportReportDTO report = importNdjson(content.toString());
+
+        assertThat(report.getImported()).isEqualTo(1201);
+        assertThat(count("SELECT COUNT(*) FROM recipes")).isEqualTo(1201);
+        assertThat(count("SELECT COUNT(*) FROM recipe_ingredient")).isEqualTo(1201);
+        assertThat(count("SELECT COUNT(DISTINCT recipe_id) FROM recipe_ingredient")).isEqualTo(1201);
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRow() {
+        // the database rejects any batch containing the broken recipe
+        doAnswer(invocation -> {
+            List<RecipeRow> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.record().title().equals("Broken"))) {
+                throw new DataIntegrityViolationException("broken row");
+            }
+            return invocation.callRealMethod();
+        }).when(batchWriter).insert(any());
+
+        ImportReportDTO report = importNdjson("""
+                {"title":"First"}
+                {"title":"Broken"}
+                {"title":"Third"}
+                """);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getRecord()).isEqualTo(2);
+            assertThat(error.getMessage()).isEqualTo("broken row");
+        });
+        assertThat(jdbcTemplate.queryForList("SELECT title FROM recipes ORDER BY id", String.class))
+                .containsExactly("First", "Third");
+        assertThat(events.stream(RecipeChangedEvent.class)).hasSize(2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.sofia.recipeapp.services;
+
+import com.sofia.recipeapp.dto.ShoppingListItemDTO;
+import com.sofia.recipeapp.exception.ApiException;
+import com.sofia.recipeapp.quantity.Quantity;
+import com.sofia.recipeapp.repository.CookbookRepository;
+import com.sofia.recipeapp.repository.RecipeRepository;
+import com.sofia.recipeapp.repository.ShoppingItemView;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShoppingListServiceTest {
+
+    private final RecipeRepository recipeRepository = mock(RecipeRepository.class);
+    private final ShoppingListService shoppingListService =
+            new ShoppingListService(recipeRepository, mock(CookbookRepository.class));
+
+    private record Item(String getName, String getQuantity, Double getAmount, String getUnit)
+            implements ShoppingItemView {
+    }
+
+    /**
+     * ingredient row as saved, with the quantity parsed like RecipeIngredient does
+     */
+    private static Item item(String name, String quantity) {
+        Quantity parsed = Quantity.parse(quantity);
+        return new Item(name, quantity, parsed == null ? null : parsed.amount(), parsed == null ? null : parsed.unit());
+    }
+
+    private List<ShoppingListItemDTO> shoppingList(double scale, Item... items) {
+        when(recipeRepository.findShoppingItems(anyCollection())).thenReturn(List.of(items));
+        return shoppingListService.getShoppingList(List.of(1L, 2L), scale);
+    }
+
+    @Test
+    void sumsIngredientsWithTheSameNameAndUnit() {
+        List<ShoppingListItemDTO> list = shoppingList(1,
+                item("Flour", "200 g"),
+                item("flour", "0.5 kg"),
+                item("Eggs", "2 large eggs"),
+                item("egg", "1"),
+                item("Garlic", "2 cloves"),
+                item("garlic", "1"),
+                item("Milk", "1 cup"),
+                item("salt", "a pinch"),
+                item("salt", "to taste"));
+
+        assertThat(list)
+                .extracting(ShoppingListItemDTO::getName, ShoppingListItemDTO::getAmount, ShoppingListItemDTO::getUnit)
+                .containsExactly(
+                        tuple("Eggs", 3.0, "pcs"),
+                        tuple("Flour", 700.0, "g"),
+                        tuple("Garlic", 2.0, "clove"),
+                        tuple("garlic", 1.0, "pcs"),
+                        tuple("Milk", 236.59, "ml"),
+                        tuple("salt", null, null));
+        assertThat(list.get(5).getQuantities()).containsExactly("a pinch", "to taste");
+    }
+
+    @Test
+    void scalesAmountsAndShowsLargeOnesInKilogramsAndLitres() {
+        List<ShoppingListItemDTO> list = shoppingList(2,
+                item("sugar", "1,000 g"),
+                item("water", "750 ml"),
+                item("lemons", "1 1/2"));
+
+        assertThat(list)
+                .extracting(ShoppingListItemDTO::getName, ShoppingListItemDTO::getAmount, ShoppingListItemDTO::getUnit)
+                .containsExactly(
+                        tuple("lemons", 3.0, "pcs"),
+                        tuple("sugar", 2.0, "kg"),
+                        tuple("water", 1.5, "l"));
+    }
+
+    @Test
+    void rejectsAScaleOutOfRange() {
+        assertThatThrownBy(() -> shoppingListService.getShoppingList(List.of(1L), 0))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> shoppingListService.getShoppingList(List.of(1L), ShoppingListService.MAX_SCALE + 1))
+                .isInstanceOf(ApiException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.sofia.recipeapp.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BlobStoreTest {
+
+    private static final byte[] CONTENT = "profile image".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TempDir
+    private Path root;
+
+    private BlobStore blobStore;
+
+    @BeforeEach
+    void setUp() {
+        blobStore = new BlobStore(jdbcTemplate, transactionTemplate, root.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM blobs");
+    }
+
+    private String put(byte[] content, boolean rollback) {
+        return transactionTemplate.execute(status -> {
+            String hash = blobStore.put(content);
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+            return hash;
+        });
+    }
+
+    private List<Integer> refCount(String hash) {
+        return jdbcTemplate.queryForList("SELECT ref_count FROM blobs WHERE hash = ?", Integer.class, hash);
+    }
+
+    @Test
+    void storesContentOnceAndSweepsItWhenReleased() {
+        String hash = put(CONTENT, false);
+        assertThat(put(CONTENT, false)).isEqualTo(hash);
+        assertThat(refCount(hash)).containsExactly(2);
+        assertThat(blobStore.get(hash)).isPresent();
+
+        blobStore.release(hash);
+        blobStore.sweep();
+        assertThat(blobStore.get(hash)).isPresent();
+
+        blobStore.release(hash);
+        blobStore.sweep();
+        assertThat(blobStore.get(hash)).isEmpty();
+        assertThat(refCount(hash)).isEmpty();
+    }
+
+    @Test
+    void sweepsTheFileOfARolledBackPut() {
+        String hash = put(CONTENT, true);
+
+        assertThat(refCount(hash)).containsExactly(0);
+        assertThat(blobStore.get(hash)).isPresent();
+
+        blobStore.sweep();
+        assertThat(blobStore.get(hash)).isEmpty();
+        assertThat(refCount(hash)).isEmpty();
+    }
+
+    @Test
+    void keepsAReferencedBlobWhenAnotherPutRollsBack() {
+        String hash = put(CONTENT, false);
+        put(CONTENT, true);
+
+        assertThat(refCount(hash)).containsExactly(1);
+        blobStore.sweep();
+        assertThat(blobStore.get(hash)).isPresent();
+    }
+
+    @Test
+    void storingTheContentAgainAfterARollbackKeepsIt() {
+        String hash = put(CONTENT, true);
+        assertThat(put(CONTENT, false)).isEqualTo(hash);
+
+        assertThat(refCount(hash)).containsExactly(1);
+        blobStore.sweep();
+        assertThat(blobStore.get(hash)).isPresent();
+    }
+}